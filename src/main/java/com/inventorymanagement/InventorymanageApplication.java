@@ -4,12 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The entry point of the Inventory Management application.
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class InventorymanageApplication {
 	/**
 	 * The main method that serves as the entry point for the Java application.
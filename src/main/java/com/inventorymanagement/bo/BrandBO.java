@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import com.inventorymanagement.dao.BrandRepository;
 import com.inventorymanagement.entity.Brand;
+import com.inventorymanagement.entity.CacheChange;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
 /**
@@ -26,6 +27,20 @@ public class BrandBO {
 	@Autowired
 	private BrandRepository brandRepository;
 
+	/**
+	 * Second-level cache holding the brands. It is automatically injected by
+	 * Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */ReferenceDataCache referenceDataCache;
+
+	/**
+	 * Log through which other nodes learn of new brands. It is automatically
+	 * injected by Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */ChangeLog changeLog;
+
 	/**
 	 * Inserts a new brand into the repository.
 	 * 
@@ -35,7 +50,10 @@ public class BrandBO {
 	 */
 	public Brand insert(final Brand brand) {
 		try {
-			return brandRepository.save(brand);
+			final Brand saved = changeLog.record(CacheChange.Kind.BRAND, () -> brandRepository.save(brand),
+					Brand::getBrandId);
+			referenceDataCache.evict(Brand.class);
+			return saved;
 		} catch (DataIntegrityViolationException e) {
 			throw e;
 		}
@@ -0,0 +1,174 @@
+package com.inventorymanagement.bo;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version of the product catalog, bumped after every committed product or
+ * stock change. The product list endpoints use it as their ETag, so a client
+ * whose copy is current gets a 304 without the catalog being queried, and a
+ * client holding an older version can ask for just the products changed
+ * since.
+ *
+ * Versions only mean something within one run of this node, so the ETag also
+ * carries an epoch taken at startup; tags from another node or an earlier run
+ * never match.
+ *
+ * Only the most recently changed products are remembered. Once more products
+ * have changed than that, the oldest entries are dropped and versions before
+ * the newest dropped one are no longer answered with a delta; clients holding
+ * such a version get the full list.
+ */
+@Component
+public class CatalogVersion {
+
+	/**
+	 * Identifies this run of the node.
+	 */
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	/**
+	 * Version at which each product last changed, keyed by product ID, from the
+	 * least to the most recently changed. Guarded by the monitor.
+	 */
+	private final Map<Integer, Long> changedAt = new LinkedHashMap<>();
+
+	/**
+	 * Largest number of products kept in {@link #changedAt}.
+	 */
+	private final int maxTracked;
+
+	/**
+	 * Oldest version from which every change is still known: the version of the
+	 * newest entry dropped from {@link #changedAt}. Guarded by the monitor.
+	 */
+	private long floor;
+
+	/**
+	 * Current catalog version. Written under the monitor so that a product's
+	 * entry in {@link #changedAt} is in place before the version that covers it
+	 * is visible to {@link #changedSince}.
+	 */
+	private volatile long version;
+
+	/**
+	 * Constructor for CatalogVersion.
+	 *
+	 * @param maxTracked the largest number of changed products remembered.
+	 */
+	public CatalogVersion(@Value("${inventory.catalog.max-tracked-changes:100000}") final int maxTracked) {
+		this.maxTracked = maxTracked;
+	}
+
+	/**
+	 * Returns the strong ETag of the current catalog version. Read it before
+	 * querying the catalog: a change committed in between then yields a newer
+	 * tag on the next request rather than a stale 304.
+	 *
+	 * @return the quoted ETag.
+	 */
+	public String etag() {
+		return "\"" + epoch + "-" + version + "\"";
+	}
+
+	/**
+	 * Returns the current catalog version.
+	 *
+	 * @return the version.
+	 */
+	public long current() {
+		return version;
+	}
+
+	/**
+	 * Tells whether a product changed after a given catalog version, so that a
+	 * copy read at that version may be stale. A product dropped from the record
+	 * counts as changed if the version is older than what is still known.
+	 *
+	 * @param productId the ID of the product.
+	 * @param since     the catalog version the copy was read at.
+	 * @return true if the product changed since, or may have.
+	 */
+	public synchronized boolean isChangedSince(final int productId, final long since) {
+		final Long at = changedAt.get(productId);
+		return at == null ? since < floor : at > since;
+	}
+
+	/**
+	 * Records that a product or its stock changed. Inside a transaction the
+	 * version is bumped after commit, so it never runs ahead of the data.
+	 *
+	 * @param productId the ID of the changed product.
+	 */
+	public void changed(final int productId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					bump(productId);
+				}
+			});
+		} else {
+			bump(productId);
+		}
+	}
+
+	/**
+	 * Returns the products changed after the version named by an ETag that
+	 * this node handed out earlier.
+	 *
+	 * @param etag the ETag held by the client, quoted or not.
+	 * @return the IDs of the products changed since, or null if the ETag was
+	 *         not issued by this run of the node or is older than the changes
+	 *         still remembered.
+	 */
+	public synchronized List<Integer> changedSince(final String etag) {
+		final String tag = etag.replace("\"", "");
+		final int dash = tag.indexOf('-');
+		if (dash < 0 || !epoch.equals(tag.substring(0, dash))) {
+			return null;
+		}
+		final long since;
+		try {
+			since = Long.parseLong(tag.substring(dash + 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (since > version || since < floor) {
+			return null;
+		}
+		final List<Integer> productIds = new ArrayList<>();
+		changedAt.forEach((productId, at) -> {
+			if (at > since) {
+				productIds.add(productId);
+			}
+		});
+		return productIds;
+	}
+
+	/**
+	 * Moves the catalog to the next version and stamps the product with it, as
+	 * the most recently changed product. Drops the least recently changed
+	 * products beyond the limit.
+	 */
+	private synchronized void bump(final int productId) {
+		final long next = version + 1;
+		changedAt.remove(productId);
+		changedAt.put(productId, next);
+		final Iterator<Long> oldest = changedAt.values().iterator();
+		while (changedAt.size() > maxTracked) {
+			floor = oldest.next();
+			oldest.remove();
+		}
+		version = next;
+	}
+
+}
@@ -9,6 +9,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
 import com.inventorymanagement.dao.CategoryRepository;
+import com.inventorymanagement.entity.CacheChange;
 import com.inventorymanagement.entity.Category;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
@@ -26,6 +27,20 @@ public class CategoryBO {
 	@Autowired
 	/* default */CategoryRepository categoryRepo;
 
+	/**
+	 * Second-level cache holding the categories. It is automatically injected by
+	 * Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */ReferenceDataCache referenceDataCache;
+
+	/**
+	 * Log through which other nodes learn of new categories. It is automatically
+	 * injected by Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */ChangeLog changeLog;
+
 	/**
 	 * Inserts a new category into the repository.
 	 * 
@@ -35,7 +50,10 @@ public class CategoryBO {
 	 */
 	public Category insert(final Category category) {
 		try {
-			return categoryRepo.save(category);
+			final Category saved = changeLog.record(CacheChange.Kind.CATEGORY, () -> categoryRepo.save(category),
+					Category::getCategoryId);
+			referenceDataCache.evict(Category.class);
+			return saved;
 		} catch (DataIntegrityViolationException e) {
 			throw e;
 		}
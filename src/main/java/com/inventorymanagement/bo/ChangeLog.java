@@ -0,0 +1,116 @@
+package com.inventorymanagement.bo;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inventorymanagement.dao.CacheChangeRepository;
+import com.inventorymanagement.entity.CacheChange;
+
+/**
+ * Writes the 'cache_change' log that keeps the in-process caches of several
+ * nodes coherent. Each product, stock, brand or category change adds a row in
+ * the transaction that makes the change, so a row is visible to other nodes
+ * exactly when the change is; they tail the log and drop their cached copies.
+ *
+ * Enabled with {@code inventory.change-log.enabled}, which is the default; a
+ * single node can turn it off to save the extra insert per change.
+ */
+@Component
+public class ChangeLog {
+
+	/**
+	 * Identifies this node in the rows it writes, so it can skip its own changes
+	 * when tailing the log.
+	 */
+	private final String origin = UUID.randomUUID().toString();
+
+	/**
+	 * Repository used to write the log.
+	 */
+	private final CacheChangeRepository cacheChangeRepository;
+
+	/**
+	 * Runs a change and its log row in one transaction.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Whether changes are logged.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Constructor for ChangeLog.
+	 *
+	 * @param cacheChangeRepository the change log repository to be injected.
+	 * @param transactionManager    the transaction manager used to write changes.
+	 * @param enabled               whether changes are logged.
+	 */
+	public ChangeLog(final CacheChangeRepository cacheChangeRepository,
+			final PlatformTransactionManager transactionManager,
+			@Value("${inventory.change-log.enabled:true}") final boolean enabled) {
+		this.cacheChangeRepository = cacheChangeRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Tells whether changes are logged.
+	 *
+	 * @return true if the log is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the ID this node writes into its log rows.
+	 *
+	 * @return the node ID.
+	 */
+	public String origin() {
+		return origin;
+	}
+
+	/**
+	 * Logs a change made by the current transaction. The row commits or rolls
+	 * back with it.
+	 *
+	 * @param kind     the kind of data that changed.
+	 * @param entityId the ID of the changed row.
+	 */
+	public void record(final CacheChange.Kind kind, final int entityId) {
+		if (enabled) {
+			cacheChangeRepository.save(new CacheChange(kind, entityId, origin, new Date()));
+		}
+	}
+
+	/**
+	 * Runs a write and logs the change it made in one transaction, joining the
+	 * caller's transaction if there is one.
+	 *
+	 * @param <T>   the result type.
+	 * @param kind  the kind of data that changed.
+	 * @param write the write to be run.
+	 * @param idOf  extracts the ID of the changed row from the result.
+	 * @return the result of the write.
+	 */
+	public <T> T record(final CacheChange.Kind kind, final Supplier<T> write, final ToIntFunction<T> idOf) {
+		if (!enabled) {
+			return write.get();
+		}
+		return transactionTemplate.execute(status -> {
+			final T result = write.get();
+			record(kind, idOf.applyAsInt(result));
+			return result;
+		});
+	}
+
+}
@@ -24,6 +24,13 @@ public class CustomerBO {
 	@Autowired
 	/* default */CustomerRepository cust;
 
+	/**
+	 * Index of taken user names and e-mail addresses behind the check endpoints.
+	 * It is automatically injected by Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */UniquenessIndex uniquenessIndex;
+
 	/**
 	 * Inserts a new customer into the repository.
 	 * 
@@ -31,7 +38,10 @@ public class CustomerBO {
 	 * @return the inserted customer.
 	 */
 	public Customer insert(final Customer customer) {
-		return cust.save(customer);
+		final Customer saved = cust.save(customer);
+		uniquenessIndex.added(UniquenessIndex.Field.USERNAME, saved.getUsername());
+		uniquenessIndex.added(UniquenessIndex.Field.EMAIL, saved.getEmail());
+		return saved;
 	}
 
 	/**
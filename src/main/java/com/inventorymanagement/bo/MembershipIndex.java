@@ -0,0 +1,144 @@
+package com.inventorymanagement.bo;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory membership index over the values of one unique column. A Bloom
+ * filter answers "definitely absent" for most lookups after a handful of bit
+ * reads; values that pass the filter are checked against an exact set, which
+ * removes the filter's false positives.
+ *
+ * Values are folded to lower case without accents or trailing blanks, the
+ * same values the database collation treats as equal, so the index never
+ * reports a value as absent that the database would consider taken. Values
+ * are only ever added: a renamed row leaves a stale entry behind, so a hit must
+ * still be confirmed against the database.
+ */
+public class MembershipIndex {
+
+	/**
+	 * Combining marks removed when folding accents.
+	 */
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	/**
+	 * Bits of the Bloom filter, 64 per word.
+	 */
+	private final AtomicLongArray bits;
+
+	/**
+	 * Number of bits in the filter.
+	 */
+	private final long bitCount;
+
+	/**
+	 * Number of bits set per value.
+	 */
+	private final int hashCount;
+
+	/**
+	 * Exact set of the folded values.
+	 */
+	private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructor for MembershipIndex.
+	 *
+	 * @param expectedValues    the number of values the filter is sized for.
+	 * @param falsePositiveRate the filter's false positive rate at that size.
+	 */
+	public MembershipIndex(final long expectedValues, final double falsePositiveRate) {
+		final long n = Math.max(expectedValues, 1);
+		final long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bits = new AtomicLongArray((int) Math.min((m + 63) / 64, Integer.MAX_VALUE - 8));
+		this.bitCount = (long) bits.length() * 64;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+	}
+
+	/**
+	 * Adds a value to the index.
+	 *
+	 * @param value the value, ignored when null.
+	 */
+	public void add(final String value) {
+		if (value == null) {
+			return;
+		}
+		final String key = fold(value);
+		values.add(key);
+		final long hash = hash(key);
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = bitIndex(hash, i);
+			final int word = (int) (bit >>> 6);
+			final long mask = 1L << bit;
+			long current;
+			do {
+				current = bits.get(word);
+			} while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+		}
+	}
+
+	/**
+	 * Tells whether a value may be present. A false answer is definite; a true
+	 * answer means the value was added at some point.
+	 *
+	 * @param value the value to look up.
+	 * @return false if the value was never added.
+	 */
+	public boolean mightContain(final String value) {
+		final String key = fold(value);
+		final long hash = hash(key);
+		for (int i = 0; i < hashCount; i++) {
+			final long bit = bitIndex(hash, i);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return values.contains(key);
+	}
+
+	/**
+	 * Returns the number of distinct values held.
+	 *
+	 * @return the size of the exact set.
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * Folds a value to the form the database collation compares.
+	 */
+	private static String fold(final String value) {
+		final String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+		return stripped.stripTrailing().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Position of the i-th bit of a value, by double hashing.
+	 */
+	private long bitIndex(final long hash, final int i) {
+		final int h1 = (int) hash;
+		final int h2 = (int) (hash >>> 32);
+		return Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of the UTF-8 bytes of a folded value.
+	 */
+	private static long hash(final String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (final byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+}
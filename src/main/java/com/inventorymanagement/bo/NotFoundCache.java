@@ -0,0 +1,106 @@
+package com.inventorymanagement.bo;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived cache of IDs that were looked up and not found, so that repeated
+ * lookups of the same unknown ID, typically from scrapers or stale browser
+ * tabs, are answered without a database round trip.
+ *
+ * An entry is dropped as soon as a row with that ID is created, and again when
+ * the creating transaction commits. A lookup racing with the insert can still
+ * record the ID as missing just after commit; the short TTL bounds how long
+ * such an entry survives.
+ */
+@Component
+public class NotFoundCache {
+
+	/**
+	 * Entity types whose misses are cached.
+	 */
+	public enum Kind {
+		/** Product looked up by product ID. */
+		PRODUCT,
+		/** Order looked up by order ID. */
+		ORDER
+	}
+
+	/**
+	 * Missing IDs, keyed by kind in the high word and ID in the low word.
+	 */
+	private final Cache<Long, Boolean> missing;
+
+	/**
+	 * Constructor for NotFoundCache.
+	 *
+	 * @param meterRegistry the registry for cache metrics.
+	 * @param maxSize       the maximum number of missing IDs remembered.
+	 * @param ttlSeconds    how long a miss is remembered.
+	 */
+	public NotFoundCache(final MeterRegistry meterRegistry,
+			@Value("${inventory.not-found-cache.max-size:100000}") final long maxSize,
+			@Value("${inventory.not-found-cache.ttl-seconds:10}") final long ttlSeconds) {
+		this.missing = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, missing, "not-found");
+	}
+
+	/**
+	 * Tells whether an ID was recently looked up and not found.
+	 *
+	 * @param kind the entity type.
+	 * @param id   the ID.
+	 * @return true if the ID is known to be missing.
+	 */
+	public boolean isMissing(final Kind kind, final int id) {
+		return missing.getIfPresent(key(kind, id)) != null;
+	}
+
+	/**
+	 * Records that a lookup found no row.
+	 *
+	 * @param kind the entity type.
+	 * @param id   the ID that was not found.
+	 */
+	public void missed(final Kind kind, final int id) {
+		missing.put(key(kind, id), Boolean.TRUE);
+	}
+
+	/**
+	 * Forgets a missing ID because a row with that ID is being created.
+	 *
+	 * @param kind the entity type.
+	 * @param id   the ID of the new row.
+	 */
+	public void created(final Kind kind, final int id) {
+		final Long key = key(kind, id);
+		missing.invalidate(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					missing.invalidate(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Packs a kind and an ID into a cache key.
+	 */
+	private static Long key(final Kind kind, final int id) {
+		return ((long) kind.ordinal() << 32) | Integer.toUnsignedLong(id);
+	}
+
+}
@@ -6,9 +6,11 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import com.inventorymanagement.dao.OrderDetailsRepository;
+import com.inventorymanagement.dto.OrderDetailsDTO;
 import com.inventorymanagement.entity.OrderDetails;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
@@ -27,6 +29,13 @@ public class OrderDetailsBO {
 	@Autowired
 	private OrderDetailsRepository orderDetails;
 
+	/**
+	 * Cache of order IDs recently looked up and not found. It is automatically
+	 * injected by Spring's dependency injection mechanism.
+	 */
+	@Autowired
+	/* default */NotFoundCache notFoundCache;
+
 	/**
 	 * Constructor for OrderDetailsBO.
 	 * 
@@ -46,7 +55,26 @@ public class OrderDetailsBO {
 
 	public OrderDetails insert(final OrderDetails order) {
 		try {
-			return orderDetails.save(order);
+			final OrderDetails saved = orderDetails.save(order);
+			notFoundCache.created(NotFoundCache.Kind.ORDER, saved.getOrderId());
+			return saved;
+		} catch (DataIntegrityViolationException e) {
+			throw e;
+		}
+	}
+
+	/**
+	 * Inserts several order details. Rows are written with JDBC batching.
+	 * 
+	 * @param orders the order details to be inserted.
+	 * @return the inserted order details.
+	 * @throws DataIntegrityViolationException if there is a constraint violation.
+	 */
+	public List<OrderDetails> insertAll(final List<OrderDetails> orders) {
+		try {
+			final List<OrderDetails> saved = orderDetails.saveAll(orders);
+			saved.forEach(order -> notFoundCache.created(NotFoundCache.Kind.ORDER, order.getOrderId()));
+			return saved;
 		} catch (DataIntegrityViolationException e) {
 			throw e;
 		}
@@ -63,20 +91,39 @@ public class OrderDetailsBO {
 		try {
 			final Optional<OrderDetails> order = orderDetails.findById(orderId);
 			return order
-					.orElseThrow(() -> new ResourceNotFoundException("Order details not found with ID: " + orderId));
+					.orElseThrow(() -> ResourceNotFoundException.notFound("Order details not found with ID: " + orderId));
+		} catch (DataAccessException e) {
+			throw e;
+		}
+	}
+
+	/**
+	 * Finds the next page of order details, read straight into DTOs.
+	 * 
+	 * @param afterId the last order ID of the previous page, or 0.
+	 * @param limit   the number of orders to be read.
+	 * @return the order details after the given ID, in ID order.
+	 */
+	public List<OrderDetailsDTO> findOrderDetails(final int afterId, final int limit) {
+		try {
+			return orderDetails.findOrderDetailsDTOs(afterId, PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
 	}
 
 	/**
-	 * Finds all order details.
+	 * Finds the next page of the order details of a product, read straight into
+	 * DTOs.
 	 * 
-	 * @return a list of all order details.
+	 * @param productId the ID of the product.
+	 * @param afterId   the last order ID of the previous page, or 0.
+	 * @param limit     the number of orders to be read.
+	 * @return a list of the product's order details, in ID order.
 	 */
-	public List<OrderDetails> findOrderDetails() {
+	public List<OrderDetailsDTO> findProductOrderDetails(final int productId, final int afterId, final int limit) {
 		try {
-			return orderDetails.findAll();
+			return orderDetails.findProductOrderDTOs(productId, afterId, PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
@@ -0,0 +1,279 @@
+package com.inventorymanagement.bo;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bitsets of products known to have no stock left, one per shard, indexed by
+ * the product ID's offset from the first ID of its shard. Lets
+ * {@link ProductBO} reject orders for such products without a database round
+ * trip. Shards own ranges far apart, so indexing by the raw ID would size the
+ * upper shards' bits by their range start; by offset, each bitset only spans
+ * the IDs its shard has handed out.
+ *
+ * A set bit must never hide stock that exists, so bits are set only once a
+ * zero stock is committed or read from the database, while any stock increase
+ * clears the bit immediately. A missing bit merely costs the usual database
+ * check.
+ */
+@Component
+public class OutOfStockIndex {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * OutOfStockIndex class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(OutOfStockIndex.class);
+
+	/**
+	 * One bitset per shard, with one bit per product ID offset from the shard's
+	 * first ID, set when the product has no stock.
+	 */
+	private final BitSet[] outOfStock;
+
+	/**
+	 * Guards {@link #outOfStock} and {@link #clearedDuringRebuild}.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Products restocked while a rebuild was running, or null when no rebuild is
+	 * in progress. Their bits are dropped from the rebuilt sets.
+	 */
+	private Set<Integer> clearedDuringRebuild;
+
+	/**
+	 * Repository used to rebuild the index.
+	 */
+	private final ProductRepository productRepository;
+
+	/**
+	 * Router used to rebuild from every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Number of orders rejected from the index.
+	 */
+	private final Counter rejectedCounter;
+
+	/**
+	 * Constructor for OutOfStockIndex.
+	 *
+	 * @param productRepository the product repository to be injected.
+	 * @param shardRouter       the shard router to be injected.
+	 * @param meterRegistry     the registry for index metrics.
+	 */
+	public OutOfStockIndex(final ProductRepository productRepository, final ShardRouter shardRouter,
+			final MeterRegistry meterRegistry) {
+		this.productRepository = productRepository;
+		this.shardRouter = shardRouter;
+		this.outOfStock = new BitSet[shardRouter.getShardCount()];
+		for (int shard = 0; shard < outOfStock.length; shard++) {
+			outOfStock[shard] = new BitSet();
+		}
+		Gauge.builder("inventory.stock.out-of-stock", this, OutOfStockIndex::size)
+				.description("Products known to have no stock").register(meterRegistry);
+		this.rejectedCounter = Counter.builder("inventory.stock.fast-rejects")
+				.description("Orders rejected without a database read").register(meterRegistry);
+	}
+
+	/**
+	 * Tells whether a product is known to have no stock, counting the lookup as a
+	 * rejected order if it is.
+	 *
+	 * @param productId the ID of the product.
+	 * @return true if the product is known to have no stock.
+	 */
+	public boolean isOutOfStock(final int productId) {
+		if (productId <= 0) {
+			return false;
+		}
+		final int shard = shardRouter.shardOf(productId);
+		final boolean set;
+		lock.readLock().lock();
+		try {
+			set = outOfStock[shard].get(offset(shard, productId));
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (set) {
+			rejectedCounter.increment();
+		}
+		return set;
+	}
+
+	/**
+	 * Records a stock level read from the database.
+	 *
+	 * @param productId the ID of the product.
+	 * @param stock     the stock read.
+	 */
+	public void observed(final int productId, final int stock) {
+		if (stock > 0) {
+			clear(productId);
+		} else {
+			set(productId);
+		}
+	}
+
+	/**
+	 * Records a stock level written by the current transaction. A zero stock is
+	 * only recorded once the transaction commits.
+	 *
+	 * @param productId the ID of the product.
+	 * @param stock     the stock written.
+	 */
+	public void changed(final int productId, final int stock) {
+		if (stock > 0) {
+			clear(productId);
+		} else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					set(productId);
+				}
+			});
+		} else {
+			set(productId);
+		}
+	}
+
+	/**
+	 * Forgets what is known about a product whose stock was changed by another
+	 * node. The next order for it goes to the database.
+	 *
+	 * @param productId the ID of the product.
+	 */
+	public void forget(final int productId) {
+		clear(productId);
+	}
+
+	/**
+	 * Rebuilds the index from the Product table, one shard at a time, so that at
+	 * most one shard's bitset exists twice. Runs after the stock engine has folded
+	 * its journal at startup.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void rebuild() {
+		lock.writeLock().lock();
+		try {
+			clearedDuringRebuild = new HashSet<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		final int[] loaded = new int[1];
+		try {
+			shardRouter.forEachShard(shard -> {
+				final BitSet rebuilt = new BitSet();
+				for (final int productId : productRepository.findOutOfStockIds()) {
+					if (productId > 0 && shardRouter.shardOf(productId) == shard) {
+						rebuilt.set(offset(shard, productId));
+					}
+				}
+				lock.writeLock().lock();
+				try {
+					for (final int productId : clearedDuringRebuild) {
+						if (shardRouter.shardOf(productId) == shard) {
+							rebuilt.clear(offset(shard, productId));
+						}
+					}
+					outOfStock[shard] = rebuilt;
+				} finally {
+					lock.writeLock().unlock();
+				}
+				loaded[0] += rebuilt.cardinality();
+			});
+		} finally {
+			lock.writeLock().lock();
+			try {
+				clearedDuringRebuild = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Out-of-stock index loaded {} products", loaded[0]);
+		}
+	}
+
+	/**
+	 * Returns the number of products known to have no stock.
+	 */
+	private int size() {
+		int size = 0;
+		lock.readLock().lock();
+		try {
+			for (final BitSet shard : outOfStock) {
+				size += shard.cardinality();
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the bit index of a product within its shard's bitset.
+	 */
+	private int offset(final int shard, final int productId) {
+		return productId - shardRouter.firstId(shard);
+	}
+
+	/**
+	 * Marks a product as having no stock.
+	 */
+	private void set(final int productId) {
+		if (productId <= 0) {
+			return;
+		}
+		final int shard = shardRouter.shardOf(productId);
+		lock.writeLock().lock();
+		try {
+			outOfStock[shard].set(offset(shard, productId));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks a product as having stock.
+	 */
+	private void clear(final int productId) {
+		if (productId <= 0) {
+			return;
+		}
+		final int shard = shardRouter.shardOf(productId);
+		lock.writeLock().lock();
+		try {
+			outOfStock[shard].clear(offset(shard, productId));
+			if (clearedDuringRebuild != null) {
+				clearedDuringRebuild.add(productId);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -8,19 +8,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
-import com.inventorymanagement.dao.CategoryPriceCustomized;
-import com.inventorymanagement.dao.CustomerOrderReportCustomized;
 import com.inventorymanagement.dao.ProductBrandCustomized;
-import com.inventorymanagement.dao.ProductCategoryCustomized;
 import com.inventorymanagement.dao.ProductCustomized;
-import com.inventorymanagement.dao.ProductOrderCBCustomized;
 import com.inventorymanagement.dao.ProductOrderCustomized;
 import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ProductStockCustomized;
 import com.inventorymanagement.dao.ProductUpper;
-import com.inventorymanagement.dao.SalesReportCustomized;
+import com.inventorymanagement.dao.ShardRouter;
 import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.ProductDTO;
+import com.inventorymanagement.entity.CacheChange;
 import com.inventorymanagement.entity.OrderDetails;
 import com.inventorymanagement.entity.Product;
 import com.inventorymanagement.exception.InsufficientStockException;
@@ -47,6 +47,65 @@ public class ProductBO {
 	@Autowired
 	/* default */ProductRepository productRepository;
 
+	/**
+	 * Optional in-memory stock engine. When enabled, stock changes are answered
+	 * from memory and written back to the Product table in batches.
+	 */
+	@Autowired
+	/* default */StockEngine stockEngine;
+
+	/**
+	 * Business object for stock reservations. Held stock is not available to
+	 * other orders.
+	 */
+	@Autowired
+	/* default */ReservationBO reservationBO;
+
+	/**
+	 * Products known to have no stock, used to reject orders for them without a
+	 * database read.
+	 */
+	@Autowired
+	/* default */OutOfStockIndex outOfStockIndex;
+
+	/**
+	 * Catalog version bumped on every product or stock change, used by the
+	 * product list endpoints as their ETag.
+	 */
+	@Autowired
+	/* default */CatalogVersion catalogVersion;
+
+	/**
+	 * Index of taken product names and bar codes behind the check endpoints.
+	 */
+	@Autowired
+	/* default */UniquenessIndex uniquenessIndex;
+
+	/**
+	 * Cache of product IDs recently looked up and not found.
+	 */
+	@Autowired
+	/* default */NotFoundCache notFoundCache;
+
+	/**
+	 * Log through which other nodes learn of product and stock changes.
+	 */
+	@Autowired
+	/* default */ChangeLog changeLog;
+
+	/**
+	 * Retry policy for read-modify-write stock changes that lose an optimistic
+	 * locking race.
+	 */
+	@Autowired
+	/* default */StockRetryPolicy retryPolicy;
+
+	/**
+	 * Router to the shard that owns a product.
+	 */
+	@Autowired
+	/* default */ShardRouter shardRouter;
+
 	/**
 	 * Constructor for ProductBO.
 	 * 
@@ -65,12 +124,50 @@ public class ProductBO {
 	 */
 	public Product insert(final Product product) {
 		try {
-			return productRepository.save(product);
+			final Product saved = changeLog.record(CacheChange.Kind.PRODUCT, () -> productRepository.save(product),
+					Product::getProductId);
+			outOfStockIndex.changed(saved.getProductId(), saved.getStockAvailable());
+			catalogVersion.changed(saved.getProductId());
+			uniquenessIndex.added(UniquenessIndex.Field.PRODUCT_NAME, saved.getProductName());
+			uniquenessIndex.added(UniquenessIndex.Field.BARCODE, saved.getBarCode());
+			notFoundCache.created(NotFoundCache.Kind.PRODUCT, saved.getProductId());
+			return saved;
 		} catch (DataIntegrityViolationException e) {
 			throw e;
 		}
 	}
 
+	/**
+	 * Saves changes to an existing product. When the stock engine is enabled, the
+	 * product's pending stock changes are dropped in the same transaction, as the
+	 * new absolute stock replaces them.
+	 * 
+	 * @param product the product to be updated.
+	 * @return the updated product.
+	 */
+	public Product update(final Product product) {
+		stockEngine.discardPending(product.getProductId());
+		final Product updated = insert(product);
+		stockEngine.reset(updated.getProductId(), updated.getStockAvailable());
+		return updated;
+	}
+
+	/**
+	 * Runs a change that loads a product, modifies its stock and saves it,
+	 * retrying from scratch when a concurrent change to the same product wins.
+	 * The change runs on the shard that owns the product.
+	 * 
+	 * @param <T>       the result type.
+	 * @param productId the ID of the product being changed.
+	 * @param attempt   the change to be run.
+	 * @return the result of the change.
+	 * @throws ResourceNotFoundException if the product is not found.
+	 */
+	public <T> T retryOnConflict(final int productId, final StockRetryPolicy.Attempt<T> attempt)
+			throws ResourceNotFoundException {
+		return shardRouter.onShardOf(productId, () -> retryPolicy.execute(productId, attempt));
+	}
+
 	/**
 	 * Finds a product by its ID.
 	 * 
@@ -81,7 +178,8 @@ public class ProductBO {
 	public Product findProduct(final int productId) throws ResourceNotFoundException {
 		try {
 			final Optional<Product> product = productRepository.findById(productId);
-			return product.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+			return product
+					.orElseThrow(() -> ResourceNotFoundException.notFound("Product not found with ID: " + productId));
 		} catch (DataAccessException e) {
 			throw e;
 		}
@@ -89,42 +187,47 @@ public class ProductBO {
 	}
 
 	/**
-	 * Finds all products.
+	 * Finds the next page of products, read straight into DTOs.
 	 * 
-	 * @return a list of all products.
+	 * @param afterId the last product ID of the previous page, or 0.
+	 * @param limit   the number of products to be read.
+	 * @return the products after the given ID, in ID order.
 	 */
-	public List<Product> findProducts() {
+	public List<ProductDTO> findProducts(final int afterId, final int limit) {
 		try {
-			return productRepository.findAll();
+			return productRepository.findProductDTOsAfter(afterId, PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
 	}
 
-//	Queries
 	/**
-	 * Finds products by their ID.
+	 * Finds the products with the given IDs.
 	 * 
-	 * @param productId the ID of the products to be found.
-	 * @return a list of products greater than the specified ID.
+	 * @param productIds the IDs of the products to be found.
+	 * @return the products found; unknown IDs are skipped.
+	 * @throws DataAccessException if there is an issue accessing the data.
 	 */
-	public List<Product> findProductsById(final int productId) {
+	public List<ProductDTO> findProducts(final List<Integer> productIds) {
 		try {
-			return productRepository.findProductById(productId);
+			return productRepository.findProductDTOs(productIds);
 		} catch (DataAccessException e) {
 			throw e;
 		}
 	}
 
+//	Queries
 	/**
 	 * Finds products by their name.
 	 * 
 	 * @param productName the name of the products to be found.
+	 * @param afterId     the last product ID of the previous page, or 0.
+	 * @param limit       the number of products to be read.
 	 * @return a list of products with the specified name.
 	 */
-	public List<Product> findProductNames(final String productName) {
+	public List<ProductDTO> findProductNames(final String productName, final int afterId, final int limit) {
 		try {
-			return productRepository.findByName(productName);
+			return productRepository.findByName(productName, afterId, PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
@@ -133,12 +236,15 @@ public class ProductBO {
 	/**
 	 * Finds products by their price with customized information.
 	 * 
-	 * @param price the price to filter products.
+	 * @param price   the price to filter products.
+	 * @param afterId the last product ID of the previous page, or 0.
+	 * @param limit   the number of products to be read.
 	 * @return a list of customized product information.
 	 */
-	public List<ProductCustomized> findProductByPriceCustomized(final float price) {
+	public List<ProductCustomized> findProductByPriceCustomized(final float price, final int afterId,
+			final int limit) {
 		try {
-			return productRepository.findProductByPriceCustomized(price);
+			return productRepository.findProductByPriceCustomized(price, afterId, PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
@@ -186,38 +292,19 @@ public class ProductBO {
 	/**
 	 * Finds products by order details with customized information.
 	 * 
-	 * @param price the price to filter products.
+	 * @param price          the price to filter products.
+	 * @param afterProductId the product ID of the last row of the previous page,
+	 *                       or 0.
+	 * @param afterOrderId   the order ID of the last row of the previous page, or
+	 *                       0.
+	 * @param limit          the number of rows to be read.
 	 * @return a list of customized product order information.
 	 */
-	public List<ProductOrderCustomized> findByProductOrderCustomized(final float price) {
-		try {
-			return productRepository.findByProductOrderCustomized(price);
-		} catch (DataAccessException e) {
-			throw e;
-		}
-	}
-
-	/**
-	 * Finds product category count with customized information.
-	 * 
-	 * @return a list of product category count information.
-	 */
-	public List<ProductCategoryCustomized> findProductsCategoryCount() {
-		try {
-			return productRepository.findProductsCategoryCount();
-		} catch (DataAccessException e) {
-			throw e;
-		}
-	}
-
-	/**
-	 * Finds average price by category with customized information.
-	 * 
-	 * @return a list of average price by category information.
-	 */
-	public List<CategoryPriceCustomized> findAvergePriceByCategory() {
+	public List<ProductOrderCustomized> findByProductOrderCustomized(final float price, final int afterProductId,
+			final int afterOrderId, final int limit) {
 		try {
-			return productRepository.findAvergePriceByCategory();
+			return productRepository.findByProductOrderCustomized(price, afterProductId, afterOrderId,
+					PageRequest.of(0, limit));
 		} catch (DataAccessException e) {
 			throw e;
 		}
@@ -253,50 +340,19 @@ public class ProductBO {
 		}
 	}
 
-	/**
-	 * Finds product order details with customized information.
-	 * 
-	 * @return a list of product order details.
-	 */
-	public List<ProductOrderCBCustomized> findProductOrderDetails() {
-		try {
-			return productRepository.findProductOrderDetails();
-
-		} catch (DataAccessException e) {
-			throw e;
-		}
-	}
 
-	public List<SalesReportCustomized> generateSalesReport() {
+	public List<ProductDTO> findProductsByBrandName(String brandName, int afterId, int limit) {
 		try {
-			return productRepository.generateSalesReport();
+			return productRepository.findProductsByBrandName(brandName, afterId, PageRequest.of(0, limit));
 
 		} catch (DataAccessException e) {
 			throw e;
 		}
 	}
 
-	public List<CustomerOrderReportCustomized> generateCustomerOrderReport(int customerId) {
+	public List<ProductDTO> findProductsByCategoryName(String categoryName, int afterId, int limit) {
 		try {
-			return productRepository.generateCustomerOrderReport(customerId);
-
-		} catch (DataAccessException e) {
-			throw e;
-		}
-	}
-
-	public List<Product> findProductsByBrandName(String brandName) {
-		try {
-			return productRepository.findProductsByBrandName(brandName);
-
-		} catch (DataAccessException e) {
-			throw e;
-		}
-	}
-
-	public List<Product> findProductsByCategoryName(String categoryName) {
-		try {
-			return productRepository.findProductsByCategoryName(categoryName);
+			return productRepository.findProductsByCategoryName(categoryName, afterId, PageRequest.of(0, limit));
 
 		} catch (DataAccessException e) {
 			throw e;
@@ -313,13 +369,21 @@ public class ProductBO {
 	 */
 	public void validateProductAvailability(final Product product, final int requestedQuantity)
 			throws IllegalArgumentException {
-		if (product.getStockAvailable() <= 0) {
+		checkAvailability(product, requestedQuantity, reservationBO.heldQuantity(product.getProductId()));
+	}
+
+	/**
+	 * Validates the stock of the product that is not held by reservations.
+	 */
+	private void checkAvailability(final Product product, final int requestedQuantity, final int reserved) {
+		final int available = product.getStockAvailable() - reserved;
+		if (available <= 0) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Insufficient stock for product: " + product.getProductName());
 			}
 			throw new OutOfStockException("Product " + product.getProductName() + " is out of stock.");
 		}
-		if (product.getStockAvailable() < requestedQuantity) {
+		if (available < requestedQuantity) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Out of stock for product: " + product.getProductName());
 			}
@@ -337,8 +401,101 @@ public class ProductBO {
 	 */
 	public void reduceQuantity(final Product product, final int quantity)
 			throws InsufficientStockException, OutOfStockException {
+		if (stockEngine.isEnabled()) {
+			stockEngine.adjust(product, -quantity, reservationBO.heldQuantity(product.getProductId()));
+			outOfStockIndex.changed(product.getProductId(), stockEngine.currentStock(product.getProductId()));
+			catalogVersion.changed(product.getProductId());
+			return;
+		}
 		validateProductAvailability(product, quantity);
 		product.setStockAvailable(product.getStockAvailable() - quantity);
+		outOfStockIndex.changed(product.getProductId(), product.getStockAvailable());
+	}
+
+	/**
+	 * Deducts the ordered quantity from the product stock with a single guarded
+	 * update, so there is no read-modify-write window between concurrent orders.
+	 * The stock left is read back so that the order taking the last unit marks
+	 * the product out of stock; the product is only loaded when the update is
+	 * rejected, to report why, and products known to have no stock are rejected
+	 * without touching the database.
+	 * 
+	 * @param productId the ID of the product whose stock will be reduced.
+	 * @param quantity  the quantity to be reduced.
+	 * @throws ResourceNotFoundException  if the product is not found.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 */
+	public void decrementStock(final int productId, final int quantity)
+			throws ResourceNotFoundException, InsufficientStockException, OutOfStockException {
+		decrementStock(productId, quantity, 0);
+	}
+
+	/**
+	 * Deducts the ordered quantity from the product stock, treating part of the
+	 * held stock as belonging to this order. Used when a reservation is confirmed.
+	 * 
+	 * @param productId the ID of the product whose stock will be reduced.
+	 * @param quantity  the quantity to be reduced.
+	 * @param ownHold   the quantity held by the reservation being confirmed.
+	 * @throws ResourceNotFoundException  if the product is not found.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 */
+	public void decrementStock(final int productId, final int quantity, final int ownHold)
+			throws ResourceNotFoundException, InsufficientStockException, OutOfStockException {
+		if (outOfStockIndex.isOutOfStock(productId)) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Out of stock for product ID: {}", productId);
+			}
+			throw new OutOfStockException("Product ID " + productId + " is out of stock.");
+		}
+		final int reserved = reservationBO.heldQuantity(productId) - ownHold;
+		if (stockEngine.isEnabled()) {
+			stockEngine.decrement(productId, quantity, () -> reservationBO.heldQuantity(productId) - ownHold);
+			outOfStockIndex.changed(productId, stockEngine.currentStock(productId));
+			catalogVersion.changed(productId);
+			return;
+		}
+		if (productRepository.decrementStock(productId, quantity, reserved) > 0) {
+			final ProductStockCustomized level = productRepository.findStockLevel(productId).orElseThrow();
+			// A hold placed since the held quantity was read took the row lock first and
+			// is counted by now, or waits for this transaction and will see the new stock
+			if (level.getStockAvailable() < reservationBO.heldQuantity(productId) - ownHold) {
+				productRepository.adjustStockBy(productId, quantity);
+				if (LOG.isErrorEnabled()) {
+					LOG.error("Insufficient stock for product: {}", level.getProductName());
+				}
+				throw new InsufficientStockException("Insufficient stock for product: " + level.getProductName());
+			}
+			outOfStockIndex.changed(productId, level.getStockAvailable());
+			catalogVersion.changed(productId);
+			changeLog.record(CacheChange.Kind.STOCK, productId);
+			return;
+		}
+		final Product product = findProduct(productId);
+		outOfStockIndex.observed(productId, product.getStockAvailable());
+		checkAvailability(product, quantity, reserved);
+		// Stock was replenished between the update and the read; the caller may retry.
+		throw new InsufficientStockException("Insufficient stock for product: " + product.getProductName());
+	}
+
+	/**
+	 * Returns the stock that can still be ordered for a product, given its stock
+	 * level as read from the database.
+	 * 
+	 * @param level the stock level read from the database.
+	 * @return the stock available for new orders.
+	 */
+	public int availableStock(final ProductStockCustomized level) {
+		int stock = level.getStockAvailable();
+		if (stockEngine.isEnabled()) {
+			final Integer live = stockEngine.currentStock(level.getProductId());
+			if (live != null) {
+				stock = live;
+			}
+		}
+		return stock - reservationBO.heldQuantity(level.getProductId());
 	}
 
 	/**
@@ -353,10 +510,20 @@ public class ProductBO {
 	public void adjustStock(final Product product, final int oldQuantity, final int newQuantity)
 			throws InsufficientStockException, OutOfStockException {
 		final int difference = newQuantity - oldQuantity;
+		if (difference == 0) {
+			return;
+		}
+		if (stockEngine.isEnabled()) {
+			stockEngine.adjust(product, -difference, reservationBO.heldQuantity(product.getProductId()));
+			outOfStockIndex.changed(product.getProductId(), stockEngine.currentStock(product.getProductId()));
+			catalogVersion.changed(product.getProductId());
+			return;
+		}
 		if (difference > 0) {
 			validateProductAvailability(product, difference);
 		}
 		product.setStockAvailable(product.getStockAvailable() - difference);
+		outOfStockIndex.changed(product.getProductId(), product.getStockAvailable());
 	}
 
 	/**
@@ -0,0 +1,114 @@
+package com.inventorymanagement.bo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inventorymanagement.dto.CacheRegionDTO;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Business Object (BO) for the Hibernate second-level cache that holds the
+ * reference data (brands, categories, cities, states and countries). Hibernate
+ * keeps the cached rows in step with writes made through this application;
+ * the insert paths additionally drop the whole region of the written type so
+ * that rows changed outside the session factory, such as seed scripts, are
+ * reloaded on the next read.
+ */
+@Component
+public class ReferenceDataCache {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * ReferenceDataCache class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+	/**
+	 * Session factory that owns the second-level cache and its statistics.
+	 */
+	private final SessionFactory sessionFactory;
+
+	/**
+	 * Constructor for ReferenceDataCache.
+	 *
+	 * @param entityManagerFactory the entity manager factory to be unwrapped.
+	 */
+	public ReferenceDataCache(final EntityManagerFactory entityManagerFactory) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+	}
+
+	/**
+	 * Drops the cached rows of an entity type together with the cached query
+	 * results. Inside a transaction the eviction happens after commit.
+	 *
+	 * @param entityType the cached entity type that was written.
+	 */
+	public void evict(final Class<?> entityType) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictNow(entityType);
+				}
+			});
+		} else {
+			evictNow(entityType);
+		}
+	}
+
+	/**
+	 * Returns hit, miss and put counts for every second-level cache region.
+	 *
+	 * @return one entry per region, entity regions first.
+	 */
+	public List<CacheRegionDTO> regionStatistics() {
+		final Statistics statistics = sessionFactory.getStatistics();
+		final List<CacheRegionDTO> regions = new ArrayList<>();
+		for (final String regionName : statistics.getSecondLevelCacheRegionNames()) {
+			if (RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME.equals(regionName)) {
+				continue;
+			}
+			final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+			if (region != null) {
+				regions.add(toDTO(regionName, region));
+			}
+		}
+		final CacheRegionStatistics queries = statistics
+				.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+		if (queries != null) {
+			regions.add(toDTO(queries.getRegionName(), queries));
+		}
+		return regions;
+	}
+
+	/**
+	 * Evicts the entity region and the default query results region.
+	 */
+	private void evictNow(final Class<?> entityType) {
+		sessionFactory.getCache().evictEntityData(entityType);
+		sessionFactory.getCache().evictDefaultQueryRegion();
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Evicted second-level cache region for {}", entityType.getSimpleName());
+		}
+	}
+
+	/**
+	 * Copies the counters of one region into a DTO.
+	 */
+	private static CacheRegionDTO toDTO(final String regionName, final CacheRegionStatistics region) {
+		return new CacheRegionDTO(regionName, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+				Math.max(region.getElementCountInMemory(), -1));
+	}
+
+}
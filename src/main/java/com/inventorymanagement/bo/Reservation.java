@@ -0,0 +1,84 @@
+package com.inventorymanagement.bo;
+
+import java.util.Date;
+
+/**
+ * A time-limited hold on product stock, kept in memory by
+ * {@link ReservationBO}. While the hold is active its quantity is not
+ * available to other orders.
+ */
+public class Reservation {
+
+	/**
+	 * The unique identifier for the reservation.
+	 */
+	private final String reservationId;
+
+	/**
+	 * The ID of the product being held.
+	 */
+	private final int productId;
+
+	/**
+	 * The quantity being held.
+	 */
+	private final int quantity;
+
+	/**
+	 * The time at which the hold expires.
+	 */
+	private final Date expiresAt;
+
+	/**
+	 * Handle used to cancel the expiry when the hold is confirmed or released.
+	 */
+	private TimingWheel.Timeout<Reservation> timeout;
+
+	/**
+	 * Constructs a new Reservation with the specified details.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param productId     the ID of the product
+	 * @param quantity      the quantity being held
+	 * @param expiresAt     the time at which the hold expires
+	 */
+	public Reservation(final String reservationId, final int productId, final int quantity, final Date expiresAt) {
+		this.reservationId = reservationId;
+		this.productId = productId;
+		this.quantity = quantity;
+		this.expiresAt = expiresAt;
+	}
+
+	// Getters and Setters
+
+	public String getReservationId() {
+		return reservationId;
+	}
+
+	public int getProductId() {
+		return productId;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	/* default */ TimingWheel.Timeout<Reservation> getTimeout() {
+		return timeout;
+	}
+
+	/* default */ void setTimeout(final TimingWheel.Timeout<Reservation> timeout) {
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String toString() {
+		return "Reservation [reservationId=" + reservationId + ", productId=" + productId + ", quantity=" + quantity
+				+ ", expiresAt=" + expiresAt + "]";
+	}
+
+}
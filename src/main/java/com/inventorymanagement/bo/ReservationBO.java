@@ -0,0 +1,315 @@
+package com.inventorymanagement.bo;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ProductStockCustomized;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Business Object (BO) for time-limited stock reservations (cart holds). Holds
+ * live in memory and reduce the stock available to other orders until they are
+ * confirmed, released or expire. Expiry is driven by a {@link TimingWheel}, so
+ * a hold costs one queue entry rather than a scheduled task or a database row.
+ *
+ * Enabled with {@code inventory.reservation.enabled=true}. The holds live in
+ * this node only: another node would not subtract them from the stock it
+ * sells, so two nodes could oversell held stock, and a reservation can only be
+ * confirmed or released on the node that made it. Reservations are therefore
+ * for a single node and refuse to start when the cross-node change log is
+ * enabled.
+ */
+@Component
+public class ReservationBO {
+
+	/**
+	 * Logger instance that helps in recording log messages for the ReservationBO
+	 * class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ReservationBO.class);
+
+	/**
+	 * Active holds keyed by reservation ID.
+	 */
+	private final Map<String, Reservation> holds = new ConcurrentHashMap<>();
+
+	/**
+	 * Total quantity held per product ID.
+	 */
+	private final Map<Integer, AtomicInteger> heldByProduct = new ConcurrentHashMap<>();
+
+	/**
+	 * Repository used to read the current stock of a product.
+	 */
+	private final ProductRepository productRepository;
+
+	/**
+	 * Stock engine consulted for live stock when it is enabled.
+	 */
+	private final StockEngine stockEngine;
+
+	/**
+	 * Whether reservations are enabled.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Wheel that expires holds.
+	 */
+	private final TimingWheel<Reservation> wheel;
+
+	/**
+	 * Longest hold a client may request, in milliseconds.
+	 */
+	private final long maxTtlMillis;
+
+	/**
+	 * Number of holds that expired.
+	 */
+	private final Counter expiredCounter;
+
+	/**
+	 * Number of holds that were confirmed into orders.
+	 */
+	private final Counter confirmedCounter;
+
+	/**
+	 * Number of holds that were released by the client.
+	 */
+	private final Counter releasedCounter;
+
+	/**
+	 * Constructor for ReservationBO.
+	 *
+	 * @param productRepository the product repository to be injected.
+	 * @param stockEngine       the stock engine to be injected.
+	 * @param changeLog         the change log to be injected.
+	 * @param meterRegistry     the registry for reservation metrics.
+	 * @param enabled           whether reservations are enabled.
+	 * @param wheelSize         the number of buckets in the timing wheel.
+	 * @param tickMillis        the duration of one wheel tick in milliseconds.
+	 * @param maxTtlSeconds     the longest hold a client may request.
+	 * @throws IllegalStateException if reservations are enabled together with the
+	 *                               change log.
+	 */
+	public ReservationBO(final ProductRepository productRepository, final StockEngine stockEngine,
+			final ChangeLog changeLog, final MeterRegistry meterRegistry,
+			@Value("${inventory.reservation.enabled:false}") final boolean enabled,
+			@Value("${inventory.reservation.wheel-size:4096}") final int wheelSize,
+			@Value("${inventory.reservation.tick-ms:100}") final long tickMillis,
+			@Value("${inventory.reservation.max-ttl-seconds:3600}") final long maxTtlSeconds) {
+		this.productRepository = productRepository;
+		this.stockEngine = stockEngine;
+		this.enabled = enabled;
+		this.wheel = new TimingWheel<>(wheelSize, tickMillis, System.currentTimeMillis(), this::expire);
+		this.maxTtlMillis = maxTtlSeconds * 1000;
+		Gauge.builder("inventory.reservations.active", holds, Map::size).description("Active stock holds")
+				.register(meterRegistry);
+		this.expiredCounter = Counter.builder("inventory.reservations.expired").description("Stock holds that expired")
+				.register(meterRegistry);
+		this.confirmedCounter = Counter.builder("inventory.reservations.confirmed")
+				.description("Stock holds confirmed into orders").register(meterRegistry);
+		this.releasedCounter = Counter.builder("inventory.reservations.released")
+				.description("Stock holds released by the client").register(meterRegistry);
+		if (enabled && changeLog.isEnabled()) {
+			throw new IllegalStateException("Stock reservations are held in this node only; disable "
+					+ "inventory.change-log.enabled to run them on a single node");
+		}
+	}
+
+	/**
+	 * Tells whether reservations are enabled.
+	 *
+	 * @return true if reservations are enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Holds stock for a product until the hold is confirmed, released or expires.
+	 * The product row is locked while the hold is counted, so a concurrent guarded
+	 * decrement either commits before the stock is read or reads the held
+	 * quantity again after its update and sees this hold. With the stock engine,
+	 * the hold is counted before the live stock is read, for the same reason.
+	 *
+	 * @param productId the ID of the product.
+	 * @param quantity  the quantity to hold.
+	 * @param ttlMillis how long the hold lasts, capped at the configured maximum.
+	 * @return the new reservation.
+	 * @throws ResourceNotFoundException  if the product is not found.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 */
+	@Transactional(rollbackFor = ResourceNotFoundException.class)
+	public Reservation reserve(final int productId, final int quantity, final long ttlMillis)
+			throws ResourceNotFoundException {
+		final ProductStockCustomized level = productRepository.lockStockLevel(productId)
+				.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+
+		final AtomicInteger held = heldByProduct.computeIfAbsent(productId, id -> new AtomicInteger());
+		synchronized (held) {
+			final int others = held.getAndAdd(quantity);
+			final Integer live = stockEngine.isEnabled() ? stockEngine.currentStock(productId) : null;
+			final int available = (live == null ? level.getStockAvailable() : live) - others;
+			if (available < quantity) {
+				held.addAndGet(-quantity);
+				if (available <= 0) {
+					throw new OutOfStockException("Product " + level.getProductName() + " is out of stock.");
+				}
+				throw new InsufficientStockException("Insufficient stock for product: " + level.getProductName());
+			}
+		}
+
+		final long now = System.currentTimeMillis();
+		final long ttl = Math.min(ttlMillis, maxTtlMillis);
+		final Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, quantity,
+				new Date(now + ttl));
+		reservation.setTimeout(wheel.schedule(reservation, ttl, now));
+		holds.put(reservation.getReservationId(), reservation);
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Reserved {} of product {} until {}", quantity, productId, reservation.getExpiresAt());
+		}
+		return reservation;
+	}
+
+	/**
+	 * Takes an active hold so it can be turned into an order in the current
+	 * transaction. The hold stops expiring but its quantity stays held, so no
+	 * other order can take the stock in between. Once the transaction commits the
+	 * quantity is released, as the order now owns it; if it rolls back, the hold
+	 * is put back and expires as it would have.
+	 *
+	 * @param reservationId the reservation ID.
+	 * @return the claimed reservation.
+	 * @throws ResourceNotFoundException if the reservation is unknown or expired.
+	 */
+	public Reservation claim(final String reservationId) throws ResourceNotFoundException {
+		final Reservation reservation = take(reservationId);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(final int status) {
+				if (status == STATUS_COMMITTED) {
+					releaseHeld(reservation);
+					confirmedCounter.increment();
+				} else {
+					restore(reservation);
+				}
+			}
+		});
+		return reservation;
+	}
+
+	/**
+	 * Releases an active hold, returning its quantity to available stock.
+	 *
+	 * @param reservationId the reservation ID.
+	 * @return the released reservation.
+	 * @throws ResourceNotFoundException if the reservation is unknown or expired.
+	 */
+	public Reservation release(final String reservationId) throws ResourceNotFoundException {
+		final Reservation reservation = take(reservationId);
+		releaseHeld(reservation);
+		releasedCounter.increment();
+		return reservation;
+	}
+
+	/**
+	 * Returns the quantity of a reservation to available stock.
+	 */
+	private void releaseHeld(final Reservation reservation) {
+		heldByProduct.get(reservation.getProductId()).addAndGet(-reservation.getQuantity());
+	}
+
+	/**
+	 * Returns the product of an active hold.
+	 *
+	 * @param reservationId the reservation ID.
+	 * @return the ID of the held product.
+	 * @throws ResourceNotFoundException if the reservation is unknown or expired.
+	 */
+	public int productOf(final String reservationId) throws ResourceNotFoundException {
+		final Reservation reservation = holds.get(reservationId);
+		if (reservation == null) {
+			throw new ResourceNotFoundException("Reservation not found or expired: " + reservationId);
+		}
+		return reservation.getProductId();
+	}
+
+	/**
+	 * Returns the quantity currently held for a product.
+	 *
+	 * @param productId the ID of the product.
+	 * @return the held quantity.
+	 */
+	public int heldQuantity(final int productId) {
+		final AtomicInteger held = heldByProduct.get(productId);
+		return held == null ? 0 : held.get();
+	}
+
+	/**
+	 * Advances the timing wheel, expiring holds whose time is up.
+	 */
+	@Scheduled(fixedRateString = "${inventory.reservation.tick-ms:100}")
+	public void tick() {
+		final int expired = wheel.advance(System.currentTimeMillis());
+		if (expired > 0 && LOG.isDebugEnabled()) {
+			LOG.debug("Expired {} stock holds", expired);
+		}
+	}
+
+	/**
+	 * Removes an active hold and stops its expiry.
+	 */
+	private Reservation take(final String reservationId) throws ResourceNotFoundException {
+		final Reservation reservation = holds.remove(reservationId);
+		if (reservation == null || !reservation.getTimeout().cancel()) {
+			throw new ResourceNotFoundException("Reservation not found or expired: " + reservationId);
+		}
+		return reservation;
+	}
+
+	/**
+	 * Puts back a claimed hold whose order was not placed, with the time it had
+	 * left.
+	 */
+	private void restore(final Reservation reservation) {
+		final long now = System.currentTimeMillis();
+		final long left = reservation.getExpiresAt().getTime() - now;
+		if (left <= 0) {
+			expire(reservation);
+			return;
+		}
+		reservation.setTimeout(wheel.schedule(reservation, left, now));
+		holds.put(reservation.getReservationId(), reservation);
+	}
+
+	/**
+	 * Expiry callback invoked by the timing wheel.
+	 */
+	private void expire(final Reservation reservation) {
+		holds.remove(reservation.getReservationId());
+		releaseHeld(reservation);
+		expiredCounter.increment();
+	}
+
+}
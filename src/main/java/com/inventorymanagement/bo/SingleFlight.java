@@ -0,0 +1,171 @@
+package com.inventorymanagement.bo;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent identical lookups. The first caller for a key runs the
+ * lookup on its own thread; callers arriving while it is in flight wait for its
+ * result instead of repeating the query. Nothing is kept once the lookup
+ * returns, so this is not a cache: results must be immutable, since every
+ * waiting caller gets the same object.
+ *
+ * A caller waits at most the configured timeout. It then detaches the stuck
+ * lookup, so later callers start a new one, and runs the lookup itself.
+ *
+ * @param <K> the key type.
+ * @param <V> the result type.
+ */
+public class SingleFlight<K, V> {
+
+	/**
+	 * A lookup to be coalesced.
+	 *
+	 * @param <V> the result type.
+	 * @param <E> the checked exception the lookup may throw.
+	 */
+	@FunctionalInterface
+	public interface Lookup<V, E extends Exception> {
+
+		/**
+		 * Runs the lookup.
+		 *
+		 * @return the result of the lookup.
+		 * @throws E if the lookup fails.
+		 */
+		V run() throws E;
+	}
+
+	/**
+	 * Lookups in flight, keyed by their arguments.
+	 */
+	private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Longest time a caller waits for a lookup started by another caller.
+	 */
+	private final long timeoutMillis;
+
+	/**
+	 * Number of lookups run.
+	 */
+	private final Counter ledCounter;
+
+	/**
+	 * Number of callers served by a lookup another caller ran.
+	 */
+	private final Counter joinedCounter;
+
+	/**
+	 * Number of callers that gave up waiting and ran the lookup themselves.
+	 */
+	private final Counter timedOutCounter;
+
+	/**
+	 * Constructor for SingleFlight.
+	 *
+	 * @param method        the name of the coalesced method, used as metric tag.
+	 * @param timeoutMillis the longest time a caller waits for another's lookup.
+	 * @param meterRegistry the registry for coalescing metrics.
+	 */
+	public SingleFlight(final String method, final long timeoutMillis, final MeterRegistry meterRegistry) {
+		this.timeoutMillis = timeoutMillis;
+		this.ledCounter = Counter.builder("inventory.single-flight.calls").tag("method", method).tag("role", "leader")
+				.description("Lookups run or joined by coalesced callers").register(meterRegistry);
+		this.joinedCounter = Counter.builder("inventory.single-flight.calls").tag("method", method)
+				.tag("role", "follower").description("Lookups run or joined by coalesced callers")
+				.register(meterRegistry);
+		this.timedOutCounter = Counter.builder("inventory.single-flight.timeouts").tag("method", method)
+				.description("Callers that stopped waiting for a coalesced lookup").register(meterRegistry);
+		Gauge.builder("inventory.single-flight.ratio", this, SingleFlight::ratio).tag("method", method)
+				.description("Fraction of callers served by another caller's lookup").register(meterRegistry);
+		Gauge.builder("inventory.single-flight.in-flight", inFlight, Map::size).tag("method", method)
+				.description("Coalesced lookups in flight").register(meterRegistry);
+	}
+
+	/**
+	 * Runs a lookup, or waits for the identical one already in flight.
+	 *
+	 * @param <E>    the checked exception the lookup may throw.
+	 * @param key    the arguments of the lookup.
+	 * @param lookup the lookup to be run.
+	 * @return the result of the lookup.
+	 * @throws E if the lookup fails, in this caller or in the one it waited for.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Exception> V execute(final K key, final Lookup<V, E> lookup) throws E {
+		final CompletableFuture<V> own = new CompletableFuture<>();
+		final CompletableFuture<V> leader = inFlight.putIfAbsent(key, own);
+		if (leader == null) {
+			return lead(key, own, lookup);
+		}
+		try {
+			final V result = leader.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			joinedCounter.increment();
+			return result;
+		} catch (ExecutionException e) {
+			joinedCounter.increment();
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw (E) cause;
+		} catch (TimeoutException e) {
+			timedOutCounter.increment();
+			inFlight.remove(key, leader);
+			return lookup.run();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return lookup.run();
+		}
+	}
+
+	/**
+	 * Detaches the lookup in flight for a key, so callers arriving from now on
+	 * start a new one. Used when the data behind the key changes.
+	 *
+	 * @param key the arguments of the lookup.
+	 */
+	public void forget(final K key) {
+		inFlight.remove(key);
+	}
+
+	/**
+	 * Runs a lookup on behalf of every caller that joins it.
+	 */
+	private <E extends Exception> V lead(final K key, final CompletableFuture<V> own, final Lookup<V, E> lookup)
+			throws E {
+		ledCounter.increment();
+		try {
+			final V result = lookup.run();
+			own.complete(result);
+			return result;
+		} catch (Exception | Error e) {
+			own.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, own);
+		}
+	}
+
+	/**
+	 * Fraction of callers served by another caller's lookup.
+	 */
+	private double ratio() {
+		final double joined = joinedCounter.count();
+		final double total = joined + ledCounter.count();
+		return total == 0 ? 0 : joined / total;
+	}
+
+}
@@ -0,0 +1,358 @@
+package com.inventorymanagement.bo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ProductStockCustomized;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.dao.StockDeltaRepository;
+import com.inventorymanagement.entity.CacheChange;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.entity.StockDelta;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+/**
+ * Optional in-memory stock engine. Keeps a live counter per product and answers
+ * stock deductions with a compare-and-set instead of a row lock on the
+ * 'Product' table. Every accepted change is journaled as a {@link StockDelta}
+ * in the caller's transaction and a scheduled flusher folds the journal back
+ * into the Product table in batches.
+ *
+ * Enabled with {@code inventory.stock-engine.enabled=true}; when disabled every
+ * method is a no-op and stock is handled by {@link ProductBO} directly.
+ *
+ * The counters live in this node only, so the engine is for a single node over
+ * a single database: a second node would accept orders against its own copy
+ * of the stock and the flushed totals could go below zero. It refuses to start
+ * when the cross-node change log or sharding is enabled.
+ */
+@Component
+public class StockEngine {
+
+	/**
+	 * Logger instance that helps in recording log messages for the StockEngine
+	 * class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(StockEngine.class);
+
+	/**
+	 * Live stock counters keyed by product ID.
+	 */
+	private final Map<Integer, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Serializes flushes so that the journal is folded by one thread at a time.
+	 */
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	/**
+	 * Repository used for reading and writing back product stock.
+	 */
+	private final ProductRepository productRepository;
+
+	/**
+	 * Repository used for the stock change journal.
+	 */
+	private final StockDeltaRepository stockDeltaRepository;
+
+	/**
+	 * Router used to flush and load every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Catalog version moved when folded changes reach the Product table.
+	 */
+	private final CatalogVersion catalogVersion;
+
+	/**
+	 * Log through which other nodes learn of folded stock changes.
+	 */
+	private final ChangeLog changeLog;
+
+	/**
+	 * Runs each flush batch in its own transaction.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Whether the engine is enabled.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Maximum number of journal rows folded per transaction.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Constructor for StockEngine.
+	 *
+	 * @param productRepository    the product repository to be injected.
+	 * @param stockDeltaRepository the stock change journal repository.
+	 * @param shardRouter          the shard router to be injected.
+	 * @param catalogVersion       the catalog version to be injected.
+	 * @param changeLog            the change log to be injected.
+	 * @param transactionManager   the transaction manager used by the flusher.
+	 * @param enabled              whether the engine is enabled.
+	 * @param batchSize            the maximum number of journal rows per flush.
+	 * @throws IllegalStateException if the engine is enabled together with the
+	 *                               change log or sharding.
+	 */
+	public StockEngine(final ProductRepository productRepository, final StockDeltaRepository stockDeltaRepository,
+			final ShardRouter shardRouter, final CatalogVersion catalogVersion, final ChangeLog changeLog,
+			final PlatformTransactionManager transactionManager,
+			@Value("${inventory.stock-engine.enabled:false}") final boolean enabled,
+			@Value("${inventory.stock-engine.flush-batch-size:1000}") final int batchSize) {
+		this.productRepository = productRepository;
+		this.stockDeltaRepository = stockDeltaRepository;
+		this.shardRouter = shardRouter;
+		this.catalogVersion = catalogVersion;
+		this.changeLog = changeLog;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.batchSize = batchSize;
+		if (enabled && (changeLog.isEnabled() || shardRouter.isSharded())) {
+			throw new IllegalStateException("The stock engine keeps stock in this node only; disable "
+					+ "inventory.change-log.enabled and sharding to run it on a single node");
+		}
+	}
+
+	/**
+	 * Tells whether stock is being answered from memory.
+	 *
+	 * @return true if the engine is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Deducts stock for a product that may not have been loaded yet.
+	 *
+	 * @param productId the ID of the product.
+	 * @param quantity  the quantity to be deducted.
+	 * @param reserved  the quantity held by reservations that must stay available,
+	 *                  read again after the deduction.
+	 * @throws ResourceNotFoundException  if the product is not found.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 */
+	public void decrement(final int productId, final int quantity, final IntSupplier reserved)
+			throws ResourceNotFoundException {
+		AtomicInteger counter = counters.get(productId);
+		if (counter == null) {
+			final ProductStockCustomized level = productRepository.findStockLevel(productId)
+					.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+			counter = counters.computeIfAbsent(productId, id -> new AtomicInteger(level.getStockAvailable()));
+		}
+		apply(productId, "ID " + productId, counter, -quantity, reserved);
+	}
+
+	/**
+	 * Applies a signed change to the stock of a loaded product entity. The entity
+	 * itself is left untouched; its stock is written back by the flusher.
+	 *
+	 * @param product  the product whose stock changes.
+	 * @param delta    the signed change, negative for deductions.
+	 * @param reserved the quantity held by reservations that must stay available.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 */
+	public void adjust(final Product product, final int delta, final int reserved) {
+		final AtomicInteger counter = counters.computeIfAbsent(product.getProductId(),
+				id -> new AtomicInteger(product.getStockAvailable()));
+		apply(product.getProductId(), product.getProductName(), counter, delta, () -> reserved);
+	}
+
+	/**
+	 * Returns the live stock of a product, if it is loaded.
+	 *
+	 * @param productId the ID of the product.
+	 * @return the live stock, or null if the product is not loaded.
+	 */
+	public Integer currentStock(final int productId) {
+		final AtomicInteger counter = counters.get(productId);
+		return counter == null ? null : counter.get();
+	}
+
+	/**
+	 * Drops the pending journal rows of a product that is about to be given an
+	 * absolute stock, in the caller's transaction. The new value replaces them,
+	 * so they need not be folded first. The flusher locks the rows it folds: a row
+	 * is either folded before the new value is written or dropped, never folded
+	 * on top of it.
+	 *
+	 * @param productId the ID of the product.
+	 */
+	public void discardPending(final int productId) {
+		if (enabled) {
+			stockDeltaRepository.deleteByProductId(productId);
+		}
+	}
+
+	/**
+	 * Replaces the live stock of a product after an absolute update, such as an
+	 * admin editing the product. Call {@link #discardPending(int)} before writing
+	 * the new value so no older journal rows are folded on top of it.
+	 *
+	 * @param productId      the ID of the product.
+	 * @param stockAvailable the new stock.
+	 */
+	public void reset(final int productId, final int stockAvailable) {
+		if (enabled) {
+			counters.put(productId, new AtomicInteger(stockAvailable));
+		}
+	}
+
+	/**
+	 * Compare-and-set loop that validates and applies a change, journals it and
+	 * undoes the in-memory change if the surrounding transaction rolls back. A
+	 * deduction reads the held quantity again once it is applied: a hold placed
+	 * in between saw either this deduction or would have been seen here, so one
+	 * of the two backs out.
+	 */
+	private void apply(final int productId, final String label, final AtomicInteger counter, final int delta,
+			final IntSupplier reserved) {
+		int current;
+		do {
+			current = counter.get();
+			final int available = current - reserved.getAsInt();
+			if (delta < 0 && available <= 0) {
+				if (LOG.isErrorEnabled()) {
+					LOG.error("Out of stock for product: {}", label);
+				}
+				throw new OutOfStockException("Product " + label + " is out of stock.");
+			}
+			if (delta < 0 && available < -delta) {
+				if (LOG.isErrorEnabled()) {
+					LOG.error("Insufficient stock for product: {}", label);
+				}
+				throw new InsufficientStockException("Insufficient stock for product: " + label);
+			}
+		} while (!counter.compareAndSet(current, current + delta));
+		if (delta < 0 && current + delta < reserved.getAsInt()) {
+			counter.addAndGet(-delta);
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Insufficient stock for product: {}", label);
+			}
+			throw new InsufficientStockException("Insufficient stock for product: " + label);
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(final int status) {
+					if (status != STATUS_COMMITTED) {
+						counter.addAndGet(-delta);
+					}
+				}
+			});
+		}
+		try {
+			stockDeltaRepository.save(new StockDelta(productId, delta));
+		} catch (RuntimeException e) {
+			if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+				counter.addAndGet(-delta);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Folds pending journal rows into the Product table, one batch per
+	 * transaction, until the journal is empty. Each shard keeps its own journal.
+	 */
+	@Scheduled(fixedDelayString = "${inventory.stock-engine.flush-interval-ms:200}")
+	public void flush() {
+		if (!enabled) {
+			return;
+		}
+		flushLock.lock();
+		try {
+			shardRouter.forEachShard(shard -> {
+				Integer folded;
+				do {
+					folded = transactionTemplate.execute(status -> flushBatch());
+				} while (folded != null && folded == batchSize);
+			});
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Folds one batch of journal rows. Rows are deleted by ID, so a row that
+	 * becomes visible after the read is left for the next flush.
+	 */
+	private int flushBatch() {
+		final List<StockDelta> pending = stockDeltaRepository.findPending(PageRequest.of(0, batchSize));
+		if (pending.isEmpty()) {
+			return 0;
+		}
+		final Map<Integer, Integer> totals = new HashMap<>();
+		final List<Long> ids = new ArrayList<>(pending.size());
+		for (final StockDelta delta : pending) {
+			totals.merge(delta.getProductId(), delta.getDelta(), Integer::sum);
+			ids.add(delta.getDeltaId());
+		}
+		totals.forEach((productId, delta) -> {
+			if (delta != 0) {
+				productRepository.adjustStockBy(productId, delta);
+				catalogVersion.changed(productId);
+				changeLog.record(CacheChange.Kind.STOCK, productId);
+			}
+		});
+		stockDeltaRepository.deleteAllByIdInBatch(ids);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Flushed {} stock changes for {} products", ids.size(), totals.size());
+		}
+		return pending.size();
+	}
+
+	/**
+	 * Startup reconciliation. Journal rows are committed together with their
+	 * orders, so any rows left by a crash are folded first; the counters are then
+	 * loaded from the Product table, which is now up to date.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void reconcile() {
+		if (!enabled) {
+			return;
+		}
+		flush();
+		counters.clear();
+		for (final ProductStockCustomized level : shardRouter.scatter(productRepository::findStockLevels)) {
+			counters.put(level.getProductId(), new AtomicInteger(level.getStockAvailable()));
+		}
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Stock engine loaded {} products", counters.size());
+		}
+	}
+
+}
@@ -0,0 +1,244 @@
+package com.inventorymanagement.bo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.exception.CustomException;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Retries read-modify-write stock changes that lose an optimistic locking race
+ * on {@link com.inventorymanagement.entity.Product}. Attempts are separated by
+ * an exponential backoff with jitter, bounded both in delay and in number of
+ * attempts. Every conflict is counted per shard in the
+ * {@code inventory.stock.conflicts} metric, whose tags stay bounded, and per
+ * product in memory. Once per report interval the products with the most
+ * conflicts are published, tagged by product ID, as the
+ * {@code inventory.stock.conflicts.hot} gauge and logged; the gauge holds at
+ * most {@link #REPORTED_PRODUCTS} series, replaced at every report, so a hot
+ * product can be graphed and alerted on.
+ */
+@Component
+public class StockRetryPolicy {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * StockRetryPolicy class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(StockRetryPolicy.class);
+
+	/**
+	 * One attempt at a stock change. Re-run from scratch after a conflict.
+	 *
+	 * @param <T> the result type.
+	 */
+	@FunctionalInterface
+	public interface Attempt<T> {
+
+		/**
+		 * Loads, modifies and saves the product.
+		 *
+		 * @return the result of the attempt.
+		 * @throws ResourceNotFoundException if the product is not found.
+		 */
+		T run() throws ResourceNotFoundException;
+	}
+
+	/**
+	 * Persistence context of the current request. Cleared between attempts so the
+	 * next attempt reads the product again instead of the stale copy.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Largest number of products whose conflicts are counted between two reports.
+	 */
+	private static final int MAX_TRACKED_PRODUCTS = 1000;
+
+	/**
+	 * Number of products named in each report.
+	 */
+	private static final int REPORTED_PRODUCTS = 10;
+
+	/**
+	 * Registry for the conflict counters.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Router giving the shard of a product.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Conflict counters keyed by shard.
+	 */
+	private final Map<Integer, Counter> conflicts = new ConcurrentHashMap<>();
+
+	/**
+	 * Conflicts per product since the last report.
+	 */
+	private final Map<Integer, LongAdder> hotProducts = new ConcurrentHashMap<>();
+
+	/**
+	 * Conflicts of the hottest products in the last report interval, one series
+	 * per product.
+	 */
+	private final MultiGauge hotProductGauge;
+
+	/**
+	 * Number of changes that still conflicted after the last attempt.
+	 */
+	private final Counter exhausted;
+
+	/**
+	 * Maximum number of attempts, including the first one.
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * Backoff before the second attempt, in milliseconds.
+	 */
+	private final long baseDelayMillis;
+
+	/**
+	 * Upper bound for the backoff, in milliseconds.
+	 */
+	private final long maxDelayMillis;
+
+	/**
+	 * Constructor for StockRetryPolicy.
+	 *
+	 * @param meterRegistry   the registry for conflict metrics.
+	 * @param shardRouter     the router giving the shard of a product.
+	 * @param maxAttempts     the maximum number of attempts.
+	 * @param baseDelayMillis the backoff before the second attempt.
+	 * @param maxDelayMillis  the upper bound for the backoff.
+	 */
+	public StockRetryPolicy(final MeterRegistry meterRegistry, final ShardRouter shardRouter,
+			@Value("${inventory.stock-retry.max-attempts:5}") final int maxAttempts,
+			@Value("${inventory.stock-retry.base-delay-ms:10}") final long baseDelayMillis,
+			@Value("${inventory.stock-retry.max-delay-ms:200}") final long maxDelayMillis) {
+		this.meterRegistry = meterRegistry;
+		this.shardRouter = shardRouter;
+		this.maxAttempts = maxAttempts;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.exhausted = Counter.builder("inventory.stock.conflicts.exhausted")
+				.description("Stock changes that failed after every retry").register(meterRegistry);
+		this.hotProductGauge = MultiGauge.builder("inventory.stock.conflicts.hot")
+				.description("Conflicts of the products with the most conflicts in the last report interval")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Runs a stock change, retrying it when it loses an optimistic locking race.
+	 *
+	 * @param <T>       the result type.
+	 * @param productId the ID of the product being changed.
+	 * @param attempt   the change to be run.
+	 * @return the result of the first successful attempt.
+	 * @throws ResourceNotFoundException         if the product is not found.
+	 * @throws OptimisticLockingFailureException if every attempt conflicted.
+	 */
+	public <T> T execute(final int productId, final Attempt<T> attempt) throws ResourceNotFoundException {
+		for (int i = 1;; i++) {
+			try {
+				return attempt.run();
+			} catch (OptimisticLockingFailureException e) {
+				recordConflict(productId);
+				if (i >= maxAttempts) {
+					exhausted.increment();
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Giving up on product {} after {} conflicting attempts", productId, i);
+					}
+					throw e;
+				}
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("Conflicting update on product {}, retrying (attempt {})", productId, i + 1);
+				}
+				entityManager.clear();
+				backoff(i);
+			}
+		}
+	}
+
+	/**
+	 * Publishes and logs the products with the most conflicts since the last
+	 * report and starts counting again. Products no longer among them drop out of
+	 * the gauge.
+	 */
+	@Scheduled(fixedDelayString = "${inventory.stock-retry.report-interval-ms:60000}")
+	public void reportHotProducts() {
+		final List<Map.Entry<Integer, Long>> counts = new ArrayList<>();
+		for (final Integer productId : hotProducts.keySet()) {
+			final LongAdder count = hotProducts.remove(productId);
+			if (count != null) {
+				counts.add(Map.entry(productId, count.sum()));
+			}
+		}
+		counts.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+		final List<Map.Entry<Integer, Long>> hottest = counts.subList(0, Math.min(REPORTED_PRODUCTS, counts.size()));
+		final List<MultiGauge.Row<?>> rows = new ArrayList<>();
+		for (final Map.Entry<Integer, Long> entry : hottest) {
+			rows.add(MultiGauge.Row.of(Tags.of("productId", String.valueOf(entry.getKey())), entry.getValue()));
+		}
+		hotProductGauge.register(rows, true);
+		if (!hottest.isEmpty() && LOG.isWarnEnabled()) {
+			LOG.warn("Products with the most stock conflicts (ID=conflicts): {}", hottest);
+		}
+	}
+
+	/**
+	 * Counts a conflict against the product's shard and, while fewer than
+	 * {@link #MAX_TRACKED_PRODUCTS} products are tracked, against the product.
+	 */
+	private void recordConflict(final int productId) {
+		conflicts.computeIfAbsent(shardRouter.shardOf(productId),
+				shard -> Counter.builder("inventory.stock.conflicts").tag("shard", String.valueOf(shard))
+						.description("Optimistic locking conflicts on product stock").register(meterRegistry))
+				.increment();
+		LongAdder count = hotProducts.get(productId);
+		if (count == null && hotProducts.size() < MAX_TRACKED_PRODUCTS) {
+			count = hotProducts.computeIfAbsent(productId, id -> new LongAdder());
+		}
+		if (count != null) {
+			count.increment();
+		}
+	}
+
+	/**
+	 * Sleeps for the capped exponential delay of the given attempt, with jitter
+	 * over its upper half so that competing writers spread out.
+	 */
+	private void backoff(final int attempt) {
+		final long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CustomException("Interrupted while retrying a stock change.");
+		}
+	}
+
+}
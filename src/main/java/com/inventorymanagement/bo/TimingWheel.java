@@ -0,0 +1,170 @@
+package com.inventorymanagement.bo;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of short-lived timeouts. Scheduling and
+ * cancelling are O(1) and need no timer thread per entry: entries are hashed
+ * into a fixed ring of buckets by their deadline tick, and {@link #advance}
+ * expires the buckets that the clock has passed. Scheduling takes the same
+ * lock as advancing, so an entry is never added to a bucket whose tick is
+ * being processed and left there for a full rotation.
+ *
+ * @param <T> the type of item that expires.
+ */
+public class TimingWheel<T> {
+
+	/**
+	 * A scheduled expiry that can be cancelled.
+	 *
+	 * @param <T> the type of item that expires.
+	 */
+	public static final class Timeout<T> {
+
+		/**
+		 * The item handed to the expiry callback.
+		 */
+		private final T item;
+
+		/**
+		 * The tick on or after which the item expires.
+		 */
+		private final long deadlineTick;
+
+		/**
+		 * Set once the timeout was either cancelled or expired.
+		 */
+		private final AtomicBoolean done = new AtomicBoolean();
+
+		/**
+		 * Constructs a new Timeout.
+		 */
+		/* default */ Timeout(final T item, final long deadlineTick) {
+			this.item = item;
+			this.deadlineTick = deadlineTick;
+		}
+
+		/**
+		 * Cancels the timeout.
+		 *
+		 * @return true if the timeout was cancelled, false if it already expired or
+		 *         was cancelled before.
+		 */
+		public boolean cancel() {
+			return done.compareAndSet(false, true);
+		}
+
+		/**
+		 * Gets the item that expires.
+		 *
+		 * @return the item.
+		 */
+		public T getItem() {
+			return item;
+		}
+	}
+
+	/**
+	 * The ring of buckets, indexed by deadline tick modulo the ring size.
+	 */
+	private final Queue<Timeout<T>>[] buckets;
+
+	/**
+	 * Bit mask used to map a tick to its bucket.
+	 */
+	private final int mask;
+
+	/**
+	 * Duration of one tick in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * Time at which tick 0 started.
+	 */
+	private final long startMillis;
+
+	/**
+	 * Callback invoked for every item that expires.
+	 */
+	private final Consumer<T> onExpire;
+
+	/**
+	 * Next tick to be processed; guarded by the wheel's lock.
+	 */
+	private long currentTick;
+
+	/**
+	 * Constructs a new TimingWheel.
+	 *
+	 * @param wheelSize   the number of buckets, rounded up to a power of two.
+	 * @param tickMillis  the duration of one tick in milliseconds.
+	 * @param startMillis the current time in milliseconds.
+	 * @param onExpire    the callback invoked for every expired item.
+	 */
+	@SuppressWarnings("unchecked")
+	public TimingWheel(final int wheelSize, final long tickMillis, final long startMillis,
+			final Consumer<T> onExpire) {
+		final int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+		this.buckets = new Queue[size];
+		for (int i = 0; i < size; i++) {
+			buckets[i] = new ConcurrentLinkedQueue<>();
+		}
+		this.mask = size - 1;
+		this.tickMillis = tickMillis;
+		this.startMillis = startMillis;
+		this.onExpire = onExpire;
+	}
+
+	/**
+	 * Schedules an item to expire after the given delay.
+	 *
+	 * @param item        the item that expires.
+	 * @param delayMillis the delay in milliseconds.
+	 * @param nowMillis   the current time in milliseconds.
+	 * @return a handle that can cancel the expiry.
+	 */
+	public synchronized Timeout<T> schedule(final T item, final long delayMillis, final long nowMillis) {
+		final long deadlineTick = Math.max((nowMillis + delayMillis - startMillis) / tickMillis, currentTick + 1);
+		final Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+		buckets[(int) (deadlineTick & mask)].add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Processes every tick up to the given time, expiring due items and dropping
+	 * cancelled ones. Items whose deadline lies further than one rotation ahead
+	 * stay in their bucket.
+	 *
+	 * @param nowMillis the current time in milliseconds.
+	 * @return the number of items that expired.
+	 */
+	public synchronized int advance(final long nowMillis) {
+		final long targetTick = (nowMillis - startMillis) / tickMillis;
+		int expired = 0;
+		long tick = currentTick;
+		while (tick <= targetTick) {
+			final Iterator<Timeout<T>> iterator = buckets[(int) (tick & mask)].iterator();
+			while (iterator.hasNext()) {
+				final Timeout<T> timeout = iterator.next();
+				if (timeout.done.get()) {
+					iterator.remove();
+				} else if (timeout.deadlineTick <= tick) {
+					iterator.remove();
+					if (timeout.done.compareAndSet(false, true)) {
+						onExpire.accept(timeout.item);
+						expired++;
+					}
+				}
+			}
+			tick++;
+			currentTick = tick;
+		}
+		return expired;
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.inventorymanagement.bo;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.dao.CustomerRepository;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Membership indexes behind the check* endpoints of the product and
+ * registration forms. A value the index has never seen is reported as free
+ * without a query; only values that may be taken are confirmed against the
+ * database, which stays the source of truth and enforces uniqueness on write.
+ *
+ * The indexes are loaded by the cache warm-up; until then every check goes to
+ * the database.
+ */
+@Component
+public class UniquenessIndex {
+
+	/**
+	 * Unique columns covered by the index.
+	 */
+	public enum Field {
+		/** Product.productName */
+		PRODUCT_NAME,
+		/** Product.barcode */
+		BARCODE,
+		/** Customer.username */
+		USERNAME,
+		/** Customer.email */
+		EMAIL
+	}
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * UniquenessIndex class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(UniquenessIndex.class);
+
+	/**
+	 * One membership index per column.
+	 */
+	private final Map<Field, MembershipIndex> indexes = new EnumMap<>(Field.class);
+
+	/**
+	 * Checks answered from the index, per column.
+	 */
+	private final Map<Field, Counter> indexAnswers = new EnumMap<>(Field.class);
+
+	/**
+	 * Checks that had to query the database, per column.
+	 */
+	private final Map<Field, Counter> databaseAnswers = new EnumMap<>(Field.class);
+
+	/**
+	 * Repository used to load product names and bar codes.
+	 */
+	private final ProductRepository productRepository;
+
+	/**
+	 * Repository used to load user names and e-mail addresses.
+	 */
+	private final CustomerRepository customerRepository;
+
+	/**
+	 * Router used to load products from every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Whether the indexes hold every value that existed at startup.
+	 */
+	private volatile boolean loaded;
+
+	/**
+	 * Constructor for UniquenessIndex.
+	 *
+	 * @param productRepository  the product repository to be injected.
+	 * @param customerRepository the customer repository to be injected.
+	 * @param shardRouter        the shard router to be injected.
+	 * @param meterRegistry      the registry for index metrics.
+	 * @param expectedValues     the number of values each filter is sized for.
+	 * @param falsePositiveRate  the filters' false positive rate at that size.
+	 */
+	public UniquenessIndex(final ProductRepository productRepository, final CustomerRepository customerRepository,
+			final ShardRouter shardRouter, final MeterRegistry meterRegistry,
+			@Value("${inventory.uniqueness.expected-values:1000000}") final long expectedValues,
+			@Value("${inventory.uniqueness.false-positive-rate:0.01}") final double falsePositiveRate) {
+		this.productRepository = productRepository;
+		this.customerRepository = customerRepository;
+		this.shardRouter = shardRouter;
+		for (final Field field : Field.values()) {
+			final String tag = field.name().toLowerCase(Locale.ROOT);
+			indexes.put(field, new MembershipIndex(expectedValues, falsePositiveRate));
+			indexAnswers.put(field, Counter.builder("inventory.uniqueness.checks").tag("field", tag)
+					.tag("answer", "index").description("Uniqueness checks").register(meterRegistry));
+			databaseAnswers.put(field, Counter.builder("inventory.uniqueness.checks").tag("field", tag)
+					.tag("answer", "database").description("Uniqueness checks").register(meterRegistry));
+		}
+	}
+
+	/**
+	 * Tells whether a value is already taken.
+	 *
+	 * @param field    the column to check.
+	 * @param value    the value to check.
+	 * @param database the database check, run when the index cannot rule the
+	 *                 value out.
+	 * @return true if the value is taken.
+	 */
+	public boolean exists(final Field field, final String value, final BooleanSupplier database) {
+		if (loaded && value != null && !indexes.get(field).mightContain(value)) {
+			indexAnswers.get(field).increment();
+			return false;
+		}
+		databaseAnswers.get(field).increment();
+		return database.getAsBoolean();
+	}
+
+	/**
+	 * Records a value written to a unique column. Called before commit; if the
+	 * write rolls back the stale entry only costs a database check.
+	 *
+	 * @param field the column written.
+	 * @param value the value written.
+	 */
+	public void added(final Field field, final String value) {
+		indexes.get(field).add(value);
+	}
+
+	/**
+	 * Loads every existing value. Values added while loading are kept, since
+	 * entries are never removed. Run by the cache warm-up.
+	 *
+	 * @return the number of values loaded.
+	 */
+	public int load() {
+		addAll(Field.PRODUCT_NAME, shardRouter.scatter(productRepository::findAllProductNames));
+		addAll(Field.BARCODE, shardRouter.scatter(productRepository::findAllBarcodes));
+		addAll(Field.USERNAME, customerRepository.findAllUsernames());
+		addAll(Field.EMAIL, customerRepository.findAllEmails());
+		loaded = true;
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Uniqueness index loaded {} product names, {} bar codes, {} user names, {} e-mails",
+					indexes.get(Field.PRODUCT_NAME).size(), indexes.get(Field.BARCODE).size(),
+					indexes.get(Field.USERNAME).size(), indexes.get(Field.EMAIL).size());
+		}
+		return indexes.values().stream().mapToInt(MembershipIndex::size).sum();
+	}
+
+	/**
+	 * Adds a batch of values to one index.
+	 */
+	private void addAll(final Field field, final List<String> values) {
+		final MembershipIndex index = indexes.get(field);
+		values.forEach(index::add);
+	}
+
+}
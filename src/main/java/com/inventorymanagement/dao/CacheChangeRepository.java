@@ -0,0 +1,53 @@
+package com.inventorymanagement.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inventorymanagement.entity.CacheChange;
+
+/**
+ * Repository interface for managing {@link CacheChange} entities. This
+ * interface extends {@link JpaRepository}, providing CRUD operations for
+ * {@link CacheChange} entities.
+ */
+@Repository
+public interface CacheChangeRepository extends JpaRepository<CacheChange, Long> {
+
+	/**
+	 * Finds the changes recorded after a given change, oldest first.
+	 *
+	 * @param afterId  the ID of the last change already read
+	 * @param pageable the maximum number of changes to return
+	 * @return a list of changes ordered by ID
+	 */
+	@Query("select c from CacheChange c where c.changeId > :afterId1 order by c.changeId")
+	List<CacheChange> findAfter(@Param("afterId1") long afterId, Pageable pageable);
+
+	/**
+	 * Finds the ID of the latest change.
+	 *
+	 * @return the highest change ID, or 0 if there are no changes
+	 */
+	@Query("select coalesce(max(c.changeId), 0) from CacheChange c")
+	long findLatestId();
+
+	/**
+	 * Deletes changes made before the given time.
+	 *
+	 * @param cutoff the oldest change time to keep
+	 * @return the number of changes deleted
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from CacheChange c where c.changedDate < :cutoff1")
+	int deleteChangedBefore(@Param("cutoff1") Date cutoff);
+
+}
@@ -1,14 +1,25 @@
 package com.inventorymanagement.dao;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.inventorymanagement.entity.City;
 
+import jakarta.persistence.QueryHint;
+
 public interface CityRepository extends JpaRepository<City, Integer> {
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<City> findByCityName(String cityName);
 
+	@Query("select x.cityName from City x order by x.cityId")
+	List<String> findCityNames(Pageable pageable);
+
 	boolean existsByCityName(String cityName);
 
 }
@@ -1,13 +1,24 @@
 package com.inventorymanagement.dao;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.inventorymanagement.entity.Country;
 
+import jakarta.persistence.QueryHint;
+
 public interface CountryRepository extends JpaRepository<Country, Integer> {
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<Country> findByCountryName(String countryName);
 
+	@Query("select x.countryName from Country x order by x.countryId")
+	List<String> findCountryNames(Pageable pageable);
+
 	boolean existsByCountryName(String cityName);
 }
@@ -1,6 +1,9 @@
 package com.inventorymanagement.dao;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.inventorymanagement.entity.Customer;
@@ -21,4 +24,10 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer> {
 
 	Customer findByUsername(String username);
 
+	@Query("select c.username from Customer c")
+	List<String> findAllUsernames();
+
+	@Query("select c.email from Customer c")
+	List<String> findAllEmails();
+
 }
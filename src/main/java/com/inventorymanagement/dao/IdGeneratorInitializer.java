@@ -0,0 +1,95 @@
+package com.inventorymanagement.dao;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.entity.OrderDetails;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves the ID generator row of {@link OrderDetails} past the highest existing
+ * order ID. Orders used to be keyed by an IDENTITY column, so on an existing
+ * database the generator row would otherwise start at 1 and collide with
+ * existing orders. When sharded, each shard's row starts in the ID range that
+ * shard owns; {@link OrderIdAllocator} keeps a separate block per shard and
+ * reserves it on that shard's row, so an order's ID lies in the range of the
+ * shard holding its product.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * IdGeneratorInitializer class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+	/**
+	 * Template used to read and update the generator table.
+	 */
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Router used to address each shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Constructor for IdGeneratorInitializer.
+	 *
+	 * @param jdbcTemplate           the JDBC template to be injected.
+	 * @param shardRouter            the shard router to be injected.
+	 * @param shardSchemaInitializer present when sharded; injected so that every
+	 *                               shard has its schema before this runs.
+	 */
+	public IdGeneratorInitializer(final JdbcTemplate jdbcTemplate, final ShardRouter shardRouter,
+			final Optional<ShardSchemaInitializer> shardSchemaInitializer) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.shardRouter = shardRouter;
+	}
+
+	/**
+	 * Raises the stored generator value to at least one full allocation above the
+	 * highest order ID, inserting the generator row if it does not exist yet. Runs
+	 * once the schema is up to date and before any request is served.
+	 */
+	@PostConstruct
+	public void initialize() {
+		shardRouter.forEachShard(shard -> initializeShard(shardRouter.firstId(shard) - 1));
+	}
+
+	/**
+	 * Raises the generator of the current shard above both its highest order ID
+	 * and the start of its ID range.
+	 */
+	private void initializeShard(final int rangeStart) {
+		final Integer maxOrderId = jdbcTemplate.queryForObject("SELECT MAX(order_id) FROM order_details",
+				Integer.class);
+		final long floor = Math.max(maxOrderId == null ? 0 : maxOrderId, rangeStart)
+				+ OrderDetails.ID_ALLOCATION_SIZE + 1L;
+
+		final int updated = jdbcTemplate.update(
+				"UPDATE id_generator SET next_value = ? WHERE generator_name = ? AND next_value < ?", floor,
+				OrderDetails.ID_GENERATOR, floor);
+		if (updated == 0) {
+			final Integer rows = jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM id_generator WHERE generator_name = ?", Integer.class,
+					OrderDetails.ID_GENERATOR);
+			if (rows != null && rows == 0) {
+				jdbcTemplate.update("INSERT INTO id_generator (generator_name, next_value) VALUES (?, ?)",
+						OrderDetails.ID_GENERATOR, floor);
+			}
+		}
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Order ID generator starts above {}", maxOrderId);
+		}
+	}
+
+}
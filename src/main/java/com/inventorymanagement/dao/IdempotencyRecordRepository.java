@@ -0,0 +1,33 @@
+package com.inventorymanagement.dao;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inventorymanagement.entity.IdempotencyRecord;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} entities. This
+ * interface extends {@link JpaRepository}, providing CRUD operations for
+ * {@link IdempotencyRecord} entities.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+	/**
+	 * Deletes records created before the given time.
+	 *
+	 * @param cutoff the oldest creation time to keep
+	 * @return the number of records deleted
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyRecord r where r.createdDate < :cutoff1")
+	int deleteCreatedBefore(@Param("cutoff1") Date cutoff);
+
+}
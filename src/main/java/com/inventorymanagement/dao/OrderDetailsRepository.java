@@ -1,16 +1,69 @@
 package com.inventorymanagement.dao;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.inventorymanagement.dto.OrderDetailsDTO;
 import com.inventorymanagement.entity.OrderDetails;
 
-/**
- * Repository interface for managing {@link OrderDetails} entities. This
- * interface extends {@link JpaRepository}, providing CRUD operations for
- * {@link OrderDetails} entities.
- */
 @Repository
 public interface OrderDetailsRepository extends JpaRepository<OrderDetails, Integer> {
 
+	/**
+	 * Select clause shared by the queries that read orders straight into
+	 * {@link OrderDetailsDTO}s, with the product joined in SQL.
+	 */
+	String DTO_SELECT = "select new com.inventorymanagement.dto.OrderDetailsDTO(o.orderId, o.orderedQuantity, "
+			+ "o.orderedDate, o.deliveryDate, p.productId, p.productName) from OrderDetails o join o.product p ";
+
+	/**
+	 * Finds an order by its ID together with its product.
+	 *
+	 * @param orderId the order ID
+	 * @return the order, if found
+	 */
+	@Override
+	@EntityGraph(OrderDetails.DETAIL_GRAPH)
+	Optional<OrderDetails> findById(Integer orderId);
+
+	/**
+	 * Finds all orders together with their products.
+	 *
+	 * @return a list of all orders
+	 */
+	@Override
+	@EntityGraph(OrderDetails.DETAIL_GRAPH)
+	List<OrderDetails> findAll();
+
+	/**
+	 * Fetches the next page of orders as DTOs, with their product joined in SQL,
+	 * in order ID order. No entity is loaded into the persistence context.
+	 *
+	 * @param afterId  the last order ID of the previous page, or 0
+	 * @param pageable the page size
+	 * @return the orders after the given ID
+	 */
+	@Query(DTO_SELECT + "where o.orderId > :afterId1 order by o.orderId")
+	List<OrderDetailsDTO> findOrderDetailsDTOs(@Param("afterId1") int afterId, Pageable pageable);
+
+	/**
+	 * Fetches the next page of the orders of a product as DTOs, in order ID
+	 * order.
+	 *
+	 * @param productId the product ID
+	 * @param afterId   the last order ID of the previous page, or 0
+	 * @param pageable  the page size
+	 * @return the product's orders after the given ID
+	 */
+	@Query(DTO_SELECT + "where p.productId = :productId1 and o.orderId > :afterId1 order by o.orderId")
+	List<OrderDetailsDTO> findProductOrderDTOs(@Param("productId1") int productId, @Param("afterId1") int afterId,
+			Pageable pageable);
+
 }
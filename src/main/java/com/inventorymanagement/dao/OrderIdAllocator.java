@@ -0,0 +1,205 @@
+package com.inventorymanagement.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.entity.OrderDetails;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Hands out order IDs for {@link OrderIdGenerator}. Each shard has its own
+ * block of {@link OrderDetails#ID_ALLOCATION_SIZE} IDs, reserved on the
+ * 'id_generator' row of that shard, so an order's ID always lies in the range
+ * {@link IdGeneratorInitializer} started that shard's row in.
+ *
+ * Blocks are reserved on a dedicated connection per shard, not on the JPA
+ * pool: an order transaction asks for an ID while it already holds a pooled
+ * connection and, after the guarded decrement, the product row lock. Taking a
+ * second pooled connection there would let a burst of orders for one product
+ * use up the pool and wait on each other until the connection timeout.
+ */
+@Component
+public class OrderIdAllocator implements HibernatePropertiesCustomizer, DisposableBean {
+
+	/**
+	 * Hibernate setting the allocator is passed to {@link OrderIdGenerator}
+	 * under.
+	 */
+	public static final String SETTING = "inventory.order-id-allocator";
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * OrderIdAllocator class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(OrderIdAllocator.class);
+
+	/**
+	 * The ID blocks, one per shard.
+	 */
+	private final List<Block> blocks = new ArrayList<>();
+
+	/**
+	 * The allocation pools, one per shard.
+	 */
+	private final List<HikariDataSource> pools = new ArrayList<>();
+
+	/**
+	 * Constructor for OrderIdAllocator.
+	 *
+	 * @param properties the datasource properties holding URL, credentials and
+	 *                   driver.
+	 * @param urls       the JDBC URLs of the shards, empty for a single database.
+	 */
+	public OrderIdAllocator(final DataSourceProperties properties,
+			@Value("${inventory.sharding.urls:}") final List<String> urls) {
+		if (urls.isEmpty()) {
+			blocks.add(new Block(pool(properties, properties.determineUrl(), "order-ids")));
+		} else {
+			for (int shard = 0; shard < urls.size(); shard++) {
+				blocks.add(new Block(pool(properties, urls.get(shard), "order-ids-shard-" + shard)));
+			}
+		}
+	}
+
+	/**
+	 * Returns the next order ID of the current shard.
+	 *
+	 * @return the order ID.
+	 * @throws DataAccessResourceFailureException if a new block could not be
+	 *                                            reserved.
+	 */
+	public int next() {
+		final Integer shard = ShardContext.current();
+		return blocks.get(shard == null ? 0 : shard).next();
+	}
+
+	/**
+	 * Passes this allocator to Hibernate, where {@link OrderIdGenerator} picks it
+	 * up.
+	 *
+	 * @param hibernateProperties the Hibernate settings.
+	 */
+	@Override
+	public void customize(final Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(SETTING, this);
+	}
+
+	/**
+	 * Closes the allocation pools.
+	 */
+	@Override
+	public void destroy() {
+		for (final HikariDataSource pool : pools) {
+			pool.close();
+		}
+	}
+
+	/**
+	 * Creates the single-connection pool of one shard.
+	 */
+	private HikariDataSource pool(final DataSourceProperties properties, final String url, final String name) {
+		final HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url)
+				.build();
+		pool.setPoolName(name);
+		pool.setMaximumPoolSize(1);
+		pool.setMinimumIdle(0);
+		pool.setAutoCommit(false);
+		pools.add(pool);
+		return pool;
+	}
+
+	/**
+	 * The current block of one shard. The generator row holds the last ID of the
+	 * next block to be handed out, the layout Hibernate's pooled table generator
+	 * used.
+	 */
+	private static final class Block {
+
+		/**
+		 * Connections of the shard.
+		 */
+		private final DataSource dataSource;
+
+		/**
+		 * Next ID to be handed out.
+		 */
+		private long next;
+
+		/**
+		 * Last ID of the current block; below {@link #next} when it is used up.
+		 */
+		private long last = -1;
+
+		/**
+		 * Creates an empty block on a shard.
+		 */
+		/* default */ Block(final DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		/**
+		 * Returns the next ID, reserving a new block first when this one is used
+		 * up.
+		 */
+		/* default */ synchronized int next() {
+			if (next > last) {
+				last = reserve();
+				next = last - OrderDetails.ID_ALLOCATION_SIZE + 1;
+			}
+			return Math.toIntExact(next++);
+		}
+
+		/**
+		 * Moves the generator row on by one block and returns the last ID of the
+		 * block it held.
+		 */
+		private long reserve() {
+			try (Connection connection = dataSource.getConnection()) {
+				try (PreparedStatement update = connection.prepareStatement(
+						"UPDATE id_generator SET next_value = next_value + ? WHERE generator_name = ?");
+						PreparedStatement select = connection
+								.prepareStatement("SELECT next_value FROM id_generator WHERE generator_name = ?")) {
+					update.setInt(1, OrderDetails.ID_ALLOCATION_SIZE);
+					update.setString(2, OrderDetails.ID_GENERATOR);
+					if (update.executeUpdate() == 0) {
+						throw new IllegalStateException("No 'id_generator' row for " + OrderDetails.ID_GENERATOR);
+					}
+					select.setString(1, OrderDetails.ID_GENERATOR);
+					final long reserved;
+					try (ResultSet row = select.executeQuery()) {
+						row.next();
+						reserved = row.getLong(1) - OrderDetails.ID_ALLOCATION_SIZE;
+					}
+					connection.commit();
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("Reserved order IDs up to {}", reserved);
+					}
+					return reserved;
+				} catch (SQLException | RuntimeException e) {
+					connection.rollback();
+					throw e;
+				}
+			} catch (SQLException e) {
+				throw new DataAccessResourceFailureException("Unable to reserve order IDs", e);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.inventorymanagement.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Properties;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import com.inventorymanagement.entity.OrderDetails;
+
+/**
+ * Generator of order IDs. The 'id_generator' table is mapped as for
+ * Hibernate's table generator, so the schema does not change, but IDs are
+ * drawn from {@link OrderIdAllocator}: one block per shard, reserved on a
+ * connection of its own.
+ */
+public class OrderIdGenerator extends TableGenerator {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Marks the ID attribute generated by {@link OrderIdGenerator}.
+	 */
+	@IdGeneratorType(OrderIdGenerator.class)
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.FIELD, ElementType.METHOD })
+	public @interface OrderId {
+	}
+
+	/**
+	 * Allocator the IDs come from, or null outside Spring, where the table
+	 * generator itself is used.
+	 */
+	private transient OrderIdAllocator allocator;
+
+	/**
+	 * Default constructor, used by Hibernate.
+	 */
+	public OrderIdGenerator() {
+		super();
+	}
+
+	/**
+	 * Configures the generator table and looks up the allocator.
+	 *
+	 * @param type            the type of the ID attribute.
+	 * @param parameters      the generator parameters.
+	 * @param serviceRegistry the Hibernate services.
+	 */
+	@Override
+	public void configure(final Type type, final Properties parameters, final ServiceRegistry serviceRegistry) {
+		parameters.setProperty(TABLE_PARAM, "id_generator");
+		parameters.setProperty(SEGMENT_COLUMN_PARAM, "generator_name");
+		parameters.setProperty(VALUE_COLUMN_PARAM, "next_value");
+		parameters.setProperty(SEGMENT_VALUE_PARAM, OrderDetails.ID_GENERATOR);
+		parameters.setProperty(INCREMENT_PARAM, Integer.toString(OrderDetails.ID_ALLOCATION_SIZE));
+		super.configure(type, parameters, serviceRegistry);
+		allocator = (OrderIdAllocator) serviceRegistry.requireService(ConfigurationService.class).getSettings()
+				.get(OrderIdAllocator.SETTING);
+	}
+
+	/**
+	 * Returns the next order ID of the current shard.
+	 *
+	 * @param session the session inserting the order.
+	 * @param object  the order being inserted.
+	 * @return the order ID.
+	 */
+	@Override
+	public Object generate(final SharedSessionContractImplementor session, final Object object) {
+		if (allocator == null) {
+			return super.generate(session, object);
+		}
+		return allocator.next();
+	}
+
+}
@@ -8,6 +8,13 @@ package com.inventorymanagement.dao;
  */
 public interface ProductCustomized {
 
+	/**
+	 * Gets the product ID, the key the list is paged on.
+	 *
+	 * @return the product ID
+	 */
+	int getProductId();
+
 	/**
 	 * Gets the product name.
 	 *
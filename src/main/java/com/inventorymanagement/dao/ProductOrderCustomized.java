@@ -8,6 +8,20 @@ import java.util.Date;
  * entities.
  */
 public interface ProductOrderCustomized {
+	/**
+	 * Gets the product ID, the first part of the key the list is paged on.
+	 *
+	 * @return the product ID
+	 */
+	int getProductId();
+
+	/**
+	 * Gets the order ID, the second part of the key the list is paged on.
+	 *
+	 * @return the order ID
+	 */
+	int getOrderId();
+
 	/**
 	 * Gets the product name.
 	 *
@@ -1,14 +1,24 @@
 package com.inventorymanagement.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.inventorymanagement.dto.ProductDTO;
 import com.inventorymanagement.entity.Product;
 
+import jakarta.persistence.LockModeType;
+
 /**
  * Repository interface for accessing Product entities.
  */
@@ -16,33 +26,70 @@ import com.inventorymanagement.entity.Product;
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
 	/**
-	 * Finds products with IDs greater than the specified value.
+	 * Select clause shared by the queries that read products straight into
+	 * {@link ProductDTO}s. Brand and category are joined in SQL and no entity is
+	 * loaded into the persistence context.
+	 */
+	String DTO_SELECT = "select new com.inventorymanagement.dto.ProductDTO(p.productId, p.productName, "
+			+ "p.stockAvailable, p.price, p.barcode, b.brandId, b.brandName, c.categoryId, c.categoryName) "
+			+ "from Product p join p.brand b join p.category c ";
+
+	/**
+	 * Finds a product by its ID together with its brand and category.
 	 *
-	 * @param productId the product ID threshold
-	 * @return a list of products with IDs greater than the specified value
+	 * @param productId the product ID
+	 * @return the product, if found
 	 */
-	@Query("select p from Product p where p.productId> :productId1")
-	List<Product> findProductById(@Param("productId1") int productId);
+	@Override
+	@EntityGraph(Product.DETAIL_GRAPH)
+	Optional<Product> findById(Integer productId);
 
 	/**
-	 * Finds products with names matching the specified pattern.
+	 * Finds all products together with their brands and categories.
+	 *
+	 * @return a list of all products
+	 */
+	@Override
+	@EntityGraph(Product.DETAIL_GRAPH)
+	List<Product> findAll();
+
+	/**
+	 * Finds products by their IDs together with their brands and categories.
+	 *
+	 * @param productIds the product IDs
+	 * @return a list of the products found
+	 */
+	@Override
+	@EntityGraph(Product.DETAIL_GRAPH)
+	List<Product> findAllById(Iterable<Integer> productIds);
+
+	/**
+	 * Fetches the next page of products with names matching the specified
+	 * pattern, in product ID order.
 	 *
 	 * @param productName the product name pattern
+	 * @param afterId     the last product ID of the previous page, or 0
+	 * @param pageable    the page size
 	 * @return a list of products with names matching the specified pattern
 	 */
-	@Query("select p from Product p where p.productName LIKE %:name1%")
-	List<Product> findByName(@Param("name1") String productName);
+	@Query(DTO_SELECT + "where p.productName LIKE %:name1% and p.productId > :afterId1 order by p.productId")
+	List<ProductDTO> findByName(@Param("name1") String productName, @Param("afterId1") int afterId,
+			Pageable pageable);
 
 //	Fetches only few columns from Product
 	/**
-	 * Fetches only the product name and price for products with prices greater than
-	 * the specified value.
+	 * Fetches only the product ID, name and price for the next page of products
+	 * with prices greater than the specified value, in product ID order.
 	 *
-	 * @param price the price threshold
+	 * @param price    the price threshold
+	 * @param afterId  the last product ID of the previous page, or 0
+	 * @param pageable the page size
 	 * @return a list of customized product data
 	 */
-	@Query("select p.productName as productName, p.price as price from Product p where p.price> :price1")
-	List<ProductCustomized> findProductByPriceCustomized(@Param("price1") float price);
+	@Query("select p.productId as productId, p.productName as productName, p.price as price from Product p "
+			+ "where p.price> :price1 and p.productId > :afterId1 order by p.productId")
+	List<ProductCustomized> findProductByPriceCustomized(@Param("price1") float price,
+			@Param("afterId1") int afterId, Pageable pageable);
 
 //	Named query
 	/**
@@ -50,6 +97,7 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 	 *
 	 * @return a list of products ordered by name descending
 	 */
+	@EntityGraph(Product.DETAIL_GRAPH)
 	List<Product> findAllProductsByNameDescending();
 
 //	Inner join
@@ -58,6 +106,7 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 	 *
 	 * @return a list of products and order details
 	 */
+	@EntityGraph(Product.DETAIL_GRAPH)
 	@Query("select p from Product p JOIN  OrderDetails o on p.productId = o.product.productId")
 	List<Product> findProductsAndOrderDetails();
 
@@ -67,36 +116,30 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 	 *
 	 * @return a list of products with their order details
 	 */
+	@EntityGraph(Product.DETAIL_GRAPH)
 	@Query("select p from Product p LEFT OUTER JOIN OrderDetails o on p.productId=o.product.productId")
 	List<Product> findProductWithOrdersLeft();
 
 //	Customized data by join
 	/**
-	 * Finds customized product and order data by joining product and order details.
+	 * Finds the next page of customized product and order data by joining product
+	 * and order details, ordered by product and then by order.
 	 *
-	 * @param price the price threshold
+	 * @param price          the price threshold
+	 * @param afterProductId the product ID of the last row of the previous page,
+	 *                       or 0
+	 * @param afterOrderId   the order ID of the last row of the previous page, or
+	 *                       0
+	 * @param pageable       the page size
 	 * @return a list of customized product and order data
 	 */
-	@Query("select p.productName as productName , p.price as price, o.orderedDate as orderedDate , o.deliveryDate as deliveryDate from Product p JOIN OrderDetails o on p.productId=o.product.productId where p.price> :price1")
-	List<ProductOrderCustomized> findByProductOrderCustomized(@Param("price1") float price);
-
-//	Aggregate function
-	/**
-	 * Finds the count of products grouped by category.
-	 *
-	 * @return a list of category names and product counts
-	 */
-	@Query("select c.categoryName as categoryName, COUNT(p.productId) as productCount FROM Product p JOIN Category c ON p.category.categoryId = c.categoryId GROUP BY c.categoryName HAVING COUNT(p.productId) > 1")
-	List<ProductCategoryCustomized> findProductsCategoryCount();
-
-//	Math function
-	/**
-	 * Finds the average price of products grouped by category.
-	 *
-	 * @return a list of category names and average prices
-	 */
-	@Query("select c.categoryName as categoryName, AVG(p.price) as averagePrice FROM Product p JOIN p.category c GROUP BY c.categoryName")
-	List<CategoryPriceCustomized> findAvergePriceByCategory();
+	@Query("select p.productId as productId, o.orderId as orderId, p.productName as productName , p.price as price, "
+			+ "o.orderedDate as orderedDate , o.deliveryDate as deliveryDate from Product p JOIN OrderDetails o on p.productId=o.product.productId "
+			+ "where p.price> :price1 and (p.productId > :afterProductId1 or (p.productId = :afterProductId1 and o.orderId > :afterOrderId1)) "
+			+ "order by p.productId, o.orderId")
+	List<ProductOrderCustomized> findByProductOrderCustomized(@Param("price1") float price,
+			@Param("afterProductId1") int afterProductId, @Param("afterOrderId1") int afterOrderId,
+			Pageable pageable);
 
 //	String function 
 	/**
@@ -121,46 +164,151 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 	List<ProductBrandCustomized> findProductCountByBrand(@Param("name") String brandName,
 			@Param("number") int productCount);
 
-//	Joins
 	/**
-	 * Finds product and order details by joining product, order details, brand, and
-	 * category.
+	 * Fetches the next page of the products of a brand as DTOs.
 	 *
-	 * @return a list of customized product, order, brand, and category data
+	 * @param brandName1 the brand name
+	 * @param afterId    the last product ID of the previous page, or 0
+	 * @param pageable   the page size
+	 * @return a list of the brand's products
 	 */
-	@Query("SELECT p.productId as productId, p.productName as productName, "
-			+ "o.orderId as orderId, o.orderedQuantity as orderedQuantity, "
-			+ "b.brandName as brandName, c.categoryName as categoryName " + "FROM Product p " + "JOIN p.orderDetails o "
-			+ "JOIN p.brand b " + "JOIN p.category c")
-	List<ProductOrderCBCustomized> findProductOrderDetails();
-
-	@Query("SELECT p.productId AS productId, p.productName AS productName, b.brandName AS brand, c.categoryName AS category"
-			+ ",p.stockAvailable AS stockAvailable, p.price AS price,"
-			+ "co.customer.customerId AS customerId, co.customer.username AS username, od.orderId AS orderId,"
-			+ " od.orderedQuantity AS orderedQuantity, "
-			+ "(od.orderedQuantity * p.price) AS amountPaid FROM OrderDetails od "
-			+ "INNER JOIN Product p ON od.product.productId = p.productId "
-			+ "INNER JOIN Brand b ON p.brand.brandId = b.brandId "
-			+ "INNER JOIN Category c ON p.category.categoryId = c.categoryId "
-			+ "INNER JOIN CustomerOrderDetails co ON od.orderId = co.order.orderId "
-			+ "ORDER BY p.productId, co.customer.customerId, od.orderId")
-	List<SalesReportCustomized> generateSalesReport();
-
-	@Query("SELECT c.customerId AS customerId,c.username AS userName,p.productId as productId,p.productName as productName,"
-			+ " p.price as price, od.orderedQuantity as orderedQuantity , (od.orderedQuantity * p.price) AS amountPaid "
-			+ "FROM CustomerOrderDetails co INNER JOIN Customer c ON co.customer.customerId = c.customerId "
-			+ "INNER JOIN OrderDetails od ON co.order.orderId = od.orderId "
-			+ "INNER JOIN Product p ON od.product.productId = p.productId where c.customerId= :customerId1")
-	List<CustomerOrderReportCustomized> generateCustomerOrderReport(@Param("customerId1") int customerId);
+	@Query(DTO_SELECT + "where b.brandName = :brandName1 and p.productId > :afterId1 order by p.productId")
+	List<ProductDTO> findProductsByBrandName(@Param("brandName1") String brandName1, @Param("afterId1") int afterId,
+			Pageable pageable);
 
-	@Query("SELECT p FROM Product p JOIN p.brand b WHERE b.brandName = :brandName1")
-	List<Product> findProductsByBrandName(@Param("brandName1") String brandName1);
+	/**
+	 * Fetches the next page of the products of a category as DTOs.
+	 *
+	 * @param categoryName the category name
+	 * @param afterId      the last product ID of the previous page, or 0
+	 * @param pageable     the page size
+	 * @return a list of the category's products
+	 */
+	@Query(DTO_SELECT + "where c.categoryName = :categoryName1 and p.productId > :afterId1 order by p.productId")
+	List<ProductDTO> findProductsByCategoryName(@Param("categoryName1") String categoryName,
+			@Param("afterId1") int afterId, Pageable pageable);
 
-	@Query("SELECT p FROM Product p JOIN p.category c WHERE c.categoryName = :categoryName1")
-	List<Product> findProductsByCategoryName(@Param("categoryName1") String categoryName);
+	/**
+	 * Fetches the given products as DTOs.
+	 *
+	 * @param productIds the product IDs
+	 * @return a list of the products found
+	 */
+	@Query(DTO_SELECT + "where p.productId in :productIds1 order by p.productId")
+	List<ProductDTO> findProductDTOs(@Param("productIds1") Collection<Integer> productIds);
 
 	boolean existsByProductName(String productName);
 
 	boolean existsByBarcode(String barcode);
 
+//	Guarded update
+	/**
+	 * Atomically reduces the available stock of a product, but only when enough
+	 * stock is left beyond what is reserved. The check and the write happen in a
+	 * single statement, so concurrent orders for the same product can never drive
+	 * the stock negative. The version is bumped explicitly rather than with
+	 * {@code update versioned}: Hibernate adds that assignment to the cached query
+	 * tree on every execution, which is not safe when the query runs on several
+	 * threads at once.
+	 *
+	 * @param productId the product ID
+	 * @param quantity  the quantity to be deducted
+	 * @param reserved  the quantity held by reservations that must stay available
+	 * @return the number of rows updated, 0 if the product does not exist or has
+	 *         insufficient stock
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Product p set p.stockAvailable = p.stockAvailable - :quantity1, p.version = p.version + 1 "
+			+ "where p.productId = :productId1 and p.stockAvailable >= :quantity1 + :reserved1")
+	int decrementStock(@Param("productId1") int productId, @Param("quantity1") int quantity,
+			@Param("reserved1") int reserved);
+
+	/**
+	 * Adds a signed change to the available stock of a product without any guard.
+	 * Used to write back changes that were already validated elsewhere. The
+	 * version is bumped explicitly, as in {@link #decrementStock(int, int, int)}.
+	 *
+	 * @param productId the product ID
+	 * @param delta     the signed change in stock
+	 * @return the number of rows updated
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Product p set p.stockAvailable = p.stockAvailable + :delta1, p.version = p.version + 1 "
+			+ "where p.productId = :productId1")
+	int adjustStockBy(@Param("productId1") int productId, @Param("delta1") int delta);
+
+	/**
+	 * Fetches the stock level of a single product.
+	 *
+	 * @param productId the product ID
+	 * @return the stock level, or empty if the product does not exist
+	 */
+	@Query("select p.productId as productId, p.productName as productName, p.stockAvailable as stockAvailable from Product p where p.productId = :productId1")
+	Optional<ProductStockCustomized> findStockLevel(@Param("productId1") int productId);
+
+	/**
+	 * Fetches the stock level of a single product and locks its row until the
+	 * transaction ends, so no stock update can commit in between.
+	 *
+	 * @param productId the product ID
+	 * @return the stock level, or empty if the product does not exist
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select p.productId as productId, p.productName as productName, p.stockAvailable as stockAvailable from Product p where p.productId = :productId1")
+	Optional<ProductStockCustomized> lockStockLevel(@Param("productId1") int productId);
+
+	/**
+	 * Fetches the stock level of every product.
+	 *
+	 * @return a list of product IDs and their stock levels
+	 */
+	@Query("select p.productId as productId, p.productName as productName, p.stockAvailable as stockAvailable from Product p")
+	List<ProductStockCustomized> findStockLevels();
+
+	/**
+	 * Fetches the stock level of the given products in a single query.
+	 *
+	 * @param productIds the product IDs
+	 * @return a list of product IDs and their stock levels
+	 */
+	@Query("select p.productId as productId, p.productName as productName, p.stockAvailable as stockAvailable from Product p where p.productId in :productIds1")
+	List<ProductStockCustomized> findStockLevels(@Param("productIds1") Collection<Integer> productIds);
+
+	/**
+	 * Fetches the IDs of products that have no stock left.
+	 *
+	 * @return a list of product IDs
+	 */
+	@Query("select p.productId from Product p where p.stockAvailable <= 0")
+	List<Integer> findOutOfStockIds();
+
+	/**
+	 * Fetches the name of every product.
+	 *
+	 * @return a list of product names
+	 */
+	@Query("select p.productName from Product p")
+	List<String> findAllProductNames();
+
+	/**
+	 * Fetches the bar code of every product.
+	 *
+	 * @return a list of bar codes
+	 */
+	@Query("select p.barcode from Product p")
+	List<String> findAllBarcodes();
+
+	/**
+	 * Fetches the next page of products, with their brand and category names,
+	 * in product ID order.
+	 *
+	 * @param afterId  the last product ID of the previous page, or 0
+	 * @param pageable the page size
+	 * @return the products after the given ID
+	 */
+	@Query(DTO_SELECT + "where p.productId > :afterId1 order by p.productId")
+	List<ProductDTO> findProductDTOsAfter(@Param("afterId1") int afterId, Pageable pageable);
+
 }
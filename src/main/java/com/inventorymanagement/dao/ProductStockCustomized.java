@@ -0,0 +1,30 @@
+package com.inventorymanagement.dao;
+
+/**
+ * Projection interface for the stock level of a product. Used to read stock
+ * without loading the Product entity and its order details.
+ */
+public interface ProductStockCustomized {
+
+	/**
+	 * Gets the product ID.
+	 *
+	 * @return the product ID
+	 */
+	int getProductId();
+
+	/**
+	 * Gets the product name.
+	 *
+	 * @return the product name
+	 */
+	String getProductName();
+
+	/**
+	 * Gets the available stock quantity.
+	 *
+	 * @return the available stock quantity
+	 */
+	int getStockAvailable();
+
+}
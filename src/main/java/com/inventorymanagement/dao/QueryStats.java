@@ -0,0 +1,202 @@
+package com.inventorymanagement.dao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Statements, JDBC time and rows of one unit of work, usually an HTTP request.
+ * Statements are counted by {@link QueryStatsInspector} as Hibernate prepares
+ * them; time and rows by {@link QueryStatsDataSource} as the driver runs them.
+ * Work is measured only while a QueryStats is bound to the thread, and
+ * {@link ShardRouter} carries it over to the threads of a scatter-gather query.
+ */
+public final class QueryStats {
+
+	/**
+	 * Stats of the current thread, or null when nothing is being measured.
+	 */
+	private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Number of statements prepared.
+	 */
+	private final AtomicInteger statements = new AtomicInteger();
+
+	/**
+	 * Time spent executing statements, in nanoseconds.
+	 */
+	private final AtomicLong jdbcNanos = new AtomicLong();
+
+	/**
+	 * Number of rows read from result sets.
+	 */
+	private final AtomicLong rows = new AtomicLong();
+
+	/**
+	 * Number of times each statement text was prepared.
+	 */
+	private final Map<String, AtomicInteger> repeats = new ConcurrentHashMap<>();
+
+	/**
+	 * Binds new, empty stats to the current thread.
+	 *
+	 * @return the stats now being collected.
+	 */
+	public static QueryStats begin() {
+		final QueryStats stats = new QueryStats();
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	/**
+	 * Unbinds the stats of the current thread.
+	 */
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Returns the stats of the current thread.
+	 *
+	 * @return the stats being collected, or null if nothing is being measured.
+	 */
+	public static QueryStats current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Wraps work handed to another thread so that its statements are counted
+	 * against the stats of the calling thread.
+	 *
+	 * @param <T>  the result type.
+	 * @param work the work to be wrapped.
+	 * @return the wrapped work, or the work itself if nothing is being measured.
+	 */
+	public static <T> Supplier<T> propagate(final Supplier<T> work) {
+		final QueryStats stats = CURRENT.get();
+		if (stats == null) {
+			return work;
+		}
+		return () -> {
+			final QueryStats previous = CURRENT.get();
+			CURRENT.set(stats);
+			try {
+				return work.get();
+			} finally {
+				if (previous == null) {
+					CURRENT.remove();
+				} else {
+					CURRENT.set(previous);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Runs work and fails if it prepares more statements than allowed. Meant for
+	 * tests guarding an endpoint against N+1 regressions; the work runs with its
+	 * own stats, which are restored afterwards.
+	 *
+	 * @param <T>           the result type.
+	 * @param endpoint      the name of the endpoint, used in the failure message.
+	 * @param maxStatements the largest number of statements allowed.
+	 * @param work          the work to be measured.
+	 * @return the result of the work.
+	 * @throws AssertionError if the work prepares too many statements.
+	 */
+	public static <T> T assertMaxQueries(final String endpoint, final int maxStatements, final Supplier<T> work) {
+		final QueryStats previous = CURRENT.get();
+		final QueryStats stats = begin();
+		try {
+			final T result = work.get();
+			if (stats.getStatements() > maxStatements) {
+				throw new AssertionError(endpoint + " ran " + stats.getStatements() + " statements, at most "
+						+ maxStatements + " allowed; most repeated: " + stats.mostRepeated());
+			}
+			return result;
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Records a statement prepared by Hibernate.
+	 *
+	 * @param sql the statement text.
+	 */
+	/* default */void statement(final String sql) {
+		statements.incrementAndGet();
+		repeats.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+	}
+
+	/**
+	 * Records the execution of a statement.
+	 *
+	 * @param nanos the time the driver took.
+	 */
+	/* default */void executed(final long nanos) {
+		jdbcNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Records a row read from a result set.
+	 */
+	/* default */void row() {
+		rows.incrementAndGet();
+	}
+
+	/**
+	 * Returns the number of statements prepared.
+	 *
+	 * @return the statement count.
+	 */
+	public int getStatements() {
+		return statements.get();
+	}
+
+	/**
+	 * Returns the time spent executing statements.
+	 *
+	 * @return the JDBC time in nanoseconds.
+	 */
+	public long getJdbcNanos() {
+		return jdbcNanos.get();
+	}
+
+	/**
+	 * Returns the number of rows read.
+	 *
+	 * @return the row count.
+	 */
+	public long getRows() {
+		return rows.get();
+	}
+
+	/**
+	 * Returns how often the most repeated statement text was prepared. A count
+	 * that grows with the size of the result is the mark of an N+1 query.
+	 *
+	 * @return the highest repeat count, or 0 if nothing was prepared.
+	 */
+	public int getMaxRepeats() {
+		return repeats.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+	}
+
+	/**
+	 * Returns the most repeated statement text.
+	 *
+	 * @return the statement text, or null if nothing was prepared.
+	 */
+	public String mostRepeated() {
+		return repeats.entrySet().stream().max((a, b) -> Integer.compare(a.getValue().get(), b.getValue().get()))
+				.map(Map.Entry::getKey).orElse(null);
+	}
+
+}
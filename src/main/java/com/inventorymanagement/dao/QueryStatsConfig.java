@@ -0,0 +1,47 @@
+package com.inventorymanagement.dao;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Measures the DataSource used by JPA and JDBC for {@link QueryStats}. The
+ * application DataSource, whether the routing DataSource of the 'sharded'
+ * profile or the auto-configured pool, is wrapped in a
+ * {@link QueryStatsDataSource} unless {@code inventory.query-stats.enabled} is
+ * false.
+ */
+@Configuration
+public class QueryStatsConfig {
+
+	/**
+	 * Default constructor for QueryStatsConfig.
+	 */
+	public QueryStatsConfig() {
+		// Default constructor for initializing the QueryStatsConfig.
+	}
+
+	/**
+	 * Creates the post processor that wraps the application DataSource.
+	 *
+	 * @param environment the environment holding the enabled flag.
+	 * @return the post processor.
+	 */
+	@Bean
+	public static BeanPostProcessor queryStatsDataSourcePostProcessor(final Environment environment) {
+		final boolean enabled = environment.getProperty("inventory.query-stats.enabled", Boolean.class, true);
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+				if (enabled && bean instanceof DataSource && !(bean instanceof QueryStatsDataSource)) {
+					return new QueryStatsDataSource((DataSource) bean);
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.inventorymanagement.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that times statement execution and counts the rows read for the
+ * current {@link QueryStats}. Statements created while nothing is being
+ * measured are handed out unwrapped, so the cost outside measured work is one
+ * thread-local read per statement.
+ */
+public class QueryStatsDataSource extends DelegatingDataSource {
+
+	/**
+	 * Constructor for QueryStatsDataSource.
+	 *
+	 * @param target the DataSource to be measured.
+	 */
+	public QueryStatsDataSource(final DataSource target) {
+		super(target);
+	}
+
+	/**
+	 * Returns a measured connection from the target DataSource.
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connection(obtainTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Returns a measured connection from the target DataSource.
+	 */
+	@Override
+	public Connection getConnection(final String username, final String password) throws SQLException {
+		return connection(obtainTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wraps a connection so that the statements it creates are measured.
+	 */
+	private static Connection connection(final Connection target) {
+		return proxy(Connection.class, (proxy, method, args) -> {
+			final Object result = invoke(target, method, args);
+			final QueryStats stats = QueryStats.current();
+			if (stats == null || !(result instanceof Statement)) {
+				return result;
+			}
+			return statement((Statement) result, stats);
+		});
+	}
+
+	/**
+	 * Wraps a statement so that its executions are timed and the rows of its
+	 * result sets counted.
+	 */
+	private static Statement statement(final Statement target, final QueryStats stats) {
+		final Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+				: target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+		return proxy(type, (proxy, method, args) -> {
+			final Object result;
+			if (method.getName().startsWith("execute")) {
+				final long start = System.nanoTime();
+				try {
+					result = invoke(target, method, args);
+				} finally {
+					stats.executed(System.nanoTime() - start);
+				}
+			} else {
+				result = invoke(target, method, args);
+			}
+			return result instanceof ResultSet ? resultSet((ResultSet) result, stats) : result;
+		});
+	}
+
+	/**
+	 * Wraps a result set so that the rows read from it are counted.
+	 */
+	private static ResultSet resultSet(final ResultSet target, final QueryStats stats) {
+		return proxy(ResultSet.class, (proxy, method, args) -> {
+			final Object result = invoke(target, method, args);
+			if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+				stats.row();
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Creates a proxy that compares by identity, as JDBC objects do, and passes
+	 * every other call to the handler.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(final Class<?> type, final InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(QueryStatsDataSource.class.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+						return proxy == args[0];
+					}
+					if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+						return System.identityHashCode(proxy);
+					}
+					return handler.invoke(proxy, method, args);
+				});
+	}
+
+	/**
+	 * Calls the target, rethrowing what it threw rather than a reflection
+	 * wrapper.
+	 */
+	private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+}
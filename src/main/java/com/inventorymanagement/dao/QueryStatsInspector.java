@@ -0,0 +1,40 @@
+package com.inventorymanagement.dao;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that counts the statements of the current
+ * {@link QueryStats}. Registered through
+ * {@code hibernate.session_factory.statement_inspector}; the SQL is passed on
+ * unchanged.
+ */
+public class QueryStatsInspector implements StatementInspector {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Default constructor, used by Hibernate.
+	 */
+	public QueryStatsInspector() {
+		// Instantiated by Hibernate from its class name.
+	}
+
+	/**
+	 * Counts a statement about to be prepared.
+	 *
+	 * @param sql the statement text.
+	 * @return the statement text, unchanged.
+	 */
+	@Override
+	public String inspect(final String sql) {
+		final QueryStats stats = QueryStats.current();
+		if (stats != null) {
+			stats.statement(sql);
+		}
+		return sql;
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.inventorymanagement.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.dto.CustomerOrderReportCustomizedDTO;
+import com.inventorymanagement.dto.ProductOrderCBCustomizedDTO;
+import com.inventorymanagement.dto.SalesReportDTO;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * Reporting queries, run through {@link ReportingSessions} on the reporting
+ * pool of the current shard. Rows are selected straight into DTOs, and
+ * aggregates are added into maps so that the caller can combine the partial
+ * figures of several shards.
+ */
+@Component
+public class ReportingRepository {
+
+	/**
+	 * Select of the sales report, one row per order.
+	 */
+	private static final String SALES_REPORT_SELECT = "select new com.inventorymanagement.dto.SalesReportDTO("
+			+ "p.productId, p.productName, b.brandName, c.categoryName, p.stockAvailable, p.price, "
+			+ "co.customer.customerId, od.orderId, od.orderedQuantity, cast(od.orderedQuantity * p.price as Float)) "
+			+ "from OrderDetails od join od.product p join p.brand b join p.category c "
+			+ "join CustomerOrderDetails co on co.order = od ";
+
+	/**
+	 * Rows fetched per round trip when the sales report is streamed.
+	 */
+	private static final int STREAM_FETCH_SIZE = 1000;
+
+	/**
+	 * Sessions on the reporting pool.
+	 */
+	private final ReportingSessions reportingSessions;
+
+	/**
+	 * Constructor for ReportingRepository.
+	 *
+	 * @param reportingSessions the sessions on the reporting pool.
+	 */
+	public ReportingRepository(final ReportingSessions reportingSessions) {
+		this.reportingSessions = reportingSessions;
+	}
+
+	/**
+	 * Adds the number of products in each category to the counts.
+	 *
+	 * @param counts the product counts by category name, added to.
+	 */
+	public void addCategoryProductCounts(final Map<String, Long> counts) {
+		final List<Tuple> rows = reportingSessions.withSession(session -> session
+				.createSelectionQuery("select c.categoryName as categoryName, count(p.productId) as productCount "
+						+ "from Product p join p.category c group by c.categoryName", Tuple.class)
+				.getResultList());
+		for (final Tuple row : rows) {
+			counts.merge(row.get("categoryName", String.class), row.get("productCount", Number.class).longValue(),
+					Long::sum);
+		}
+	}
+
+	/**
+	 * Adds the price total and product count of each category to the totals.
+	 *
+	 * @param totals the price total and product count by category name, added
+	 *               to.
+	 */
+	public void addCategoryPriceTotals(final Map<String, double[]> totals) {
+		final List<Tuple> rows = reportingSessions.withSession(session -> session.createSelectionQuery(
+				"select c.categoryName as categoryName, sum(p.price) as priceTotal, count(p.productId) as productCount "
+						+ "from Product p join p.category c group by c.categoryName",
+				Tuple.class).getResultList());
+		for (final Tuple row : rows) {
+			final double[] total = totals.computeIfAbsent(row.get("categoryName", String.class), name -> new double[2]);
+			total[0] += row.get("priceTotal", Number.class).doubleValue();
+			total[1] += row.get("productCount", Number.class).doubleValue();
+		}
+	}
+
+	/**
+	 * Finds every order with its product, brand and category, in product and
+	 * order ID order.
+	 *
+	 * @return the product order details.
+	 */
+	public List<ProductOrderCBCustomizedDTO> findProductOrderDetails() {
+		return reportingSessions.withSession(session -> session.createSelectionQuery(
+				"select new com.inventorymanagement.dto.ProductOrderCBCustomizedDTO(p.productId, p.productName, "
+						+ "o.orderId, o.orderedQuantity, b.brandName, c.categoryName) from OrderDetails o "
+						+ "join o.product p join p.brand b join p.category c order by p.productId, o.orderId",
+				ProductOrderCBCustomizedDTO.class).getResultList());
+	}
+
+	/**
+	 * Finds one page of the sales report, ordered by product and then by order.
+	 *
+	 * @param afterProductId the product ID of the last row already read, 0 for the
+	 *                       first page.
+	 * @param afterOrderId   the order ID of the last row already read, 0 for the
+	 *                       first page.
+	 * @param limit          the maximum number of rows.
+	 * @return the page of the report.
+	 */
+	public List<SalesReportDTO> generateSalesReport(final int afterProductId, final int afterOrderId,
+			final int limit) {
+		return reportingSessions.withSession(session -> session.createSelectionQuery(SALES_REPORT_SELECT
+				+ "where p.productId > :afterProductId or (p.productId = :afterProductId and od.orderId > :afterOrderId) "
+				+ "order by p.productId, od.orderId", SalesReportDTO.class).setParameter("afterProductId", afterProductId)
+				.setParameter("afterOrderId", afterOrderId).setMaxResults(limit).getResultList());
+	}
+
+	/**
+	 * Streams the whole sales report, ordered by product and then by order, to an
+	 * action. Rows are fetched in batches as they are consumed (a server-side
+	 * cursor on MySQL, where the reporting pool sets {@code useCursorFetch=true}),
+	 * so the report is never held in memory.
+	 *
+	 * @param action the action each row is passed to.
+	 * @return the number of rows.
+	 */
+	public long streamSalesReport(final Consumer<SalesReportDTO> action) {
+		return reportingSessions.withSession(session -> {
+			long rows = 0;
+			try (Stream<SalesReportDTO> report = session
+					.createSelectionQuery(SALES_REPORT_SELECT + "order by p.productId, od.orderId", SalesReportDTO.class)
+					.setFetchSize(STREAM_FETCH_SIZE).getResultStream()) {
+				for (final SalesReportDTO row : (Iterable<SalesReportDTO>) report::iterator) {
+					action.accept(row);
+					rows++;
+				}
+			}
+			return rows;
+		});
+	}
+
+	/**
+	 * Finds the orders of a customer with the product and amount paid.
+	 *
+	 * @param customerId the ID of the customer.
+	 * @return the orders of the customer.
+	 */
+	public List<CustomerOrderReportCustomizedDTO> generateCustomerOrderReport(final int customerId) {
+		return reportingSessions.withSession(session -> session.createSelectionQuery(
+				"select new com.inventorymanagement.dto.CustomerOrderReportCustomizedDTO(cu.customerId, cu.username, "
+						+ "p.productId, p.productName, p.price, od.orderedQuantity, "
+						+ "cast(od.orderedQuantity * p.price as Float)) from CustomerOrderDetails co "
+						+ "join co.customer cu join co.order od join od.product p where cu.customerId = :customerId "
+						+ "order by od.orderId",
+				CustomerOrderReportCustomizedDTO.class).setParameter("customerId", customerId).getResultList());
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.inventorymanagement.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs reporting queries on their own small pool of read-only connections,
+ * apart from the pool used by JPA, so that a large report waits for a reporting
+ * connection instead of taking the connections order intake needs. Queries run
+ * in a Hibernate {@link StatelessSession}: no persistence context, no snapshots
+ * for dirty checking, and each statement is its own read-only transaction.
+ *
+ * With the 'sharded' profile there is one reporting pool per shard, routed by
+ * {@link ShardContext} like the main DataSource.
+ *
+ * On MySQL the reporting connections, and only they, are opened with
+ * {@code useCursorFetch=true} so that streamed reports are read through a
+ * server-side cursor. The flag makes Connector/J prepare every statement on
+ * the server, which the short statements of the main pool are better off
+ * without.
+ */
+@Component
+public class ReportingSessions implements DisposableBean {
+
+	/**
+	 * Prefix of the JDBC URLs that take the MySQL Connector/J properties.
+	 */
+	private static final String MYSQL_URL_PREFIX = "jdbc:mysql:";
+
+	/**
+	 * Session factory the stateless sessions are opened from.
+	 */
+	private final SessionFactory sessionFactory;
+
+	/**
+	 * The reporting pools, one per shard.
+	 */
+	private final List<HikariDataSource> pools = new ArrayList<>();
+
+	/**
+	 * DataSource handing out reporting connections for the current shard.
+	 */
+	private final DataSource dataSource;
+
+	/**
+	 * Constructor for ReportingSessions.
+	 *
+	 * @param entityManagerFactory the factory the stateless sessions are opened
+	 *                             from.
+	 * @param properties           the datasource properties holding URL,
+	 *                             credentials and driver.
+	 * @param urls                 the JDBC URLs of the shards, empty for a single
+	 *                             database.
+	 * @param poolSize             the number of connections per reporting pool.
+	 * @param connectionTimeoutMs  how long a report waits for a connection.
+	 * @param measured             whether reporting statements are measured for
+	 *                             QueryStats.
+	 */
+	public ReportingSessions(final EntityManagerFactory entityManagerFactory, final DataSourceProperties properties,
+			@Value("${inventory.sharding.urls:}") final List<String> urls,
+			@Value("${inventory.reporting.pool-size:4}") final int poolSize,
+			@Value("${inventory.reporting.connection-timeout-ms:30000}") final long connectionTimeoutMs,
+			@Value("${inventory.query-stats.enabled:true}") final boolean measured) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		final DataSource target;
+		if (urls.isEmpty()) {
+			target = pool(properties, properties.determineUrl(), "reporting", poolSize, connectionTimeoutMs);
+		} else {
+			final Map<Object, Object> shards = new HashMap<>();
+			for (int shard = 0; shard < urls.size(); shard++) {
+				shards.put(shard,
+						pool(properties, urls.get(shard), "reporting-shard-" + shard, poolSize, connectionTimeoutMs));
+			}
+			final ShardRoutingDataSource routing = new ShardRoutingDataSource();
+			routing.setTargetDataSources(shards);
+			routing.setDefaultTargetDataSource(shards.get(0));
+			routing.afterPropertiesSet();
+			target = routing;
+		}
+		this.dataSource = measured ? new QueryStatsDataSource(target) : target;
+	}
+
+	/**
+	 * Runs work in a stateless session on a reporting connection of the current
+	 * shard. The session and connection are closed when the work returns, so the
+	 * result must not hold on to them.
+	 *
+	 * @param <T>  the result type.
+	 * @param work the work to be run.
+	 * @return the result of the work.
+	 * @throws DataAccessResourceFailureException if no connection could be
+	 *                                            obtained.
+	 */
+	public <T> T withSession(final Function<StatelessSession, T> work) {
+		try (Connection connection = dataSource.getConnection();
+				StatelessSession session = sessionFactory.withStatelessOptions().connection(connection)
+						.openStatelessSession()) {
+			return work.apply(session);
+		} catch (SQLException e) {
+			throw new DataAccessResourceFailureException("Unable to obtain a reporting connection", e);
+		}
+	}
+
+	/**
+	 * Closes the reporting pools.
+	 */
+	@Override
+	public void destroy() {
+		for (final HikariDataSource pool : pools) {
+			pool.close();
+		}
+	}
+
+	/**
+	 * Creates one reporting pool of read-only connections.
+	 */
+	private HikariDataSource pool(final DataSourceProperties properties, final String url, final String name,
+			final int poolSize, final long connectionTimeoutMs) {
+		final HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url)
+				.build();
+		pool.setPoolName(name);
+		pool.setMaximumPoolSize(poolSize);
+		pool.setMinimumIdle(0);
+		pool.setConnectionTimeout(connectionTimeoutMs);
+		pool.setReadOnly(true);
+		if (url.startsWith(MYSQL_URL_PREFIX)) {
+			pool.addDataSourceProperty("useCursorFetch", "true");
+		}
+		pools.add(pool);
+		return pool;
+	}
+
+}
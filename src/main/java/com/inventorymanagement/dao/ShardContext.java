@@ -0,0 +1,43 @@
+package com.inventorymanagement.dao;
+
+/**
+ * Holds the shard that database work on the current thread is routed to. Set
+ * and cleared by {@link ShardRouter}; read by {@link ShardRoutingDataSource}
+ * when a transaction obtains its connection.
+ */
+public final class ShardContext {
+
+	/**
+	 * Shard of the current thread, or null for the default shard.
+	 */
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Utility class, not instantiated.
+	 */
+	private ShardContext() {
+	}
+
+	/**
+	 * Returns the shard of the current thread.
+	 *
+	 * @return the shard index, or null for the default shard.
+	 */
+	public static Integer current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Sets the shard of the current thread.
+	 *
+	 * @param shard the shard index, or null for the default shard.
+	 */
+	/* default */static void set(final Integer shard) {
+		if (shard == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(shard);
+		}
+	}
+
+}
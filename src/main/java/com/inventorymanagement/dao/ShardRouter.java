@@ -0,0 +1,344 @@
+package com.inventorymanagement.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Routes database work to the shard that owns a product. Products and their
+ * orders live on the same shard; each shard hands out product IDs from its own
+ * range, so the owning shard is derived from the ID without a lookup.
+ * Reference data (brands, categories, customers and places) is replicated to
+ * every shard and read from the first one.
+ *
+ * With a single database, which is the default, every method runs its work
+ * directly on the calling thread.
+ */
+@Component
+public class ShardRouter {
+
+	/**
+	 * Work to be run on one shard.
+	 *
+	 * @param <T> the result type.
+	 * @param <E> the checked exception the work may throw.
+	 */
+	@FunctionalInterface
+	public interface Call<T, E extends Exception> {
+
+		/**
+		 * Runs the work.
+		 *
+		 * @return the result of the work.
+		 * @throws E if the work fails.
+		 */
+		T run() throws E;
+	}
+
+	/**
+	 * Number of shards.
+	 */
+	private final int shardCount;
+
+	/**
+	 * Size of the ID range owned by each shard.
+	 */
+	private final int stride;
+
+	/**
+	 * Picks the shard for new products in turn.
+	 */
+	private final AtomicInteger nextShard = new AtomicInteger();
+
+	/**
+	 * Runs scatter-gather queries, one thread per shard. Null with one shard.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Wraps each part of a scatter-gather query in a read-only transaction.
+	 */
+	private final TransactionTemplate readOnly;
+
+	/**
+	 * Constructor for ShardRouter.
+	 *
+	 * @param transactionManager the transaction manager used by scatter-gather.
+	 * @param urls               the JDBC URLs of the shards, empty for a single
+	 *                           database.
+	 */
+	public ShardRouter(final PlatformTransactionManager transactionManager,
+			@Value("${inventory.sharding.urls:}") final List<String> urls) {
+		this.shardCount = Math.max(1, urls.size());
+		this.stride = Integer.MAX_VALUE / shardCount;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		if (shardCount > 1) {
+			final AtomicInteger threads = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(shardCount, task -> {
+				final Thread thread = new Thread(task, "shard-query-" + threads.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else {
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Tells whether data is spread over more than one database.
+	 *
+	 * @return true if there is more than one shard.
+	 */
+	public boolean isSharded() {
+		return shardCount > 1;
+	}
+
+	/**
+	 * Returns the number of shards.
+	 *
+	 * @return the shard count.
+	 */
+	public int getShardCount() {
+		return shardCount;
+	}
+
+	/**
+	 * Returns the shard that owns a product or order ID.
+	 *
+	 * @param id the product or order ID.
+	 * @return the shard index.
+	 */
+	public int shardOf(final int id) {
+		return id <= 0 ? 0 : Math.min((id - 1) / stride, shardCount - 1);
+	}
+
+	/**
+	 * Returns the first ID of the range owned by a shard.
+	 *
+	 * @param shard the shard index.
+	 * @return the first ID of the shard's range.
+	 */
+	public int firstId(final int shard) {
+		return shard * stride + 1;
+	}
+
+	/**
+	 * Picks the shard for a new product, spreading new products evenly.
+	 *
+	 * @return the shard index.
+	 */
+	public int nextShard() {
+		return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+	}
+
+	/**
+	 * Runs work on the shard that owns a product.
+	 *
+	 * @param <T>       the result type.
+	 * @param <E>       the checked exception the work may throw.
+	 * @param productId the ID of the product.
+	 * @param call      the work to be run.
+	 * @return the result of the work.
+	 * @throws E if the work fails.
+	 */
+	public <T, E extends Exception> T onShardOf(final int productId, final Call<T, E> call) throws E {
+		return onShard(shardOf(productId), call);
+	}
+
+	/**
+	 * Runs work on a given shard. Transactions started by the work obtain their
+	 * connection from that shard.
+	 *
+	 * @param <T>   the result type.
+	 * @param <E>   the checked exception the work may throw.
+	 * @param shard the shard index.
+	 * @param call  the work to be run.
+	 * @return the result of the work.
+	 * @throws E if the work fails.
+	 */
+	public <T, E extends Exception> T onShard(final int shard, final Call<T, E> call) throws E {
+		if (!isSharded()) {
+			return call.run();
+		}
+		final Integer previous = ShardContext.current();
+		ShardContext.set(shard);
+		try {
+			return call.run();
+		} finally {
+			ShardContext.set(previous);
+		}
+	}
+
+	/**
+	 * Runs work on every shard in turn, such as a scheduled flush.
+	 *
+	 * @param work the work to be run, given the shard index.
+	 */
+	public void forEachShard(final IntConsumer work) {
+		for (int shard = 0; shard < shardCount; shard++) {
+			final int target = shard;
+			onShard(target, () -> {
+				work.accept(target);
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * Runs a read-only query on every shard in parallel and concatenates the
+	 * results in shard order. Entities must be mapped inside the query, since
+	 * each part runs in its own persistence context.
+	 *
+	 * @param <T>   the element type.
+	 * @param query the query to be run on each shard.
+	 * @return the results of all shards.
+	 */
+	public <T> List<T> scatter(final Supplier<List<T>> query) {
+		return scatter(query, true);
+	}
+
+	/**
+	 * Runs a query on every shard in parallel, outside any transaction, and
+	 * concatenates the results in shard order. Meant for queries that obtain
+	 * their own connection of the current shard, such as the reports on the
+	 * reporting pool, which would otherwise also hold a connection of the main
+	 * pool for nothing.
+	 *
+	 * @param <T>   the element type.
+	 * @param query the query to be run on each shard.
+	 * @return the results of all shards.
+	 */
+	public <T> List<T> scatterOutsideTransaction(final Supplier<List<T>> query) {
+		return scatter(query, false);
+	}
+
+	/**
+	 * Runs a query on every shard in parallel, each part in a read-only
+	 * transaction or none, and concatenates the results in shard order.
+	 */
+	private <T> List<T> scatter(final Supplier<List<T>> query, final boolean transactional) {
+		if (!isSharded()) {
+			return query.get();
+		}
+		final List<CompletableFuture<List<T>>> parts = new ArrayList<>(shardCount);
+		for (int shard = 0; shard < shardCount; shard++) {
+			final int target = shard;
+			parts.add(CompletableFuture.supplyAsync(QueryStats.propagate(() -> onShard(target,
+					() -> transactional ? readOnly.execute(status -> query.get()) : query.get())), executor));
+		}
+		final List<T> merged = new ArrayList<>();
+		for (final CompletableFuture<List<T>> part : parts) {
+			try {
+				merged.addAll(part.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Tells whether a check holds on any shard, such as a uniqueness check.
+	 *
+	 * @param check the check to be run on each shard.
+	 * @return true if the check holds on at least one shard.
+	 */
+	public boolean anyShard(final BooleanSupplier check) {
+		if (!isSharded()) {
+			return check.getAsBoolean();
+		}
+		return !scatter(() -> check.getAsBoolean() ? List.of(Boolean.TRUE) : List.<Boolean>of()).isEmpty();
+	}
+
+	/**
+	 * Looks up a row whose shard is not known from its key, such as an order by
+	 * its ID, trying the shards in turn until one has it.
+	 *
+	 * @param <T>    the result type.
+	 * @param lookup the lookup to be run on each shard.
+	 * @return the first result found.
+	 * @throws ResourceNotFoundException if no shard has the row.
+	 */
+	public <T> T probe(final Call<T, ResourceNotFoundException> lookup) throws ResourceNotFoundException {
+		ResourceNotFoundException notFound = null;
+		for (int shard = 0; shard < shardCount; shard++) {
+			try {
+				return onShard(shard, lookup);
+			} catch (ResourceNotFoundException e) {
+				notFound = e;
+			}
+		}
+		throw notFound;
+	}
+
+	/**
+	 * Splits a list of requests by the shard of their product, runs each part on
+	 * its shard and returns the results in request order. Each part commits on
+	 * its own.
+	 *
+	 * @param <I>         the request type.
+	 * @param <R>         the result type.
+	 * @param requests    the requests.
+	 * @param productIdOf extracts the product ID of a request.
+	 * @param call        processes the requests of one shard, returning one
+	 *                    result per request in the same order.
+	 * @return one result per request, in request order.
+	 */
+	public <I, R> List<R> routeEach(final List<I> requests, final ToIntFunction<I> productIdOf,
+			final Function<List<I>, List<R>> call) {
+		if (!isSharded()) {
+			return call.apply(requests);
+		}
+		final Map<Integer, List<Integer>> positions = new TreeMap<>();
+		for (int i = 0; i < requests.size(); i++) {
+			positions.computeIfAbsent(shardOf(productIdOf.applyAsInt(requests.get(i))), s -> new ArrayList<>())
+					.add(i);
+		}
+		final List<R> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+		positions.forEach((shard, indexes) -> {
+			final List<I> part = new ArrayList<>(indexes.size());
+			indexes.forEach(i -> part.add(requests.get(i)));
+			final List<R> partResults = onShard(shard, () -> call.apply(part));
+			for (int j = 0; j < indexes.size(); j++) {
+				results.set(indexes.get(j), partResults.get(j));
+			}
+		});
+		return results;
+	}
+
+	/**
+	 * Stops the scatter-gather threads.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+}
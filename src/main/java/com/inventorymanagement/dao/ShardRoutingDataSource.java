@@ -0,0 +1,19 @@
+package com.inventorymanagement.dao;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource that hands out connections from the shard selected in
+ * {@link ShardContext}, falling back to the first shard when none is selected.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+	/**
+	 * Returns the shard of the current thread as the lookup key.
+	 */
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContext.current();
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.inventorymanagement.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Prepares every shard in the 'sharded' profile. Hibernate only creates the
+ * schema on the first shard, so the DDL script it writes alongside is replayed
+ * on the others. Each shard is then seeded with the replicated reference data,
+ * and its product IDs are moved to the range the shard owns.
+ */
+@Component
+@Profile("sharded")
+@DependsOn("entityManagerFactory")
+public class ShardSchemaInitializer {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * ShardSchemaInitializer class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+	/**
+	 * Routing DataSource whose shards are prepared.
+	 */
+	private final DataSource dataSource;
+
+	/**
+	 * Router used to address each shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * DDL script written by Hibernate when the schema was created.
+	 */
+	private final Resource schemaScript;
+
+	/**
+	 * Reference data loaded into every shard, if any.
+	 */
+	private final Resource seedScript;
+
+	/**
+	 * Constructor for ShardSchemaInitializer.
+	 *
+	 * @param dataSource   the routing DataSource to be injected.
+	 * @param shardRouter  the shard router to be injected.
+	 * @param schemaScript the DDL script written by Hibernate.
+	 * @param seedScript   the reference data script, optional.
+	 */
+	public ShardSchemaInitializer(final DataSource dataSource, final ShardRouter shardRouter,
+			@Value("file:${spring.jpa.properties.jakarta.persistence.schema-generation.scripts.create-target}") final Resource schemaScript,
+			@Value("${inventory.sharding.seed-script:}") final Resource seedScript) {
+		this.dataSource = dataSource;
+		this.shardRouter = shardRouter;
+		this.schemaScript = schemaScript;
+		this.seedScript = seedScript;
+	}
+
+	/**
+	 * Creates the schema on the other shards, seeds every shard and sets the
+	 * start of its product IDs.
+	 */
+	@PostConstruct
+	public void initialize() {
+		shardRouter.forEachShard(shard -> {
+			if (shard > 0) {
+				new ResourceDatabasePopulator(schemaScript).execute(dataSource);
+			}
+			if (seedScript != null && seedScript.exists()) {
+				new ResourceDatabasePopulator(seedScript).execute(dataSource);
+			}
+			startProductIds(shardRouter.firstId(shard));
+		});
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Prepared {} shards", shardRouter.getShardCount());
+		}
+	}
+
+	/**
+	 * Moves the product ID counter of the current shard to the start of its
+	 * range, unless the shard already holds products.
+	 */
+	private void startProductIds(final int firstId) {
+		final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		final Integer maxProductId = jdbcTemplate.queryForObject("SELECT MAX(product_id) FROM product",
+				Integer.class);
+		if (maxProductId != null || firstId == 1) {
+			return;
+		}
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		final String database;
+		try {
+			database = connection.getMetaData().getDatabaseProductName();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not read the shard database type", e);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+		if ("H2".equals(database)) {
+			jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN product_id RESTART WITH " + firstId);
+		} else {
+			jdbcTemplate.execute("ALTER TABLE product AUTO_INCREMENT = " + firstId);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.inventorymanagement.dao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource configuration for the 'sharded' profile. Builds one connection
+ * pool per URL in {@code inventory.sharding.urls}, sharing the credentials and
+ * driver of {@code spring.datasource}, behind a {@link ShardRoutingDataSource}.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+
+	/**
+	 * Default constructor for ShardingConfig.
+	 */
+	public ShardingConfig() {
+		// Default constructor for initializing the ShardingConfig.
+	}
+
+	/**
+	 * Creates the routing DataSource used by JPA and JDBC.
+	 *
+	 * @param properties the datasource properties holding credentials and driver.
+	 * @param urls       the JDBC URLs of the shards.
+	 * @return the routing DataSource.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(final DataSourceProperties properties,
+			@Value("${inventory.sharding.urls}") final List<String> urls) {
+		final Map<Object, Object> shards = new HashMap<>();
+		for (int shard = 0; shard < urls.size(); shard++) {
+			final HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+					.url(urls.get(shard)).build();
+			pool.setPoolName("shard-" + shard);
+			shards.put(shard, pool);
+		}
+		final ShardRoutingDataSource routing = new ShardRoutingDataSource();
+		routing.setTargetDataSources(shards);
+		routing.setDefaultTargetDataSource(shards.get(0));
+		return routing;
+	}
+
+}
@@ -1,13 +1,24 @@
 package com.inventorymanagement.dao;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.inventorymanagement.entity.State;
 
+import jakarta.persistence.QueryHint;
+
 public interface StateRepository extends JpaRepository<State, Integer> {
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<State> findByStateName(String stateName);
 
+	@Query("select x.stateName from State x order by x.stateId")
+	List<String> findStateNames(Pageable pageable);
+
 	boolean existsByStateName(String stateName);
 }
@@ -0,0 +1,48 @@
+package com.inventorymanagement.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inventorymanagement.entity.StockDelta;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for managing {@link StockDelta} entities. This interface
+ * extends {@link JpaRepository}, providing CRUD operations for
+ * {@link StockDelta} entities.
+ */
+@Repository
+public interface StockDeltaRepository extends JpaRepository<StockDelta, Long> {
+
+	/**
+	 * Finds the oldest pending stock changes and locks them until the folding
+	 * transaction ends, so they cannot be dropped while being folded.
+	 *
+	 * @param pageable the maximum number of changes to return
+	 * @return a list of pending stock changes ordered by ID
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select d from StockDelta d order by d.deltaId")
+	List<StockDelta> findPending(Pageable pageable);
+
+	/**
+	 * Deletes the pending stock changes of a product.
+	 *
+	 * @param productId the product ID
+	 * @return the number of changes deleted
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from StockDelta d where d.productId = :productId1")
+	int deleteByProductId(@Param("productId1") int productId);
+
+}
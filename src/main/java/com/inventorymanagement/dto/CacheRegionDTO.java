@@ -0,0 +1,106 @@
+package com.inventorymanagement.dto;
+
+import java.io.Serializable;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of one second-level cache
+ * region.
+ */
+public class CacheRegionDTO implements Serializable {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The name of the cache region.
+	 */
+	private String regionName;
+
+	/**
+	 * The number of lookups answered from the region.
+	 */
+	private long hitCount;
+
+	/**
+	 * The number of lookups that had to go to the database.
+	 */
+	private long missCount;
+
+	/**
+	 * The number of entries written to the region.
+	 */
+	private long putCount;
+
+	/**
+	 * The number of entries currently held, or a negative value if the cache
+	 * provider does not report it.
+	 */
+	private long elementCount;
+
+	/**
+	 * Default constructor.
+	 */
+	public CacheRegionDTO() {
+	}
+
+	/**
+	 * Constructs a new CacheRegionDTO with the specified details.
+	 *
+	 * @param regionName   the name of the cache region.
+	 * @param hitCount     the number of cache hits.
+	 * @param missCount    the number of cache misses.
+	 * @param putCount     the number of cache puts.
+	 * @param elementCount the number of entries currently held.
+	 */
+	public CacheRegionDTO(final String regionName, final long hitCount, final long missCount, final long putCount,
+			final long elementCount) {
+		this.regionName = regionName;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.putCount = putCount;
+		this.elementCount = elementCount;
+	}
+
+	public String getRegionName() {
+		return regionName;
+	}
+
+	public void setRegionName(final String regionName) {
+		this.regionName = regionName;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(final long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(final long missCount) {
+		this.missCount = missCount;
+	}
+
+	public long getPutCount() {
+		return putCount;
+	}
+
+	public void setPutCount(final long putCount) {
+		this.putCount = putCount;
+	}
+
+	public long getElementCount() {
+		return elementCount;
+	}
+
+	public void setElementCount(final long elementCount) {
+		this.elementCount = elementCount;
+	}
+
+}
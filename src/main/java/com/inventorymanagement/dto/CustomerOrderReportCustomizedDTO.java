@@ -22,6 +22,21 @@ public class CustomerOrderReportCustomizedDTO implements Serializable {
 
 	Float amountPaid;
 
+	public CustomerOrderReportCustomizedDTO() {
+		// No-argument constructor
+	}
+
+	public CustomerOrderReportCustomizedDTO(Integer customerId, String userName, Integer productId,
+			String productName, Float price, Integer orderedQuantity, Float amountPaid) {
+		this.customerId = customerId;
+		this.userName = userName;
+		this.productId = productId;
+		this.productName = productName;
+		this.price = price;
+		this.orderedQuantity = orderedQuantity;
+		this.amountPaid = amountPaid;
+	}
+
 	public Integer getCustomerId() {
 		return customerId;
 	}
@@ -58,6 +58,34 @@ public class OrderDetailsDTO implements Serializable {
 	 */
 	private String productName;
 
+	/**
+	 * Default constructor.
+	 */
+	public OrderDetailsDTO() {
+		// No-argument constructor
+	}
+
+	/**
+	 * Parameterized constructor to initialize all fields. Used by projection
+	 * queries that select order details straight into DTOs.
+	 *
+	 * @param orderId         the unique identifier of the order.
+	 * @param orderedQuantity the quantity ordered.
+	 * @param orderedDate     the date the order was placed.
+	 * @param deliveryDate    the date the order is delivered.
+	 * @param productId       the ID of the product ordered.
+	 * @param productName     the name of the product ordered.
+	 */
+	public OrderDetailsDTO(final int orderId, final int orderedQuantity, final Date orderedDate,
+			final Date deliveryDate, final Integer productId, final String productName) {
+		this.orderId = orderId;
+		this.orderedQuantity = orderedQuantity;
+		this.orderedDate = orderedDate;
+		this.deliveryDate = deliveryDate;
+		this.productId = productId;
+		this.productName = productName;
+	}
+
 	/**
 	 * Gets the name of the product associated with the order.
 	 *
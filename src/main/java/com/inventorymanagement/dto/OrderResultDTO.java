@@ -0,0 +1,123 @@
+package com.inventorymanagement.dto;
+
+import java.io.Serializable;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of one line of a batch order
+ * request. Results are returned in the same order as the request lines.
+ */
+public class OrderResultDTO implements Serializable {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Outcome of an order line.
+	 */
+	public enum Status {
+		/** The order was created. */
+		SUCCESS,
+		/** The product has no stock left. */
+		OUT_OF_STOCK,
+		/** The product has some stock, but less than requested. */
+		INSUFFICIENT_STOCK,
+		/** The product does not exist. */
+		NOT_FOUND
+	}
+
+	/**
+	 * The outcome of the order line.
+	 */
+	private Status status;
+
+	/**
+	 * A human readable explanation when the order line was rejected.
+	 */
+	private String message;
+
+	/**
+	 * The created order, present only when the status is SUCCESS.
+	 */
+	private OrderDetailsDTO order;
+
+	/**
+	 * Default constructor.
+	 */
+	public OrderResultDTO() {
+	}
+
+	/**
+	 * Constructs a new OrderResultDTO with the specified details.
+	 *
+	 * @param status  the outcome of the order line.
+	 * @param message the explanation, or null on success.
+	 * @param order   the created order, or null on failure.
+	 */
+	public OrderResultDTO(final Status status, final String message, final OrderDetailsDTO order) {
+		this.status = status;
+		this.message = message;
+		this.order = order;
+	}
+
+	/**
+	 * Gets the outcome of the order line.
+	 *
+	 * @return the status.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Sets the outcome of the order line.
+	 *
+	 * @param status the status.
+	 */
+	public void setStatus(final Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * Gets the explanation when the order line was rejected.
+	 *
+	 * @return the message.
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Sets the explanation when the order line was rejected.
+	 *
+	 * @param message the message.
+	 */
+	public void setMessage(final String message) {
+		this.message = message;
+	}
+
+	/**
+	 * Gets the created order.
+	 *
+	 * @return the created order, or null on failure.
+	 */
+	public OrderDetailsDTO getOrder() {
+		return order;
+	}
+
+	/**
+	 * Sets the created order.
+	 *
+	 * @param order the created order.
+	 */
+	public void setOrder(final OrderDetailsDTO order) {
+		this.order = order;
+	}
+
+	@Override
+	public String toString() {
+		return "OrderResultDTO [status=" + status + ", message=" + message + ", order=" + order + "]";
+	}
+
+}
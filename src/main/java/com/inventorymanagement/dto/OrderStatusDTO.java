@@ -0,0 +1,149 @@
+package com.inventorymanagement.dto;
+
+import java.io.Serializable;
+
+/**
+ * Data Transfer Object (DTO) for the progress of an order accepted
+ * asynchronously. The token is returned when the order is queued and is used
+ * to poll for the outcome.
+ */
+public class OrderStatusDTO implements Serializable {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Progress of an asynchronously accepted order.
+	 */
+	public enum Status {
+		/** The order is queued and has not been processed yet. */
+		PENDING,
+		/** The order was created. */
+		ACCEPTED,
+		/** The order was rejected; the message tells why. */
+		REJECTED
+	}
+
+	/**
+	 * The token identifying the queued order.
+	 */
+	private String token;
+
+	/**
+	 * The progress of the order.
+	 */
+	private Status status;
+
+	/**
+	 * A human readable explanation when the order was rejected.
+	 */
+	private String message;
+
+	/**
+	 * The created order, present only when the status is ACCEPTED.
+	 */
+	private OrderDetailsDTO order;
+
+	/**
+	 * Default constructor.
+	 */
+	public OrderStatusDTO() {
+	}
+
+	/**
+	 * Constructs a new OrderStatusDTO with the specified details.
+	 *
+	 * @param token   the token identifying the queued order.
+	 * @param status  the progress of the order.
+	 * @param message the explanation, or null unless rejected.
+	 * @param order   the created order, or null unless accepted.
+	 */
+	public OrderStatusDTO(final String token, final Status status, final String message,
+			final OrderDetailsDTO order) {
+		this.token = token;
+		this.status = status;
+		this.message = message;
+		this.order = order;
+	}
+
+	/**
+	 * Gets the token identifying the queued order.
+	 *
+	 * @return the token.
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Sets the token identifying the queued order.
+	 *
+	 * @param token the token.
+	 */
+	public void setToken(final String token) {
+		this.token = token;
+	}
+
+	/**
+	 * Gets the progress of the order.
+	 *
+	 * @return the status.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Sets the progress of the order.
+	 *
+	 * @param status the status.
+	 */
+	public void setStatus(final Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * Gets the explanation when the order was rejected.
+	 *
+	 * @return the message.
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Sets the explanation when the order was rejected.
+	 *
+	 * @param message the message.
+	 */
+	public void setMessage(final String message) {
+		this.message = message;
+	}
+
+	/**
+	 * Gets the created order.
+	 *
+	 * @return the created order, or null unless accepted.
+	 */
+	public OrderDetailsDTO getOrder() {
+		return order;
+	}
+
+	/**
+	 * Sets the created order.
+	 *
+	 * @param order the created order.
+	 */
+	public void setOrder(final OrderDetailsDTO order) {
+		this.order = order;
+	}
+
+	@Override
+	public String toString() {
+		return "OrderStatusDTO [token=" + token + ", status=" + status + ", message=" + message + ", order=" + order
+				+ "]";
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.inventorymanagement.dto;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Data Transfer Object (DTO) for a stock reservation. This class is used to
+ * transfer reservation information.
+ */
+public class ReservationDTO implements Serializable {
+
+	/**
+	 * Serial Version UID for serialization
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Unique identifier for the reservation, used to confirm or release it.
+	 */
+	private String reservationId;
+
+	/**
+	 * The ID of the product being held.
+	 */
+	private int productId;
+
+	/**
+	 * The quantity being held.
+	 */
+	private int quantity;
+
+	/**
+	 * The time at which the hold expires unless it is confirmed.
+	 */
+	private Date expiresAt;
+
+	/**
+	 * Gets the unique identifier for the reservation.
+	 *
+	 * @return the reservation ID.
+	 */
+	public String getReservationId() {
+		return reservationId;
+	}
+
+	/**
+	 * Sets the unique identifier for the reservation.
+	 *
+	 * @param reservationId the reservation ID.
+	 */
+	public void setReservationId(final String reservationId) {
+		this.reservationId = reservationId;
+	}
+
+	/**
+	 * Gets the ID of the product being held.
+	 *
+	 * @return the product ID.
+	 */
+	public int getProductId() {
+		return productId;
+	}
+
+	/**
+	 * Sets the ID of the product being held.
+	 *
+	 * @param productId the product ID.
+	 */
+	public void setProductId(final int productId) {
+		this.productId = productId;
+	}
+
+	/**
+	 * Gets the quantity being held.
+	 *
+	 * @return the quantity.
+	 */
+	public int getQuantity() {
+		return quantity;
+	}
+
+	/**
+	 * Sets the quantity being held.
+	 *
+	 * @param quantity the quantity.
+	 */
+	public void setQuantity(final int quantity) {
+		this.quantity = quantity;
+	}
+
+	/**
+	 * Gets the time at which the hold expires.
+	 *
+	 * @return the expiry time.
+	 */
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * Sets the time at which the hold expires.
+	 *
+	 * @param expiresAt the expiry time.
+	 */
+	public void setExpiresAt(final Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ReservationDTO [reservationId=" + reservationId + ", productId=" + productId + ", quantity="
+				+ quantity + ", expiresAt=" + expiresAt + "]";
+	}
+
+}
@@ -28,6 +28,25 @@ public class SalesReportDTO implements Serializable {
 
 	Float amountPaid;
 
+	public SalesReportDTO() {
+		// No-argument constructor
+	}
+
+	public SalesReportDTO(Integer productId, String productName, String brand, String category,
+			Integer stockAvailable, Float price, Integer customerId, Integer orderId, Integer orderedQuantity,
+			Float amountPaid) {
+		this.productId = productId;
+		this.productName = productName;
+		this.brand = brand;
+		this.category = category;
+		this.stockAvailable = stockAvailable;
+		this.price = price;
+		this.customerId = customerId;
+		this.orderId = orderId;
+		this.orderedQuantity = orderedQuantity;
+		this.amountPaid = amountPaid;
+	}
+
 	public Integer getProductId() {
 		return productId;
 	}
@@ -0,0 +1,149 @@
+package com.inventorymanagement.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+/**
+ * Entity representing a change to cached data, written in the same transaction
+ * as the change itself. Every node tails the table by ID and drops its own
+ * cached copies of the changed rows, so caches stay coherent across nodes
+ * without a message broker.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_cache_change_changed", columnList = "ChangedDate"))
+public class CacheChange {
+
+	/**
+	 * The kinds of data a change can touch.
+	 */
+	public enum Kind {
+		/** A product was created or its details were saved. */
+		PRODUCT,
+		/** The stock of a product changed. */
+		STOCK,
+		/** A brand was created. */
+		BRAND,
+		/** A category was created. */
+		CATEGORY
+	}
+
+	/**
+	 * The unique, increasing identifier of the change. This field is mapped to
+	 * the 'ChangeId' column in the database.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "ChangeId")
+	/* default */long changeId;
+
+	/**
+	 * The kind of data that changed. This field is mapped to the 'Kind' column in
+	 * the database.
+	 */
+	@Enumerated(EnumType.STRING)
+	@Column(name = "Kind", nullable = false, length = 16)
+	/* default */Kind kind;
+
+	/**
+	 * The ID of the changed product, brand or category. This field is mapped to
+	 * the 'EntityId' column in the database.
+	 */
+	@Column(name = "EntityId", nullable = false)
+	/* default */int entityId;
+
+	/**
+	 * The node that made the change, which has already updated its own caches.
+	 * This field is mapped to the 'Origin' column in the database.
+	 */
+	@Column(name = "Origin", nullable = false, length = 36)
+	/* default */String origin;
+
+	/**
+	 * The time the change was made. Used to measure invalidation lag and to
+	 * expire old rows.
+	 */
+	@Column(name = "ChangedDate", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	/* default */Date changedDate;
+
+	/**
+	 * Default constructor for JPA.
+	 */
+	public CacheChange() {
+	}
+
+	/**
+	 * Constructs a new CacheChange with the specified details.
+	 * 
+	 * @param kind        the kind of data that changed
+	 * @param entityId    the ID of the changed row
+	 * @param origin      the node that made the change
+	 * @param changedDate the time of the change
+	 */
+	public CacheChange(final Kind kind, final int entityId, final String origin, final Date changedDate) {
+		this.kind = kind;
+		this.entityId = entityId;
+		this.origin = origin;
+		this.changedDate = changedDate;
+	}
+
+	// Getters and Setters
+
+	public long getChangeId() {
+		return changeId;
+	}
+
+	public void setChangeId(final long changeId) {
+		this.changeId = changeId;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public void setKind(final Kind kind) {
+		this.kind = kind;
+	}
+
+	public int getEntityId() {
+		return entityId;
+	}
+
+	public void setEntityId(final int entityId) {
+		this.entityId = entityId;
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public void setOrigin(final String origin) {
+		this.origin = origin;
+	}
+
+	public Date getChangedDate() {
+		return changedDate;
+	}
+
+	public void setChangedDate(final Date changedDate) {
+		this.changedDate = changedDate;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheChange [changeId=" + changeId + ", kind=" + kind + ", entityId=" + entityId + ", origin="
+				+ origin + ", changedDate=" + changedDate + "]";
+	}
+
+}
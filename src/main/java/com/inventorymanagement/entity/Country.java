@@ -2,8 +2,11 @@ package com.inventorymanagement.entity;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -20,6 +23,8 @@ import jakarta.validation.constraints.NotBlank;
  * 'Country' table in the database.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 public class Country {
 
@@ -40,7 +45,7 @@ public class Country {
 	@Column(name = "CountryName", unique = true)
 	/* default */String countryName;
 
-	@OneToMany(mappedBy = "country", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "country", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private List<Customer> customers;
 
 	public Integer getCountryId() {
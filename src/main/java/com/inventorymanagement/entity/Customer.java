@@ -60,19 +60,19 @@ public class Customer {
 	@Column(unique = true)
 	/* default */String email;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "city_id", nullable = false, referencedColumnName = "cityId")
 	private City city;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "state_id", nullable = false, referencedColumnName = "stateId")
 	private State state;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "country_id", nullable = false, referencedColumnName = "countryId")
 	private Country country;
 
-	@OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private List<CustomerOrderDetails> customerOrders;
 
 	/**
@@ -0,0 +1,130 @@
+package com.inventorymanagement.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
+/**
+ * Entity representing the stored response of a request sent with an
+ * 'Idempotency-Key' header. A retried request with the same key gets this
+ * response back instead of being executed again.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_created", columnList = "CreatedDate"))
+public class IdempotencyRecord {
+
+	/**
+	 * The request path followed by the client supplied key. This field is mapped
+	 * to the 'RequestKey' column in the database.
+	 */
+	@Id
+	@Column(name = "RequestKey", length = 160)
+	/* default */String requestKey;
+
+	/**
+	 * The HTTP status returned for the original request, 200 or 202. Null for
+	 * records stored before the status was kept, which are replayed as 200.
+	 */
+	@Column(name = "Status")
+	/* default */Integer status;
+
+	/**
+	 * Hex SHA-256 of the original request body. A retry with the same key and a
+	 * different body is refused.
+	 */
+	@Column(name = "RequestHash", length = 64)
+	/* default */String requestHash;
+
+	/**
+	 * The JSON response body returned for the original request.
+	 */
+	@Lob
+	@Column(name = "Response", nullable = false)
+	/* default */byte[] response;
+
+	/**
+	 * The time the original request completed. Used to expire old records.
+	 */
+	@Column(name = "CreatedDate", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	/* default */Date createdDate;
+
+	/**
+	 * Default constructor for JPA.
+	 */
+	public IdempotencyRecord() {
+	}
+
+	/**
+	 * Constructs a new IdempotencyRecord with the specified details.
+	 * 
+	 * @param requestKey  the request path and key
+	 * @param requestHash the hex SHA-256 of the request body
+	 * @param status      the HTTP status of the response
+	 * @param response    the JSON response body
+	 * @param createdDate the time the request completed
+	 */
+	public IdempotencyRecord(final String requestKey, final String requestHash, final int status,
+			final byte[] response, final Date createdDate) {
+		this.requestKey = requestKey;
+		this.requestHash = requestHash;
+		this.status = status;
+		this.response = response;
+		this.createdDate = createdDate;
+	}
+
+	// Getters and Setters
+
+	public String getRequestKey() {
+		return requestKey;
+	}
+
+	public void setRequestKey(final String requestKey) {
+		this.requestKey = requestKey;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(final Integer status) {
+		this.status = status;
+	}
+
+	public String getRequestHash() {
+		return requestHash;
+	}
+
+	public void setRequestHash(final String requestHash) {
+		this.requestHash = requestHash;
+	}
+
+	public byte[] getResponse() {
+		return response;
+	}
+
+	public void setResponse(final byte[] response) {
+		this.response = response;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(final Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	@Override
+	public String toString() {
+		return "IdempotencyRecord [requestKey=" + requestKey + ", status=" + status + ", createdDate=" + createdDate + "]";
+	}
+
+}
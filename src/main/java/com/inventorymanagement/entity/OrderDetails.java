@@ -7,17 +7,18 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.inventorymanagement.dao.OrderDetailsListener;
+import com.inventorymanagement.dao.OrderIdGenerator.OrderId;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -30,13 +31,34 @@ import jakarta.validation.constraints.NotNull;
  */
 @Entity
 @EntityListeners({ AuditingEntityListener.class, OrderDetailsListener.class })
+@NamedEntityGraph(name = OrderDetails.DETAIL_GRAPH, attributeNodes = { @NamedAttributeNode("product"),
+		@NamedAttributeNode("customerOrder") })
 public class OrderDetails {
+	/**
+	 * Name of the row in the 'id_generator' table that hands out order IDs.
+	 */
+	public static final String ID_GENERATOR = "OrderDetails";
+
+	/**
+	 * Number of order IDs reserved per round trip to the generator table.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 50;
+
+	/**
+	 * Fetch plan for showing an order: the order with its product. The customer
+	 * order link is joined as well because Hibernate loads the inverse side of a
+	 * one-to-one with a select per order unless it is fetched in the query.
+	 */
+	public static final String DETAIL_GRAPH = "OrderDetails.detail";
+
 	/**
 	 * The unique identifier for the order. This field is mapped to the 'OrderId'
-	 * column in the database.
+	 * column in the database. IDs come in blocks from the 'id_generator' table,
+	 * one block per shard, rather than from an IDENTITY column, which would force
+	 * Hibernate to insert rows one at a time.
 	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@OrderId
 	@Column(name = "OrderId")
 	/* default */int orderId;
 
@@ -73,15 +95,15 @@ public class OrderDetails {
 	 * 'ProductId' column in the database, referencing the 'productId' column in the
 	 * Product entity. The `@ManyToOne` annotation indicates that this is a
 	 * many-to-one relationship, where each order detail is associated with one
-	 * product. The `fetch = FetchType.EAGER` indicates that the associated product
-	 * should be loaded eagerly.
+	 * product. It is loaded lazily; queries that show the product fetch it
+	 * through {@link #DETAIL_GRAPH}.
 	 */
 	@JsonBackReference
-	@ManyToOne(fetch = FetchType.EAGER)
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "ProductId", nullable = false, referencedColumnName = "productId")
 	/* default */Product product;
 
-	@OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private CustomerOrderDetails customerOrder;
 
 	public CustomerOrderDetails getCustomerOrder() {
@@ -44,7 +44,7 @@ public class PaymentDetails {
 	@Column(name = "PaymentAmount")
 	/* default */float paymentAmount;
 
-	@OneToOne(mappedBy = "payment", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToOne(mappedBy = "payment", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private CustomerOrderDetails customerOrder;
 
 	public Integer getPaymentId() {
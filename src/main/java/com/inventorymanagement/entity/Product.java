@@ -16,9 +16,12 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.NamedQueries;
 import jakarta.persistence.NamedQuery;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -33,8 +36,16 @@ import jakarta.validation.constraints.Size;
 @EntityListeners(AuditingEntityListener.class)
 @NamedQueries({
 		@NamedQuery(name = "Product.findAllProductsByNameDescending", query = "select p from Product p ORDER BY p.productName DESC") })
+@NamedEntityGraph(name = Product.DETAIL_GRAPH, attributeNodes = { @NamedAttributeNode("brand"),
+		@NamedAttributeNode("category") })
 public class Product {
 
+	/**
+	 * Fetch plan for showing a product: the product with its brand and category,
+	 * but not its orders.
+	 */
+	public static final String DETAIL_GRAPH = "Product.detail";
+
 	/**
 	 * The unique identifier for the product. This field is mapped to the
 	 * 'ProductId' column in the database.
@@ -78,6 +89,15 @@ public class Product {
 	@Column(unique = true)
 	/* default */String barcode;
 
+	/**
+	 * Version used for optimistic locking. Incremented on every update, so a
+	 * write based on a stale copy of the product fails instead of silently
+	 * overwriting a concurrent change to the stock.
+	 */
+	@Version
+	@Column(name = "Version", nullable = false, columnDefinition = "bigint default 0")
+	/* default */long version;
+
 	/**
 	 * The brand associated with the product. This field is mapped to the 'brand_id'
 	 * column in the database, referencing the 'brandId' column in the Brand entity.
@@ -97,10 +117,11 @@ public class Product {
 
 	/**
 	 * The list of order details associated with the product. This field is mapped
-	 * by the 'product' property in the OrderDetails entity.
+	 * by the 'product' property in the OrderDetails entity and loaded only when
+	 * used.
 	 */
 	@JsonManagedReference
-	@OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, mappedBy = "product")
+	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "product")
 	private List<OrderDetails> orderDetails;
 
 	/**
@@ -197,6 +218,24 @@ public class Product {
 		this.productId = productId;
 	}
 
+	/**
+	 * Gets the optimistic locking version of the product.
+	 * 
+	 * @return the version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Sets the optimistic locking version of the product.
+	 * 
+	 * @param version the version to be set
+	 */
+	public void setVersion(final long version) {
+		this.version = version;
+	}
+
 	/**
 	 * Gets the name of the product.
 	 * 
@@ -0,0 +1,89 @@
+package com.inventorymanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Entity representing a pending stock change recorded by the in-memory stock
+ * engine. Rows are written in the same transaction as the order that caused
+ * them and removed once folded into the 'Product' table, so any row left after
+ * a crash is a change the Product table has not seen yet.
+ */
+@Entity
+public class StockDelta {
+
+	/**
+	 * The unique identifier for the stock change. This field is mapped to the
+	 * 'DeltaId' column in the database.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "DeltaId")
+	/* default */long deltaId;
+
+	/**
+	 * The ID of the product whose stock changed. This field is mapped to the
+	 * 'ProductId' column in the database.
+	 */
+	@Column(name = "ProductId", nullable = false)
+	/* default */int productId;
+
+	/**
+	 * The signed change in stock, negative for deductions. This field is mapped to
+	 * the 'Delta' column in the database.
+	 */
+	@Column(name = "Delta", nullable = false)
+	/* default */int delta;
+
+	/**
+	 * Default constructor for JPA.
+	 */
+	public StockDelta() {
+	}
+
+	/**
+	 * Constructs a new StockDelta with the specified details.
+	 * 
+	 * @param productId the ID of the product
+	 * @param delta     the signed change in stock
+	 */
+	public StockDelta(final int productId, final int delta) {
+		this.productId = productId;
+		this.delta = delta;
+	}
+
+	// Getters and Setters
+
+	public long getDeltaId() {
+		return deltaId;
+	}
+
+	public void setDeltaId(final long deltaId) {
+		this.deltaId = deltaId;
+	}
+
+	public int getProductId() {
+		return productId;
+	}
+
+	public void setProductId(final int productId) {
+		this.productId = productId;
+	}
+
+	public int getDelta() {
+		return delta;
+	}
+
+	public void setDelta(final int delta) {
+		this.delta = delta;
+	}
+
+	@Override
+	public String toString() {
+		return "StockDelta [deltaId=" + deltaId + ", productId=" + productId + ", delta=" + delta + "]";
+	}
+
+}
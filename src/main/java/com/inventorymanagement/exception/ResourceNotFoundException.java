@@ -63,4 +63,16 @@ public class ResourceNotFoundException extends Exception {
 		// TODO Auto-generated constructor stub
 	}
 
+	/**
+	 * Creates an exception for an expected miss, such as an unknown ID in a
+	 * lookup. No stack trace is captured: it never helps explain a missing row
+	 * and filling it in costs more than the lookup itself.
+	 * 
+	 * @param message The detail message.
+	 * @return The exception.
+	 */
+	public static ResourceNotFoundException notFound(final String message) {
+		return new ResourceNotFoundException(message, null, false, false);
+	}
+
 }
@@ -0,0 +1,274 @@
+package com.inventorymanagement.rest;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.inventorymanagement.entity.IdempotencyRecord;
+import com.inventorymanagement.service.IdempotencyStore;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter that makes the create endpoints safe to retry. A request that
+ * carries an 'Idempotency-Key' header is executed once; a retry with the same
+ * key is answered with the stored status and body before it reaches the
+ * controller, so no stock is deducted and nothing is inserted a second time. A
+ * key reused with a different request body is refused with 422.
+ * <p>
+ * The guarantee is best-effort: a request in progress is only known to the
+ * node running it, so a retry sent to another node at the same time runs too,
+ * and a response the {@link IdempotencyStore} fails to persist is only
+ * replayed by this node while it stays in memory.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * IdempotencyFilter class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+	/**
+	 * Name of the request header carrying the client supplied key.
+	 */
+	public static final String HEADER = "Idempotency-Key";
+
+	/**
+	 * Name of the response header set on replayed responses.
+	 */
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	/**
+	 * Longest key accepted from a client.
+	 */
+	private static final int MAX_KEY_LENGTH = 64;
+
+	/**
+	 * Endpoints that honour the header.
+	 */
+	private static final Set<String> PATHS = Set.of("/createOrderDetails", "/createOrderDetailsBatch",
+			"/createProduct");
+
+	/**
+	 * Store holding the responses of completed requests.
+	 */
+	private final IdempotencyStore store;
+
+	/**
+	 * Constructor for IdempotencyFilter.
+	 *
+	 * @param store the idempotency store to be injected.
+	 */
+	public IdempotencyFilter(final IdempotencyStore store) {
+		super();
+		this.store = store;
+	}
+
+	/**
+	 * Skips requests that are not a POST to one of the create endpoints or that
+	 * carry no key.
+	 */
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return !HttpMethod.POST.matches(request.getMethod()) || !PATHS.contains(request.getServletPath())
+				|| request.getHeader(HEADER) == null;
+	}
+
+	/**
+	 * Replays a stored response, or executes the request and stores its response
+	 * if it succeeded.
+	 */
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain chain) throws ServletException, IOException {
+		final String key = request.getHeader(HEADER).trim();
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			response.sendError(HttpStatus.BAD_REQUEST.value(),
+					HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+			return;
+		}
+		final String requestKey = request.getServletPath() + ':' + key;
+
+		final BufferedRequest buffered = new BufferedRequest(request);
+		final String requestHash = sha256(buffered.body);
+
+		if (answerStored(response, store.find(requestKey), requestHash)) {
+			return;
+		}
+		if (!store.begin(requestKey)) {
+			response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is in progress.");
+			return;
+		}
+		// The original request may have completed, and released its key, between
+		// the lookup and begin: look again before running the request a second time
+		final IdempotencyRecord completedMeanwhile = store.find(requestKey);
+		if (completedMeanwhile != null) {
+			store.abandon(requestKey);
+			answerStored(response, completedMeanwhile, requestHash);
+			return;
+		}
+
+		final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		boolean completed = false;
+		try {
+			chain.doFilter(buffered, wrapper);
+			if (HttpStatusCode.valueOf(wrapper.getStatus()).is2xxSuccessful()) {
+				store.complete(requestKey, requestHash, wrapper.getStatus(), wrapper.getContentAsByteArray());
+				completed = true;
+			}
+		} finally {
+			if (!completed) {
+				store.abandon(requestKey);
+			}
+			wrapper.copyBodyToResponse();
+		}
+	}
+
+	/**
+	 * Answers a request whose key already has a stored response: replays it, or
+	 * refuses the request if its body differs from the original one.
+	 *
+	 * @return false if there is no stored response.
+	 */
+	private boolean answerStored(final HttpServletResponse response, final IdempotencyRecord stored,
+			final String requestHash) throws IOException {
+		if (stored == null) {
+			return false;
+		}
+		if (stored.getRequestHash() != null && !stored.getRequestHash().equals(requestHash)) {
+			response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					"This " + HEADER + " was already used with a different request body.");
+		} else {
+			replay(response, stored);
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a stored response with its original status.
+	 */
+	private void replay(final HttpServletResponse response, final IdempotencyRecord stored) throws IOException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Replaying stored response for idempotency key");
+		}
+		final byte[] body = stored.getResponse();
+		response.setStatus(stored.getStatus() == null ? HttpStatus.OK.value() : stored.getStatus());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setHeader(REPLAYED_HEADER, "true");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	/**
+	 * Returns the hex SHA-256 of a request body.
+	 */
+	private static String sha256(final byte[] body) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Request whose body has been read up front so that it can be hashed and then
+	 * read again by the controller.
+	 */
+	private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+		/**
+		 * The request body.
+		 */
+		private final byte[] body;
+
+		/**
+		 * Reads the body of a request.
+		 */
+		private BufferedRequest(final HttpServletRequest request) throws IOException {
+			super(request);
+			this.body = request.getInputStream().readAllBytes();
+		}
+
+		/**
+		 * Returns a new stream over the buffered body.
+		 */
+		@Override
+		public ServletInputStream getInputStream() {
+			final ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+
+				@Override
+				public int read() {
+					return in.read();
+				}
+
+				@Override
+				public int read(final byte[] b, final int off, final int len) {
+					return in.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return in.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				/**
+				 * The whole body is already in memory, so the listener is told at once
+				 * that data is available and then that all of it has been read.
+				 */
+				@Override
+				public void setReadListener(final ReadListener listener) {
+					try {
+						if (in.available() > 0) {
+							listener.onDataAvailable();
+						}
+						listener.onAllDataRead();
+					} catch (IOException e) {
+						listener.onError(e);
+					}
+				}
+			};
+		}
+
+		/**
+		 * Returns a reader over the buffered body in the request's encoding.
+		 */
+		@Override
+		public BufferedReader getReader() {
+			final String encoding = getCharacterEncoding();
+			final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.inventorymanagement.rest;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -11,6 +12,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,27 +22,30 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.inventorymanagement.bo.CatalogVersion;
+import com.inventorymanagement.bo.NotFoundCache;
 import com.inventorymanagement.bo.OrderDetailsBO;
 import com.inventorymanagement.bo.ProductBO;
-import com.inventorymanagement.dao.CategoryPriceCustomized;
+import com.inventorymanagement.bo.ReferenceDataCache;
+import com.inventorymanagement.bo.UniquenessIndex;
 import com.inventorymanagement.dao.CityRepository;
 import com.inventorymanagement.dao.CountryRepository;
-import com.inventorymanagement.dao.CustomerOrderReportCustomized;
 import com.inventorymanagement.dao.CustomerRepository;
 import com.inventorymanagement.dao.ProductBrandCustomized;
-import com.inventorymanagement.dao.ProductCategoryCustomized;
 import com.inventorymanagement.dao.ProductCustomized;
-import com.inventorymanagement.dao.ProductOrderCBCustomized;
 import com.inventorymanagement.dao.ProductOrderCustomized;
-import com.inventorymanagement.dao.SalesReportCustomized;
+import com.inventorymanagement.dao.ShardRouter;
 import com.inventorymanagement.dao.StateRepository;
-import com.inventorymanagement.dto.BrandDTO;
-import com.inventorymanagement.dto.CategoryDTO;
+import com.inventorymanagement.dto.CacheRegionDTO;
 import com.inventorymanagement.dto.CategoryPriceCustomizedDTO;
 import com.inventorymanagement.dto.CustomerDTO;
 import com.inventorymanagement.dto.CustomerOrderReportCustomizedDTO;
 import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.OrderResultDTO;
+import com.inventorymanagement.dto.OrderStatusDTO;
+import com.inventorymanagement.dto.ReservationDTO;
 import com.inventorymanagement.dto.ProductBrandCustomizedDTO;
 import com.inventorymanagement.dto.ProductCategoryCustomizedDTO;
 import com.inventorymanagement.dto.ProductDTO;
@@ -61,9 +68,14 @@ import com.inventorymanagement.exception.UserNotFoundException;
 import com.inventorymanagement.service.BrandService;
 import com.inventorymanagement.service.CategoryService;
 import com.inventorymanagement.service.CustomerService;
+import com.inventorymanagement.service.JsonSnapshot;
 import com.inventorymanagement.service.OrderDetailsService;
+import com.inventorymanagement.service.OrderPipeline;
 import com.inventorymanagement.service.ProductService;
+import com.inventorymanagement.service.ReportingService;
+import com.inventorymanagement.service.SalesReportWriter;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 
@@ -72,7 +84,8 @@ import jakarta.validation.Valid;
  * inventory operations.
  */
 
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = { KeysetPage.NEXT_CURSOR_HEADER, HttpHeaders.ETAG,
+		InventoryManagementService.CATALOG_DELTA_HEADER, IdempotencyFilter.REPLAYED_HEADER })
 @RestController
 @Validated
 public class InventoryManagementService {
@@ -85,6 +98,11 @@ public class InventoryManagementService {
 	 * Pattern to match alphabetic strings.
 	 */
 	private static final Pattern ALPHABET_PATTERN = Pattern.compile("^[a-zA-Z]+$");
+	/**
+	 * Response header set when /fetchProducts returns only the products changed
+	 * since the catalog version supplied by the client.
+	 */
+	public static final String CATALOG_DELTA_HEADER = "Catalog-Delta";
 
 	/**
 	 * Service for managing products.
@@ -121,6 +139,51 @@ public class InventoryManagementService {
 
 	private final CustomerRepository customerRepository;
 
+	/**
+	 * Single-writer order intake, used for orders when enabled.
+	 */
+	private final OrderPipeline orderPipeline;
+
+	/**
+	 * Router to the shard that owns a product.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Second-level cache of the reference data.
+	 */
+	private final ReferenceDataCache referenceDataCache;
+
+	/**
+	 * Catalog version used as the ETag of the product lists.
+	 */
+	private final CatalogVersion catalogVersion;
+
+	/**
+	 * Index answering the check endpoints for values that are not taken.
+	 */
+	private final UniquenessIndex uniquenessIndex;
+
+	/**
+	 * Cache of product and order IDs recently looked up and not found.
+	 */
+	private final NotFoundCache notFoundCache;
+
+	/**
+	 * Keyset pagination of the list endpoints.
+	 */
+	private final KeysetPage keysetPage;
+
+	/**
+	 * Writer of the streamed sales report.
+	 */
+	private final SalesReportWriter salesReportWriter;
+
+	/**
+	 * Service for the reports, read on the reporting pool.
+	 */
+	private final ReportingService reportingService;
+
 	/**
 	 * Constructor for InventoryManagement.
 	 * 
@@ -130,7 +193,11 @@ public class InventoryManagementService {
 			final CategoryService categoryService, final OrderDetailsService orderService, final ProductBO productBO,
 			final OrderDetailsBO orderDetailsBO, final CustomerService customerService,
 			final CityRepository cityRepository, final StateRepository stateRepository,
-			final CountryRepository countryRepository, final CustomerRepository customerRepository) {
+			final CountryRepository countryRepository, final CustomerRepository customerRepository,
+			final OrderPipeline orderPipeline, final ShardRouter shardRouter,
+			final ReferenceDataCache referenceDataCache, final CatalogVersion catalogVersion,
+			final UniquenessIndex uniquenessIndex, final NotFoundCache notFoundCache, final KeysetPage keysetPage,
+			final SalesReportWriter salesReportWriter, final ReportingService reportingService) {
 		this.productService = productService;
 		this.brandService = brandService;
 		this.categoryService = categoryService;
@@ -142,6 +209,15 @@ public class InventoryManagementService {
 		this.stateRepository = stateRepository;
 		this.countryRepository = countryRepository;
 		this.customerRepository = customerRepository;
+		this.orderPipeline = orderPipeline;
+		this.shardRouter = shardRouter;
+		this.referenceDataCache = referenceDataCache;
+		this.catalogVersion = catalogVersion;
+		this.uniquenessIndex = uniquenessIndex;
+		this.notFoundCache = notFoundCache;
+		this.keysetPage = keysetPage;
+		this.salesReportWriter = salesReportWriter;
+		this.reportingService = reportingService;
 	}
 
 //	Product APIs
@@ -178,15 +254,16 @@ public class InventoryManagementService {
 
 			final Product product = productService.mapToEntity(msg);
 
-			if (productService.existsByProductName(product.getProductName())) {
+			if (shardRouter.anyShard(() -> productService.existsByProductName(product.getProductName()))) {
 				throw new DuplicateEntryException("Product name already exists.");
 			}
 
-			if (productService.existsByBarcode(product.getBarCode())) {
+			if (shardRouter.anyShard(() -> productService.existsByBarcode(product.getBarCode()))) {
 				throw new DuplicateEntryException("Barcode already exists.");
 			}
 
-			final Product response = productService.insert(product);
+			final Product response = shardRouter.onShard(shardRouter.nextShard(),
+					() -> productService.insert(product));
 
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Product successfully created with ID: {}", response.getProductId());
@@ -225,19 +302,20 @@ public class InventoryManagementService {
 			}
 			throw new BadRequestException("Invalid product ID provided");
 		}
+		if (notFoundCache.isMissing(NotFoundCache.Kind.PRODUCT, productId)) {
+			throw ResourceNotFoundException.notFound("Product not found with ID: " + productId);
+		}
 		try {
-			final Product product = productService.findProduct(productId);
-			if (product == null) {
-				LOG.error("Product with ID {} not found", productId);
-				throw new ResourceNotFoundException("Product not found with ID: " + productId);
-			}
-
-			final ProductDTO dto = productService.mapToDTO(product);
+			final ProductDTO dto = shardRouter.onShardOf(productId, () -> productService.findProductDTO(productId));
 
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched product with ID: {}", productId);
 			}
 			return dto;
+		} catch (ResourceNotFoundException ex) {
+			// Logged once by the exception handler
+			notFoundCache.missed(NotFoundCache.Kind.PRODUCT, productId);
+			throw ex;
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error occurred while fetching product with ID: {}", productId, ex);
@@ -248,31 +326,56 @@ public class InventoryManagementService {
 	}
 
 	/**
-	 * Retrieves all the products
+	 * Retrieves the products, one page at a time
 	 * 
-	 * @return A list of Products from the database
+	 * @param since      ETag of a catalog the client already holds; if it is
+	 *                   still known, only the products changed since are returned
+	 * @param after      cursor of the previous page, or null for the first page
+	 * @param limit      page size, or null for the default
+	 * @param webRequest the request, checked against the catalog ETag
+	 * @return A page of Products from the database, or 304 if the client copy is
+	 *         current
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/fetchProducts", method = RequestMethod.GET)
-	public List<ProductDTO> fetchAllProducts() throws ResourceNotFoundException {
+	public ResponseEntity<List<ProductDTO>> fetchAllProducts(@RequestParam(required = false) final String since,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit,
+			final WebRequest webRequest) throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Fetch all products....");
 		}
 		try {
-			final List<Product> list = productService.findProducts();
+			final String etag = catalogVersion.etag();
+			if (webRequest.checkNotModified(etag)) {
+				return null;
+			}
+			final List<Integer> changed = since == null ? null : catalogVersion.changedSince(since);
+			if (changed != null) {
+				final List<ProductDTO> delta = changed.isEmpty() ? new ArrayList<>()
+						: shardRouter.scatter(() -> productService.findProducts(changed));
+				if (LOG.isInfoEnabled()) {
+					LOG.info("Returning {} products changed since {}", delta.size(), since);
+				}
+				return ResponseEntity.ok().eTag(etag).header(CATALOG_DELTA_HEADER, "true").body(delta);
+			}
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			final List<ProductDTO> listDTO = shardRouter
+					.scatter(() -> productService.findProducts(afterId, pageSize + 1));
 
-			if (list.isEmpty()) {
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found.");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
 
-			final List<ProductDTO> listDTO = list.stream().map(productService::mapToDTO).collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched all products.");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok().eTag(etag), listDTO, pageSize,
+					dto -> new int[] { dto.getProductId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -299,46 +402,50 @@ public class InventoryManagementService {
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Updating Product API called...");
 			}
-			final Product existingProduct;
-			try {
-				existingProduct = productService.findProduct(msg.getProductId());
-			} catch (ResourceNotFoundException ex) {
-				if (LOG.isErrorEnabled()) {
-					LOG.error("Product ID not found: {}", msg.getProductId());
+			// Re-read and re-apply the update if an order changed the stock meanwhile
+			final Product updatedProduct = productBO.retryOnConflict(msg.getProductId(), () -> {
+				final Product existingProduct;
+				try {
+					existingProduct = productService.findProduct(msg.getProductId());
+				} catch (ResourceNotFoundException ex) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Product ID not found: {}", msg.getProductId());
+					}
+					throw new ResourceNotFoundException("Product ID not found: " + msg.getProductId());
 				}
-				throw new ResourceNotFoundException("Product ID not found: " + msg.getProductId());
-			}
-			final Brand brandResponse;
-			try {
-				brandResponse = brandService.findBrand(msg.getBrandId());
-			} catch (NoSuchElementException ex) {
-				if (LOG.isErrorEnabled()) {
-					LOG.error("Brand Id Not Found for ID: {}", msg.getBrandId());
+				final Brand brandResponse;
+				try {
+					brandResponse = brandService.findBrand(msg.getBrandId());
+				} catch (NoSuchElementException ex) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Brand Id Not Found for ID: {}", msg.getBrandId());
+					}
+					throw new ResourceNotFoundException("Brand Id Not Found.");
 				}
-				throw new ResourceNotFoundException("Brand Id Not Found.");
-			}
-			final Category categoryResponse;
-			try {
-				categoryResponse = categoryService.findCategory(msg.getCategoryId());
-			} catch (NoSuchElementException ex) {
-				if (LOG.isErrorEnabled()) {
-					LOG.error("Category Id Not Found for ID: {}", msg.getCategoryId());
+				final Category categoryResponse;
+				try {
+					categoryResponse = categoryService.findCategory(msg.getCategoryId());
+				} catch (NoSuchElementException ex) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Category Id Not Found for ID: {}", msg.getCategoryId());
+					}
+					throw new ResourceNotFoundException("Category Id Not Found.");
 				}
-				throw new ResourceNotFoundException("Category Id Not Found.");
-			}
-
-			existingProduct.setProductName(msg.getProductName());
-			existingProduct.setStockAvailable(msg.getStockAvailable());
-			existingProduct.setPrice(msg.getPrice());
-			existingProduct.setBarCode(msg.getBarcode());
-			existingProduct.setBrand(brandResponse);
-			existingProduct.setCategory(categoryResponse);
-			final Product updatedProduct = productService.insert(existingProduct);
 
-			// Set the brand and category IDs in the response DTO
-			msg.setBrandId(brandResponse.getBrandId());
-			msg.setCategoryId(categoryResponse.getCategoryId());
-			productBO.adjustStock(existingProduct, existingProduct.getStockAvailable(), msg.getStockAvailable());
+				existingProduct.setProductName(msg.getProductName());
+				existingProduct.setStockAvailable(msg.getStockAvailable());
+				existingProduct.setPrice(msg.getPrice());
+				existingProduct.setBarCode(msg.getBarcode());
+				existingProduct.setBrand(brandResponse);
+				existingProduct.setCategory(categoryResponse);
+				final Product saved = productService.update(existingProduct);
+
+				// Set the brand and category IDs in the response DTO
+				msg.setBrandId(brandResponse.getBrandId());
+				msg.setCategoryId(categoryResponse.getCategoryId());
+				productBO.adjustStock(existingProduct, existingProduct.getStockAvailable(), msg.getStockAvailable());
+				return saved;
+			});
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Product successfully updated with ID: {}", msg.getProductId());
 			}
@@ -362,33 +469,31 @@ public class InventoryManagementService {
 	 * Retrieves product order details by joining columns from product,
 	 * orderDetails, brand, and category tables.
 	 * 
-	 * @return A list of BrandDTO containing the brands
+	 * @param webRequest the request, checked against the snapshot ETag
+	 * @return The JSON list of brands, or 304 if the client copy is current
 	 * @throws ResourceNotFoundException If no brands are found.
 	 */
 	@RequestMapping(value = "/fetchBrands", method = RequestMethod.GET)
-	public List<BrandDTO> fetchAllBrands() throws ResourceNotFoundException {
+	public ResponseEntity<byte[]> fetchAllBrands(final WebRequest webRequest) throws ResourceNotFoundException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Received request to fetch all brands...");
 		}
 		try {
-			final List<Brand> list = brandService.findBrands();
-			if (list.isEmpty()) {
+			final JsonSnapshot snapshot = brandService.brandSnapshot();
+			if (snapshot.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No brands found.");
 				}
 				throw new ResourceNotFoundException("No brands found.");
 			}
-			final List<BrandDTO> listDTO = new ArrayList<>();
-			for (final Brand p : list) {
-				final BrandDTO dto = new BrandDTO();
-				dto.setBrandId(p.getBrandId());
-				dto.setBrandName(p.getBrandName());
-				listDTO.add(dto);
+			if (webRequest.checkNotModified(snapshot.getEtag())) {
+				return null;
 			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched brand details..");
 			}
-			return listDTO;
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(snapshot.getEtag())
+					.body(snapshot.getBody());
 
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
@@ -407,34 +512,32 @@ public class InventoryManagementService {
 	/**
 	 * Retrieves all category from database
 	 * 
-	 * @return A list of CategoryDTO containing the combined data.
+	 * @param webRequest the request, checked against the snapshot ETag
+	 * @return The JSON list of categories, or 304 if the client copy is current
 	 * @throws ResourceNotFoundException If no products are found.
 	 */
 //  Fetch all - Categories
 	@RequestMapping(value = "/fetchCategories", method = RequestMethod.GET)
-	public List<CategoryDTO> fetchAllCategory() throws ResourceNotFoundException {
+	public ResponseEntity<byte[]> fetchAllCategory(final WebRequest webRequest) throws ResourceNotFoundException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Received request to fetch all categories...");
 		}
 		try {
-			final List<Category> list = categoryService.findCategories();
-			if (list.isEmpty()) {
+			final JsonSnapshot snapshot = categoryService.categorySnapshot();
+			if (snapshot.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No categories found.");
 				}
 				throw new ResourceNotFoundException("No cetgories found.");
 			}
-			final List<CategoryDTO> listDTO = new ArrayList<>();
-			for (final Category p : list) {
-				final CategoryDTO dto = new CategoryDTO();
-				dto.setCategoryId(p.getCategoryId());
-				dto.setCategoryName(p.getCategoryName());
-				listDTO.add(dto);
+			if (webRequest.checkNotModified(snapshot.getEtag())) {
+				return null;
 			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched categories..");
 			}
-			return listDTO;
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(snapshot.getEtag())
+					.body(snapshot.getBody());
 
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
@@ -450,15 +553,30 @@ public class InventoryManagementService {
 
 	}
 
+	/**
+	 * Reports the second-level cache regions holding the reference data
+	 * 
+	 * @return Hit, miss and put counts per cache region
+	 */
+	@RequestMapping(value = "/cacheStatistics", method = RequestMethod.GET)
+	public List<CacheRegionDTO> cacheStatistics() {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Fetching second-level cache statistics...");
+		}
+		return referenceDataCache.regionStatistics();
+	}
+
 //  Order Details API
 	/**
 	 * Creates order details
 	 * 
-	 * @return The order detail created
+	 * @return The order detail created, or 202 with an order token when orders
+	 *         are accepted asynchronously (single node, not durable: see
+	 *         OrderPipeline)
 	 * 
 	 */
 	@RequestMapping(value = "/createOrderDetails", method = RequestMethod.POST)
-	public OrderDetailsDTO createOrderDetails(@Valid @RequestBody final OrderDetailsDTO msg)
+	public ResponseEntity<?> createOrderDetails(@Valid @RequestBody final OrderDetailsDTO msg)
 			throws ResourceNotFoundException {
 		try {
 			if (LOG.isInfoEnabled()) {
@@ -479,20 +597,30 @@ public class InventoryManagementService {
 //				}
 //			}
 
-			final Product productResponse = productService.findProduct(msg.getProductId());
-			if (productResponse == null) {
-				throw new ResourceNotFoundException("Product not found with ID: " + msg.getProductId());
+			if (orderPipeline.isAsync()) {
+				final OrderStatusDTO pending = orderPipeline.accept(msg);
+				if (LOG.isInfoEnabled()) {
+					LOG.info("Order Details queued with token: {}", pending.getToken());
+				}
+				return ResponseEntity.accepted().body(pending);
+			}
+
+			if (orderPipeline.isEnabled()) {
+				final OrderDetailsDTO created = orderPipeline.placeOrder(msg);
+				if (LOG.isInfoEnabled()) {
+					LOG.info("Order Details successfully created with ID: {}", created.getOrderId());
+				}
+				return ResponseEntity.ok(created);
 			}
-			productBO.validateProductAvailability(productResponse, msg.getOrderedQuantity());
-			productBO.reduceQuantity(productResponse, msg.getOrderedQuantity());
 
-			final OrderDetails order = orderService.mapToEntity(msg);
-			final OrderDetails savedOrderDetails = orderService.insert(order);
+			// Mapped on the product's shard, where the order's product reference resolves
+			final OrderDetailsDTO created = shardRouter.onShardOf(msg.getProductId(),
+					() -> orderService.mapToDTO(orderService.placeOrder(msg)));
 			if (LOG.isInfoEnabled()) {
-				LOG.info("Order Details successfully created with ID: {}", savedOrderDetails.getOrderId());
+				LOG.info("Order Details successfully created with ID: {}", created.getOrderId());
 			}
 
-			return orderService.mapToDTO(savedOrderDetails);
+			return ResponseEntity.ok(created);
 		} catch (DuplicateEntryException | ResourceNotFoundException ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Error: {}", ex.getMessage());
@@ -507,6 +635,137 @@ public class InventoryManagementService {
 		}
 	}
 
+	/**
+	 * Reports the progress of an order accepted asynchronously
+	 * 
+	 * @param token the token returned by createOrderDetails
+	 * @return The order status: PENDING, ACCEPTED or REJECTED
+	 * @throws ResourceNotFoundException If the token is unknown or expired.
+	 */
+	@RequestMapping(value = "/orderStatus", method = RequestMethod.GET)
+	public OrderStatusDTO orderStatus(@RequestParam final String token) throws ResourceNotFoundException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Fetching status of order token {}", token);
+		}
+		return orderPipeline.status(token);
+	}
+
+	/**
+	 * Creates several order details in one transaction
+	 * 
+	 * @return One result per requested order, in request order
+	 * 
+	 */
+	@RequestMapping(value = "/createOrderDetailsBatch", method = RequestMethod.POST)
+	public List<OrderResultDTO> createOrderDetailsBatch(@RequestBody final List<@Valid OrderDetailsDTO> msgs) {
+		try {
+			if (LOG.isInfoEnabled()) {
+				LOG.info("Adding Order details batch API called with {} orders...", msgs.size());
+			}
+			final List<OrderResultDTO> results = shardRouter.routeEach(msgs, OrderDetailsDTO::getProductId,
+					orderService::placeOrders);
+			if (LOG.isInfoEnabled()) {
+				LOG.info("Order details batch processed, {} created",
+						results.stream().filter(r -> r.getStatus() == OrderResultDTO.Status.SUCCESS).count());
+			}
+			return results;
+		} catch (Exception ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Unexpected error: {}", ex.getMessage());
+			}
+			throw new CustomException("Unexpected error occurred: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Holds stock for a product while the customer completes payment
+	 * 
+	 * @return The reservation, to be confirmed or released before it expires
+	 * @throws ResourceNotFoundException If the product is not found.
+	 * @throws BadRequestException       If reservations are disabled or the
+	 *                                   quantity or lifetime is not positive.
+	 */
+	@RequestMapping(value = "/reserveStock", method = RequestMethod.POST)
+	public ReservationDTO reserveStock(@RequestParam final int productId, @RequestParam final int quantity,
+			@RequestParam(defaultValue = "600") final long ttlSeconds)
+			throws ResourceNotFoundException, BadRequestException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Reserving {} of product {} for {} seconds", quantity, productId, ttlSeconds);
+		}
+		if (!orderService.isReservationEnabled()) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Reservation requested while reservations are disabled");
+			}
+			throw new BadRequestException("Stock reservations are disabled");
+		}
+		if (quantity <= 0 || ttlSeconds <= 0) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Invalid reservation requested: quantity {}, ttl {}", quantity, ttlSeconds);
+			}
+			throw new BadRequestException("Quantity and ttlSeconds must be greater than 0");
+		}
+		try {
+			return shardRouter.onShardOf(productId, () -> orderService.reserve(productId, quantity, ttlSeconds));
+		} catch (ResourceNotFoundException ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Error: {}", ex.getMessage());
+			}
+			throw ex;
+		} catch (Exception ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Unexpected error: {}", ex.getMessage());
+			}
+			throw new CustomException("Unexpected error occurred: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Turns a reservation into an order
+	 * 
+	 * @return The order detail created
+	 * @throws ResourceNotFoundException If the reservation is unknown or expired.
+	 */
+	@RequestMapping(value = "/confirmReservation", method = RequestMethod.POST)
+	public OrderDetailsDTO confirmReservation(@RequestParam final String reservationId)
+			throws ResourceNotFoundException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Confirming reservation {}", reservationId);
+		}
+		try {
+			final OrderDetailsDTO created = shardRouter.onShardOf(orderService.reservedProductId(reservationId),
+					() -> orderService.mapToDTO(orderService.confirmReservation(reservationId)));
+			if (LOG.isInfoEnabled()) {
+				LOG.info("Order Details successfully created with ID: {}", created.getOrderId());
+			}
+			return created;
+		} catch (ResourceNotFoundException ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Error: {}", ex.getMessage());
+			}
+			throw ex;
+		} catch (Exception ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Unexpected error: {}", ex.getMessage());
+			}
+			throw new CustomException("Unexpected error occurred: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Releases a reservation before it expires
+	 * 
+	 * @return The released reservation
+	 * @throws ResourceNotFoundException If the reservation is unknown or expired.
+	 */
+	@RequestMapping(value = "/releaseReservation", method = RequestMethod.POST)
+	public ReservationDTO releaseReservation(@RequestParam final String reservationId)
+			throws ResourceNotFoundException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Releasing reservation {}", reservationId);
+		}
+		return orderService.releaseReservation(reservationId);
+	}
+
 	/**
 	 * Retrieves order details based on requested orderId
 	 * 
@@ -526,18 +785,21 @@ public class InventoryManagementService {
 			}
 			throw new BadRequestException("Invalid Order Detail ID provided");
 		}
+		if (notFoundCache.isMissing(NotFoundCache.Kind.ORDER, orderId)) {
+			throw ResourceNotFoundException.notFound("Order details not found with ID: " + orderId);
+		}
 		try {
-			final OrderDetails order = orderService.findOrderDetail(orderId);
-			if (order == null) {
-				LOG.error("OrderDetail with ID {} not found", orderId);
-				throw new ResourceNotFoundException("OrderDetail not found with ID: " + orderId);
-			}
+			final OrderDetails order = shardRouter.probe(() -> orderService.findOrderDetail(orderId));
 
 			final OrderDetailsDTO dto = orderService.mapToDTO(order);
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched Order detail with ID: {}", orderId);
 			}
 			return dto;
+		} catch (ResourceNotFoundException ex) {
+			// Logged once by the exception handler
+			notFoundCache.missed(NotFoundCache.Kind.ORDER, orderId);
+			throw ex;
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error occurred while fetching product with ID: {}", orderId, ex);
@@ -547,32 +809,38 @@ public class InventoryManagementService {
 	}
 
 	/**
-	 * Retrieves order details from orderDetails table.
+	 * Retrieves order details from orderDetails table, one page at a time.
 	 * 
-	 * @return A list of OrderDetailsDTO the combined data.
+	 * @param after cursor of the previous page, or null for the first page
+	 * @param limit page size, or null for the default
+	 * @return A page of OrderDetailsDTO the combined data.
 	 * @throws ResourceNotFoundException If no orders are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/fetchOrderDetails", method = RequestMethod.GET)
-	public List<OrderDetailsDTO> fetchAllOrders() throws ResourceNotFoundException {
+	public ResponseEntity<List<OrderDetailsDTO>> fetchAllOrders(@RequestParam(required = false) final String after,
+			@RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Received request to fetch all order details...");
 		}
 		try {
-			final List<OrderDetails> list = orderService.findOrderDetails();
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			// Each shard reads its own next page; the pages are merged in order ID order
+			final List<OrderDetailsDTO> listDTO = shardRouter
+					.scatter(() -> orderService.findOrderDetails(afterId, pageSize + 1));
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No order details found.");
 				}
 				throw new ResourceNotFoundException("No order details found.");
 			}
 
-			final List<OrderDetailsDTO> listDTO = list.stream().map(orderService::mapToDTO)
-					.collect(Collectors.toList());
-
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched order details..");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok(), listDTO, pageSize, dto -> new int[] { dto.getOrderId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -600,51 +868,55 @@ public class InventoryManagementService {
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Updating Order details API called...");
 			}
-			final OrderDetails existingOrder;
-			// Fetch the existing OrderDetails from the database
-			try {
-				existingOrder = orderService.findOrderDetail(msg.getOrderId());
-			} catch (ResourceNotFoundException e) {
-				if (LOG.isErrorEnabled()) {
-					LOG.error("Orderdetails id is not found : {}", msg.getOrderId());
-				}
-				throw new ResourceNotFoundException("Order Id not found.");
-
-			}
+			// Re-read and re-apply the update if another change to the stock won the race
+			final OrderDetails updatedOrder = productBO.retryOnConflict(msg.getProductId(), () -> {
+				final OrderDetails existingOrder;
+				// Fetch the existing OrderDetails from the database
+				try {
+					existingOrder = orderService.findOrderDetail(msg.getOrderId());
+				} catch (ResourceNotFoundException e) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Orderdetails id is not found : {}", msg.getOrderId());
+					}
+					throw new ResourceNotFoundException("Order Id not found.");
 
-			// Preserve the orderedDate and deliveryDate
-			final Date orderedDate = existingOrder.getOrderedDate();
-			final Date deliveryDate = existingOrder.getDeliveryDate();
+				}
 
-			// Fetch the Product based on the provided productId
-			final Product productResponse;
-			try {
-				productResponse = productService.findProduct(msg.getProductId());
-			} catch (NoSuchElementException e) {
-				if (LOG.isErrorEnabled()) {
-					LOG.error("Product Id not found:{}", msg.getProductId());
+				// Preserve the orderedDate and deliveryDate
+				final Date orderedDate = existingOrder.getOrderedDate();
+				final Date deliveryDate = existingOrder.getDeliveryDate();
+
+				// Fetch the Product based on the provided productId
+				final Product productResponse;
+				try {
+					productResponse = productService.findProduct(msg.getProductId());
+				} catch (NoSuchElementException e) {
+					if (LOG.isErrorEnabled()) {
+						LOG.error("Product Id not found:{}", msg.getProductId());
+					}
+					throw new ResourceNotFoundException("Product Id not found.");
 				}
-				throw new ResourceNotFoundException("Product Id not found.");
-			}
-			productBO.adjustStock(productResponse, existingOrder.getOrderedQuantity(), msg.getOrderedQuantity());
-			productBO.updateOrderDetails(existingOrder, msg, productResponse);
+				productBO.adjustStock(productResponse, existingOrder.getOrderedQuantity(), msg.getOrderedQuantity());
+				productBO.updateOrderDetails(existingOrder, msg, productResponse);
 
-			// Update the necessary fields
-			existingOrder.setOrderId(msg.getOrderId());
-			existingOrder.setOrderedQuantity(msg.getOrderedQuantity());
-			existingOrder.setProduct(productResponse);
+				// Update the necessary fields
+				existingOrder.setOrderId(msg.getOrderId());
+				existingOrder.setOrderedQuantity(msg.getOrderedQuantity());
+				existingOrder.setProduct(productResponse);
 
-			// Set the preserved dates back to the OrderDetails object
-			existingOrder.setOrderedDate(orderedDate);
-			existingOrder.setDeliveryDate(deliveryDate);
+				// Set the preserved dates back to the OrderDetails object
+				existingOrder.setOrderedDate(orderedDate);
+				existingOrder.setDeliveryDate(deliveryDate);
 
-			// Save the updated OrderDetails to the database
-			orderService.insert(existingOrder);
+				// Save the updated OrderDetails to the database
+				orderService.update(existingOrder);
+				return existingOrder;
+			});
 
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully updated orderdetails...");
 			}
-			return orderService.mapToDTO(existingOrder);
+			return orderService.mapToDTO(updatedOrder);
 		} catch (ResourceNotFoundException ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error: {}", ex.getMessage());
@@ -664,27 +936,34 @@ public class InventoryManagementService {
 	 * Retrieves products that is greater than the productId
 	 * 
 	 * @param productId of the product
-	 * @return A list of ProductDTO containing the combined data.
+	 * @param after     cursor of the previous page, or null for the first page
+	 * @param limit     page size, or null for the default
+	 * @return A page of ProductDTO containing the combined data.
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/fetchProductsById", method = RequestMethod.GET)
-	public List<ProductDTO> fetchProductsById(@RequestParam final int productId) throws ResourceNotFoundException {
+	public ResponseEntity<List<ProductDTO>> fetchProductsById(@RequestParam final int productId,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Received request to fetch products with id greater than: {}", productId);
 		}
 		try {
 
-			final List<Product> list = productService.findProductsById(productId);
-			if (list == null || list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = Math.max(productId, keysetPage.after(after, 1)[0]);
+			final List<ProductDTO> listDTO = shardRouter
+					.scatter(() -> productService.findProducts(afterId, pageSize + 1));
+			if (listDTO.isEmpty() && after == null) {
 				throw new ResourceNotFoundException(
 						"No list with products found with ID greater than {}: " + productId);
 			}
 
-			final List<ProductDTO> listDTO = list.stream().map(productService::mapToDTO).collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched products with id greater than {}", productId);
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok(), listDTO, pageSize, dto -> new int[] { dto.getProductId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -699,21 +978,28 @@ public class InventoryManagementService {
 	}
 
 	/**
-	 * Retrieves products greater than price
+	 * Retrieves products greater than price, one page at a time
 	 * 
 	 * @Param float price, that is compared with product price
-	 * @return A list of ProductCustomized containing the combined data.
+	 * @param after cursor of the previous page, or null for the first page
+	 * @param limit page size, or null for the default
+	 * @return A page of ProductCustomized containing the combined data.
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/findProductByPrice", method = RequestMethod.GET)
-	public List<ProductCustomized> findProductByPrice(@RequestParam final float price)
-			throws ResourceNotFoundException {
+	public ResponseEntity<List<ProductCustomized>> findProductByPrice(@RequestParam final float price,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Received request to fetch products with price greater than: {}", price);
 		}
 		try {
-			final List<ProductCustomized> list = productService.findProductByPriceCustomized(price);
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			final List<ProductCustomized> list = shardRouter
+					.scatter(() -> productService.findProductByPriceCustomized(price, afterId, pageSize + 1));
+			if (list.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found with price greater than {}", price);
 				}
@@ -722,7 +1008,7 @@ public class InventoryManagementService {
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched products with price greater than {}", price);
 			}
-			return list;
+			return keysetPage.page(ResponseEntity.ok(), list, pageSize, row -> new int[] { row.getProductId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -740,11 +1026,16 @@ public class InventoryManagementService {
 	 * Retrieves product that matches the name
 	 * 
 	 * @param String name requests the name of the product
-	 * @return A list of ProductDTO containing the combined data.
+	 * @param after  cursor of the previous page, or null for the first page
+	 * @param limit  page size, or null for the default
+	 * @return A page of ProductDTO containing the combined data.
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/findProductByNames", method = RequestMethod.GET)
-	public List<ProductDTO> findProductByNames(@RequestParam final String name) throws ResourceNotFoundException {
+	public ResponseEntity<List<ProductDTO>> findProductByNames(@RequestParam final String name,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Finding product by name: {}", name);
 		}
@@ -756,19 +1047,21 @@ public class InventoryManagementService {
 			throw new IllegalArgumentException("Product name must contain only alphabets.");
 		}
 		try {
-			final List<Product> list = productService.findProductNames(name);
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			final List<ProductDTO> listDTO = shardRouter
+					.scatter(() -> productService.findProductNames(name, afterId, pageSize + 1));
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found by name{}", name);
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
 
-			final List<ProductDTO> listDTO = list.stream().map(productService::mapToDTO).collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully found product with name: {}", name);
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok(), listDTO, pageSize, dto -> new int[] { dto.getProductId() });
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error occurred while finding product with name: {}", name, ex);
@@ -813,20 +1106,29 @@ public class InventoryManagementService {
 
 	/**
 	 * Retrieves product order details greater than price by joining columns from
-	 * product, orderDetails table
+	 * product, orderDetails table, one page at a time. Rows are ordered by product
+	 * and then by order.
 	 * 
-	 * @return A list of ProductOrderCustomizedDTO containing the combined data.
+	 * @param after cursor of the previous page, or null for the first page
+	 * @param limit page size, or null for the default
+	 * @return A page of ProductOrderCustomizedDTO containing the combined data.
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/findByProductOrderCustomized", method = RequestMethod.GET)
-	public List<ProductOrderCustomized> findByProductOrderCustomized(@RequestParam final float price)
-			throws ResourceNotFoundException {
+	public ResponseEntity<List<ProductOrderCustomized>> findByProductOrderCustomized(@RequestParam final float price,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Fetching products where price is greater than {}", price);
 		}
 		try {
-			final List<ProductOrderCustomized> list = productService.findByProductOrderCustomized(price);
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int[] afterKey = keysetPage.after(after, 2);
+			// Orders live on the shard of their product, so each shard joins its own rows
+			final List<ProductOrderCustomized> list = shardRouter.scatter(() -> productService
+					.findByProductOrderCustomized(price, afterKey[0], afterKey[1], pageSize + 1));
+			if (list.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found for price greater than {}.", price);
 				}
@@ -836,7 +1138,8 @@ public class InventoryManagementService {
 				LOG.info("Successfully fetched products with price greater than {}", price);
 			}
 
-			return list;
+			return keysetPage.page(ResponseEntity.ok(), list, pageSize,
+					row -> new int[] { row.getProductId(), row.getOrderId() });
 
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
@@ -860,20 +1163,13 @@ public class InventoryManagementService {
 		}
 		try {
 
-			final List<ProductCategoryCustomized> list = productService.findProductsCategoryCount();
-			if (list.isEmpty()) {
+			final List<ProductCategoryCustomizedDTO> listDTO = reportingService.findProductsCategoryCount();
+			if (listDTO.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("Product count by category not found.");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
-			final List<ProductCategoryCustomizedDTO> listDTO = new ArrayList<>();
-			for (final ProductCategoryCustomized p : list) {
-				final ProductCategoryCustomizedDTO dto = new ProductCategoryCustomizedDTO();
-				dto.setCategoryName(p.getCategoryName());
-				dto.setProductCount(p.getProductCount());
-				listDTO.add(dto);
-			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched product count grouped by category");
 			}
@@ -901,20 +1197,13 @@ public class InventoryManagementService {
 		}
 		try {
 
-			final List<CategoryPriceCustomized> list = productService.findAvergePriceByCategory();
-			if (list.isEmpty()) {
+			final List<CategoryPriceCustomizedDTO> listDTO = reportingService.findAvergePriceByCategory();
+			if (listDTO.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("Product average price by category not found.");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
-			final List<CategoryPriceCustomizedDTO> listDTO = new ArrayList<>();
-			for (final CategoryPriceCustomized p : list) {
-				final CategoryPriceCustomizedDTO dto = new CategoryPriceCustomizedDTO();
-				dto.setCategoryName(p.getCategoryName());
-				dto.setAveragePrice(p.getAveragePrice());
-				listDTO.add(dto);
-			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched product average price grouped by category");
 			}
@@ -993,24 +1282,13 @@ public class InventoryManagementService {
 		}
 		try {
 
-			final List<ProductOrderCBCustomized> list = productService.findProductOrderDetails();
-			if (list.isEmpty()) {
+			final List<ProductOrderCBCustomizedDTO> listDTO = reportingService.findProductOrderDetails();
+			if (listDTO.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No list found");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
-			final List<ProductOrderCBCustomizedDTO> listDTO = new ArrayList<>();
-			for (final ProductOrderCBCustomized p : list) {
-				final ProductOrderCBCustomizedDTO dto = new ProductOrderCBCustomizedDTO();
-				dto.setProductId(p.getProductId());
-				dto.setProductName(p.getProductName());
-				dto.setOrderId(p.getOrderId());
-				dto.setOrderedQuantity(p.getOrderedQuantity());
-				dto.setBrandName(p.getBrandName());
-				dto.setCategoryName(p.getCategoryName());
-				listDTO.add(dto);
-			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully joined tables product, orderDetails, brand and category.");
 			}
@@ -1026,31 +1304,38 @@ public class InventoryManagementService {
 	}
 
 	/**
-	 * Retrieves order details for a product.
+	 * Retrieves order details for a product, one page at a time.
 	 * 
-	 * @return A list of OrderDetailsDTO containing the combined data.
+	 * @param productId the ID of the product
+	 * @param after     cursor of the previous page, or null for the first page
+	 * @param limit     page size, or null for the default
+	 * @return A page of OrderDetailsDTO containing the combined data.
 	 * @throws ResourceNotFoundException If no products are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
 	 */
 	@RequestMapping(value = "/findOrdersForProduct", method = RequestMethod.GET)
-	public List<OrderDetailsDTO> fetchOrdersForProduct(@RequestParam final int productId)
-			throws ResourceNotFoundException {
+	public ResponseEntity<List<OrderDetailsDTO>> fetchOrdersForProduct(@RequestParam final int productId,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Fetching Orders for a product...");
 		}
 		try {
-			final List<OrderDetails> list = orderService.findProductOrderDetails(productId);
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			// The product and its orders live on the product's shard
+			final List<OrderDetailsDTO> listDTO = shardRouter.onShardOf(productId,
+					() -> orderService.findProductOrderDetailDTOs(productId, afterId, pageSize + 1));
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No list found");
 				}
 				throw new ResourceNotFoundException("No orders found. Please order.");
 			}
-			final List<OrderDetailsDTO> listDTO = list.stream().map(orderService::mapToDTO)
-					.collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched order details for a product.");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok(), listDTO, pageSize, dto -> new int[] { dto.getOrderId() });
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error occurred while fetching orders for a product.", ex);
@@ -1060,39 +1345,40 @@ public class InventoryManagementService {
 		}
 	}
 
+	/**
+	 * Generates the sales report, one row per order, one page at a time. Rows
+	 * are ordered by product and then by order.
+	 * 
+	 * @param after cursor of the previous page, or null for the first page
+	 * @param limit page size, or null for the default
+	 * @return A page of SalesReportDTO.
+	 * @throws ResourceNotFoundException If no orders are found.
+	 * @throws BadRequestException       If the cursor or limit is invalid.
+	 */
 	@RequestMapping(value = "/generateSalesReport", method = RequestMethod.GET)
-	public List<SalesReportDTO> generateSalesReport() throws ResourceNotFoundException {
+	public ResponseEntity<List<SalesReportDTO>> generateSalesReport(@RequestParam(required = false) final String after,
+			@RequestParam(required = false) final Integer limit)
+			throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Generating Sales Report...");
 		}
 		try {
 
-			final List<SalesReportCustomized> list = productService.generateSalesReport();
-			if (list.isEmpty()) {
+			final int pageSize = keysetPage.limit(limit);
+			final int[] afterKey = keysetPage.after(after, 2);
+			final List<SalesReportDTO> listDTO = reportingService.generateSalesReport(afterKey[0], afterKey[1],
+					pageSize + 1);
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No list found");
 				}
 				throw new ResourceNotFoundException("No orders found.");
 			}
-			final List<SalesReportDTO> listDTO = new ArrayList<>();
-			for (final SalesReportCustomized p : list) {
-				final SalesReportDTO dto = new SalesReportDTO();
-				dto.setProductId(p.getProductId());
-				dto.setProductName(p.getProductName());
-				dto.setBrand(p.getBrand());
-				dto.setCategory(p.getCategory());
-				dto.setStockAvailable(p.getStockAvailable());
-				dto.setPrice(p.getPrice());
-				dto.setCustomerId(p.getCustomerId());
-				dto.setOrderId(p.getOrderId());
-				dto.setOrderedQuantity(p.getOrderedQuantity());
-				dto.setAmountPaid(p.getAmountPaid());
-				listDTO.add(dto);
-			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully generated sales report.");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok(), listDTO, pageSize,
+					dto -> new int[] { dto.getProductId(), dto.getOrderId() });
 		} catch (Exception ex) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Unexpected error occured while generating report", ex);
@@ -1103,6 +1389,34 @@ public class InventoryManagementService {
 
 	}
 
+	/**
+	 * Streams the whole sales report, one row per order, ordered by product and
+	 * then by order. Rows are written to the response as they are read from the
+	 * database, so memory use does not grow with the number of orders. An empty
+	 * report is an empty array.
+	 * 
+	 * @param response the response the report is written to
+	 * @throws IOException If the response cannot be written.
+	 */
+	@RequestMapping(value = "/streamSalesReport", method = RequestMethod.GET)
+	public void streamSalesReport(final HttpServletResponse response) throws IOException {
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Streaming Sales Report...");
+		}
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		try {
+			final long rows = salesReportWriter.write(response.getOutputStream());
+			if (LOG.isInfoEnabled()) {
+				LOG.info("Successfully streamed sales report of {} rows.", rows);
+			}
+		} catch (RuntimeException ex) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Unexpected error occured while streaming report", ex);
+			}
+			throw ex;
+		}
+	}
+
 	@RequestMapping(value = "/ generateCustomerOrderReport", method = RequestMethod.GET)
 	public List<CustomerOrderReportCustomizedDTO> generateCustomerOrderReport(@RequestParam final int customerId)
 			throws ResourceNotFoundException {
@@ -1119,25 +1433,14 @@ public class InventoryManagementService {
 				throw new ResourceNotFoundException("Customer not found with ID: " + customerId);
 			}
 
-			final List<CustomerOrderReportCustomized> list = productService.generateCustomerOrderReport(customerId);
-			if (list.isEmpty()) {
+			final List<CustomerOrderReportCustomizedDTO> listDTO = reportingService
+					.generateCustomerOrderReport(customerId);
+			if (listDTO.isEmpty()) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No list found");
 				}
 				throw new ResourceNotFoundException("No orders found.");
 			}
-			final List<CustomerOrderReportCustomizedDTO> listDTO = new ArrayList<>();
-			for (final CustomerOrderReportCustomized p : list) {
-				final CustomerOrderReportCustomizedDTO dto = new CustomerOrderReportCustomizedDTO();
-				dto.setCustomerId(p.getCustomerId());
-				dto.setUserName(p.getUserName());
-				dto.setProductId(p.getProductId());
-				dto.setProductName(p.getProductName());
-				dto.setPrice(p.getPrice());
-				dto.setOrderedQuantity(p.getOrderedQuantity());
-				dto.setAmountPaid(p.getAmountPaid());
-				listDTO.add(dto);
-			}
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully generated customer report.");
 			}
@@ -1153,8 +1456,9 @@ public class InventoryManagementService {
 	}
 
 	@RequestMapping(value = "/findProductsByBrandName", method = RequestMethod.GET)
-	public List<ProductDTO> findProductsByBrandName(@RequestParam final String brandName)
-			throws ResourceNotFoundException, BadRequestException {
+	public ResponseEntity<List<ProductDTO>> findProductsByBrandName(@RequestParam final String brandName,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit,
+			final WebRequest webRequest) throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Fetching product by brand: {}", brandName);
 		}
@@ -1166,21 +1470,28 @@ public class InventoryManagementService {
 				}
 				throw new IllegalArgumentException("Brand name must contain only alphabets.");
 			}
+			final String etag = catalogVersion.etag();
+			if (webRequest.checkNotModified(etag)) {
+				return null;
+			}
 
-			final List<Product> list = productService.findProductsByBrandName(brandName);
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			final List<ProductDTO> listDTO = shardRouter
+					.scatter(() -> productService.findProductsByBrandName(brandName, afterId, pageSize + 1));
 
-			if (list.isEmpty()) {
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found.");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
 
-			final List<ProductDTO> listDTO = list.stream().map(productService::mapToDTO).collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched all products.");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok().eTag(etag), listDTO, pageSize,
+					dto -> new int[] { dto.getProductId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -1196,8 +1507,9 @@ public class InventoryManagementService {
 	}
 
 	@RequestMapping(value = "/findProductsByCategoryName", method = RequestMethod.GET)
-	public List<ProductDTO> findProductsByCategoryName(@RequestParam final String categoryName)
-			throws ResourceNotFoundException, BadRequestException {
+	public ResponseEntity<List<ProductDTO>> findProductsByCategoryName(@RequestParam final String categoryName,
+			@RequestParam(required = false) final String after, @RequestParam(required = false) final Integer limit,
+			final WebRequest webRequest) throws ResourceNotFoundException, BadRequestException {
 		if (LOG.isInfoEnabled()) {
 			LOG.info("Fetching product by category {}", categoryName);
 		}
@@ -1208,20 +1520,27 @@ public class InventoryManagementService {
 				}
 				throw new IllegalArgumentException("Category name must contain only alphabets.");
 			}
-			final List<Product> list = productService.findProductsByCategoryName(categoryName);
+			final String etag = catalogVersion.etag();
+			if (webRequest.checkNotModified(etag)) {
+				return null;
+			}
+			final int pageSize = keysetPage.limit(limit);
+			final int afterId = keysetPage.after(after, 1)[0];
+			final List<ProductDTO> listDTO = shardRouter
+					.scatter(() -> productService.findProductsByCategoryName(categoryName, afterId, pageSize + 1));
 
-			if (list.isEmpty()) {
+			if (listDTO.isEmpty() && after == null) {
 				if (LOG.isWarnEnabled()) {
 					LOG.warn("No products found.");
 				}
 				throw new ResourceNotFoundException("No Products found.");
 			}
 
-			final List<ProductDTO> listDTO = list.stream().map(productService::mapToDTO).collect(Collectors.toList());
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Successfully fetched all products.");
 			}
-			return listDTO;
+			return keysetPage.page(ResponseEntity.ok().eTag(etag), listDTO, pageSize,
+					dto -> new int[] { dto.getProductId() });
 		} catch (ResourceNotFoundException e) {
 			if (LOG.isErrorEnabled()) {
 				LOG.error("Resource not found: {}", e.getMessage());
@@ -1298,25 +1617,29 @@ public class InventoryManagementService {
 
 	@RequestMapping(value = "/checkProductName", method = RequestMethod.GET)
 	public boolean checkProductName(@RequestParam final String productName) {
-		boolean isUnique = productService.existsByProductName(productName);
+		boolean isUnique = uniquenessIndex.exists(UniquenessIndex.Field.PRODUCT_NAME, productName,
+				() -> shardRouter.anyShard(() -> productService.existsByProductName(productName)));
 		return isUnique;
 	}
 
 	@RequestMapping(value = "/checkBarCode", method = RequestMethod.GET)
 	public boolean checkBarCode(@RequestParam final String barcode) {
-		boolean isUnique = productService.existsByBarcode(barcode);
+		boolean isUnique = uniquenessIndex.exists(UniquenessIndex.Field.BARCODE, barcode,
+				() -> shardRouter.anyShard(() -> productService.existsByBarcode(barcode)));
 		return isUnique;
 	}
 
 	@RequestMapping(value = "/checkUsername", method = RequestMethod.GET)
 	public boolean checkUserName(@RequestParam final String username) {
-		boolean isUnique = customerService.userExists(username);
+		boolean isUnique = uniquenessIndex.exists(UniquenessIndex.Field.USERNAME, username,
+				() -> customerService.userExists(username));
 		return isUnique;
 	}
 
 	@RequestMapping(value = "/checkEmail", method = RequestMethod.GET)
 	public boolean checkEmail(@RequestParam final String email) {
-		boolean isUnique = customerService.emailExists(email);
+		boolean isUnique = uniquenessIndex.exists(UniquenessIndex.Field.EMAIL, email,
+				() -> customerService.emailExists(email));
 		return isUnique;
 	}
 
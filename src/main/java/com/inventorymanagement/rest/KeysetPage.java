@@ -0,0 +1,144 @@
+package com.inventorymanagement.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.exception.BadRequestException;
+
+/**
+ * Keyset pagination for the list endpoints. A page is requested with
+ * {@code limit} and {@code after}, the opaque cursor returned in the
+ * {@value #NEXT_CURSOR_HEADER} header of the previous page. The cursor holds the
+ * key of the last row sent, so the next page is read with
+ * {@code WHERE key > :after ORDER BY key} and costs the same however deep it
+ * is. Queries fetch one row more than the limit to tell whether another page
+ * follows. A client that wants a whole list must follow the cursor until it is
+ * absent, as the UI does (src/services/Pagination.js); the header is exposed to
+ * browsers by the controller's CORS settings.
+ */
+@Component
+public class KeysetPage {
+
+	/**
+	 * Name of the response header carrying the cursor of the next page. It is
+	 * absent on the last page.
+	 */
+	public static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+
+	/**
+	 * Separator between the parts of a composite key.
+	 */
+	private static final char SEPARATOR = ':';
+
+	/**
+	 * Page size used when the client asks for none.
+	 */
+	private final int defaultLimit;
+
+	/**
+	 * Largest page size a client may ask for.
+	 */
+	private final int maxLimit;
+
+	/**
+	 * Constructor for KeysetPage.
+	 *
+	 * @param defaultLimit the page size used when the client asks for none.
+	 * @param maxLimit     the largest page size a client may ask for.
+	 */
+	public KeysetPage(@Value("${inventory.pagination.default-limit:1000}") final int defaultLimit,
+			@Value("${inventory.pagination.max-limit:5000}") final int maxLimit) {
+		this.defaultLimit = defaultLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Resolves the page size asked for by a client.
+	 *
+	 * @param limit the requested page size, or null for the default.
+	 * @return the page size, capped at the maximum.
+	 * @throws BadRequestException if the page size is not positive.
+	 */
+	public int limit(final Integer limit) throws BadRequestException {
+		if (limit == null) {
+			return defaultLimit;
+		}
+		if (limit < 1) {
+			throw new BadRequestException("Limit must be greater than 0.");
+		}
+		return Math.min(limit, maxLimit);
+	}
+
+	/**
+	 * Decodes the cursor sent by a client.
+	 *
+	 * @param after the cursor of the previous page, or null for the first page.
+	 * @param parts the number of parts of the key.
+	 * @return the key of the last row already sent, all zeros for the first page.
+	 * @throws BadRequestException if the cursor is malformed.
+	 */
+	public int[] after(final String after, final int parts) throws BadRequestException {
+		if (after == null) {
+			return new int[parts];
+		}
+		try {
+			final String decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.US_ASCII);
+			final int[] key = Arrays.stream(decoded.split(String.valueOf(SEPARATOR))).mapToInt(Integer::parseInt)
+					.toArray();
+			if (key.length != parts) {
+				throw new BadRequestException("Invalid cursor: " + after);
+			}
+			return key;
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor: " + after, e);
+		}
+	}
+
+	/**
+	 * Builds the response for one page. The rows, gathered from one or more
+	 * shards, are put in key order and cut to the limit; if rows are left over,
+	 * the cursor of the next page is set.
+	 *
+	 * @param <T>     the row type.
+	 * @param builder the response builder, with any other headers already set.
+	 * @param rows    the rows read, up to one more than the limit per shard.
+	 * @param limit   the page size.
+	 * @param keyOf   extracts the key of a row.
+	 * @return the response holding the page.
+	 */
+	public <T> ResponseEntity<List<T>> page(final ResponseEntity.BodyBuilder builder, final List<T> rows,
+			final int limit, final Function<T, int[]> keyOf) {
+		final List<T> sorted = new ArrayList<>(rows);
+		sorted.sort(Comparator.comparing(keyOf, Arrays::compare));
+		if (sorted.size() <= limit) {
+			return builder.body(sorted);
+		}
+		final List<T> page = sorted.subList(0, limit);
+		return builder.header(NEXT_CURSOR_HEADER, encode(keyOf.apply(page.get(limit - 1)))).body(page);
+	}
+
+	/**
+	 * Encodes a key as an opaque cursor.
+	 */
+	/* default */static String encode(final int[] key) {
+		final StringBuilder text = new StringBuilder();
+		for (final int part : key) {
+			if (text.length() > 0) {
+				text.append(SEPARATOR);
+			}
+			text.append(part);
+		}
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(text.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+}
@@ -0,0 +1,176 @@
+package com.inventorymanagement.rest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.inventorymanagement.dao.QueryStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter that measures the SQL each request runs: statements, JDBC time
+ * and rows read, collected in a {@link QueryStats}. The figures are recorded as
+ * metrics per endpoint and, when {@code inventory.query-stats.headers} is on,
+ * returned as response headers. Requests over the statement budget, or that
+ * repeat one statement often enough to look like an N+1 query, are logged.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * QueryStatsFilter class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+	/**
+	 * Name of the response header carrying the number of statements.
+	 */
+	public static final String STATEMENTS_HEADER = "Query-Statements";
+
+	/**
+	 * Name of the response header carrying the JDBC time in milliseconds.
+	 */
+	public static final String TIME_HEADER = "Query-Time-Ms";
+
+	/**
+	 * Name of the response header carrying the number of rows read.
+	 */
+	public static final String ROWS_HEADER = "Query-Rows";
+
+	/**
+	 * Endpoint tag used when no handler matched the request.
+	 */
+	private static final String UNKNOWN_URI = "UNKNOWN";
+
+	/**
+	 * Registry for the per-endpoint metrics.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Whether requests are measured at all.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Whether the figures are returned as response headers. The response body is
+	 * buffered so the headers can follow it, so this is meant for development.
+	 */
+	private final boolean headers;
+
+	/**
+	 * Number of statements above which a request is logged.
+	 */
+	private final int maxStatements;
+
+	/**
+	 * Number of times one statement may be repeated before the request is logged
+	 * as a likely N+1 query.
+	 */
+	private final int repeatThreshold;
+
+	/**
+	 * Constructor for QueryStatsFilter.
+	 *
+	 * @param meterRegistry   the registry for the per-endpoint metrics.
+	 * @param enabled         whether requests are measured.
+	 * @param headers         whether the figures are returned as headers.
+	 * @param maxStatements   the statement budget of a request.
+	 * @param repeatThreshold the repeat count that flags an N+1 query.
+	 */
+	public QueryStatsFilter(final MeterRegistry meterRegistry,
+			@Value("${inventory.query-stats.enabled:true}") final boolean enabled,
+			@Value("${inventory.query-stats.headers:false}") final boolean headers,
+			@Value("${inventory.query-stats.max-statements:20}") final int maxStatements,
+			@Value("${inventory.query-stats.repeat-threshold:10}") final int repeatThreshold) {
+		super();
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.headers = headers;
+		this.maxStatements = maxStatements;
+		this.repeatThreshold = repeatThreshold;
+	}
+
+	/**
+	 * Skips every request when measuring is disabled.
+	 */
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return !enabled;
+	}
+
+	/**
+	 * Runs the request with its own QueryStats and records what it ran.
+	 */
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain chain) throws ServletException, IOException {
+		final QueryStats stats = QueryStats.begin();
+		final ContentCachingResponseWrapper wrapper = headers ? new ContentCachingResponseWrapper(response) : null;
+		try {
+			chain.doFilter(request, wrapper == null ? response : wrapper);
+		} finally {
+			QueryStats.end();
+			record(request, stats);
+			if (wrapper != null) {
+				wrapper.setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+				wrapper.setHeader(TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos())));
+				wrapper.setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+				wrapper.copyBodyToResponse();
+			}
+		}
+	}
+
+	/**
+	 * Records the figures of a request as metrics and logs requests over budget.
+	 */
+	private void record(final HttpServletRequest request, final QueryStats stats) {
+		final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		final String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+
+		DistributionSummary.builder("inventory.request.statements").tag("uri", uri)
+				.description("SQL statements run per request").register(meterRegistry).record(stats.getStatements());
+		DistributionSummary.builder("inventory.request.rows").tag("uri", uri).description("Rows read per request")
+				.register(meterRegistry).record(stats.getRows());
+		Timer.builder("inventory.request.jdbc").tag("uri", uri).description("JDBC time per request")
+				.register(meterRegistry).record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+		if (stats.getStatements() > maxStatements) {
+			Counter.builder("inventory.request.over-budget").tag("uri", uri)
+					.description("Requests that ran more statements than the budget").register(meterRegistry)
+					.increment();
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("{} ran {} statements, budget is {}", uri, stats.getStatements(), maxStatements);
+			}
+		}
+		if (stats.getMaxRepeats() >= repeatThreshold) {
+			Counter.builder("inventory.request.repeated-statements").tag("uri", uri)
+					.description("Requests that repeated one statement, a likely N+1 query").register(meterRegistry)
+					.increment();
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("{} repeated a statement {} times, likely an N+1 query: {}", uri, stats.getMaxRepeats(),
+						stats.mostRepeated());
+			}
+		}
+	}
+
+}
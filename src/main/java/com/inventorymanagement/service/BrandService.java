@@ -1,11 +1,15 @@
 package com.inventorymanagement.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventorymanagement.bo.BrandBO;
+import com.inventorymanagement.dto.BrandDTO;
 import com.inventorymanagement.entity.Brand;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
@@ -23,13 +27,30 @@ public class BrandService {
 	@Autowired
 	/* default */BrandBO brandBO = null;
 
+	/**
+	 * Mapper used to serialize the brands snapshot.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Source of snapshot versions.
+	 */
+	private final AtomicLong versions = new AtomicLong();
+
+	/**
+	 * Current snapshot of all brands, built on first use and replaced on insert.
+	 */
+	private volatile JsonSnapshot snapshot;
+
 	/**
 	 * Constructor for BrandService.
 	 * 
 	 * @param bo The BrandBO instance to be used by this service.
+	 * @param objectMapper The mapper used to serialize the brands snapshot.
 	 */
-	public BrandService(final BrandBO brandBO) {
+	public BrandService(final BrandBO brandBO, final ObjectMapper objectMapper) {
 		this.brandBO = brandBO;
+		this.objectMapper = objectMapper;
 	}
 
 	/**
@@ -39,7 +60,9 @@ public class BrandService {
 	 * @return The inserted brand.
 	 */
 	public Brand insert(final Brand brand) {
-		return brandBO.insert(brand);
+		final Brand saved = brandBO.insert(brand);
+		refreshBrands();
+		return saved;
 	}
 
 	/**
@@ -64,4 +87,32 @@ public class BrandService {
 
 	}
 
+	/**
+	 * Returns the current snapshot of all brands, building it on first use.
+	 * 
+	 * @return The brands snapshot.
+	 */
+	public JsonSnapshot brandSnapshot() {
+		final JsonSnapshot current = snapshot;
+		return current == null ? refreshBrands() : current;
+	}
+
+	/**
+	 * Reloads all brands and swaps in a new snapshot with a higher version.
+	 * Rebuilds are serialized so an older list can never replace a newer one.
+	 * 
+	 * @return The new snapshot.
+	 */
+	public synchronized JsonSnapshot refreshBrands() {
+		final List<BrandDTO> listDTO = new ArrayList<>();
+		for (final Brand p : brandBO.findBrands()) {
+			final BrandDTO dto = new BrandDTO();
+			dto.setBrandId(p.getBrandId());
+			dto.setBrandName(p.getBrandName());
+			listDTO.add(dto);
+		}
+		snapshot = JsonSnapshot.of(versions.incrementAndGet(), listDTO, objectMapper);
+		return snapshot;
+	}
+
 }
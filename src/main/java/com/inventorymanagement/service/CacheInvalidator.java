@@ -0,0 +1,381 @@
+package com.inventorymanagement.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.bo.ChangeLog;
+import com.inventorymanagement.bo.NotFoundCache;
+import com.inventorymanagement.bo.OutOfStockIndex;
+import com.inventorymanagement.bo.ReferenceDataCache;
+import com.inventorymanagement.bo.UniquenessIndex;
+import com.inventorymanagement.dao.CacheChangeRepository;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.entity.Brand;
+import com.inventorymanagement.entity.CacheChange;
+import com.inventorymanagement.entity.Category;
+import com.inventorymanagement.entity.Product;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tails the 'cache_change' log written by {@link ChangeLog} and drops this
+ * node's cached copies of rows changed by other nodes. Each shard keeps its own
+ * log, polled with an indexed range scan on the change ID.
+ *
+ * IDs are handed out when a row is inserted but become visible when its
+ * transaction commits, so a lower ID can appear after a higher one. The poller
+ * therefore only moves its floor past an ID once it has seen it, or once the gap
+ * has stayed open longer than any transaction should, which covers IDs lost to
+ * rollbacks.
+ *
+ * Staleness is bounded by the poll interval as long as polls succeed; the lag
+ * of every applied change and the age of the last successful poll are exported
+ * as metrics.
+ */
+@Component
+public class CacheInvalidator {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * CacheInvalidator class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidator.class);
+
+	/**
+	 * Position of the poller in one shard's log.
+	 */
+	private static final class Cursor {
+
+		/**
+		 * Every change up to and including this ID has been handled.
+		 */
+		private long floor;
+
+		/**
+		 * Changes above the floor that have been handled.
+		 */
+		private final NavigableSet<Long> seen = new TreeSet<>();
+
+		/**
+		 * When the gap above the floor was first noticed, or 0 if there is none.
+		 */
+		private long gapSince;
+
+	}
+
+	/**
+	 * Log written by this node, used to recognise its own changes.
+	 */
+	private final ChangeLog changeLog;
+
+	/**
+	 * Repository used to read the log.
+	 */
+	private final CacheChangeRepository cacheChangeRepository;
+
+	/**
+	 * Repository used to read the names of changed products.
+	 */
+	private final ProductRepository productRepository;
+
+	/**
+	 * Router used to poll every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Service owning the product cache.
+	 */
+	private final ProductService productService;
+
+	/**
+	 * Service owning the brand snapshot.
+	 */
+	private final BrandService brandService;
+
+	/**
+	 * Service owning the category snapshot.
+	 */
+	private final CategoryService categoryService;
+
+	/**
+	 * Second-level cache of the reference data.
+	 */
+	private final ReferenceDataCache referenceDataCache;
+
+	/**
+	 * Index of products known to have no stock.
+	 */
+	private final OutOfStockIndex outOfStockIndex;
+
+	/**
+	 * Cache of product IDs recently looked up and not found.
+	 */
+	private final NotFoundCache notFoundCache;
+
+	/**
+	 * Index behind the check endpoints.
+	 */
+	private final UniquenessIndex uniquenessIndex;
+
+	/**
+	 * Position in each shard's log.
+	 */
+	private final Cursor[] cursors;
+
+	/**
+	 * Maximum number of changes read per query.
+	 */
+	private final int batchSize;
+
+	/**
+	 * How long a gap in the change IDs is waited for before it is skipped.
+	 */
+	private final long gapGraceMillis;
+
+	/**
+	 * How long changes are kept in the log.
+	 */
+	private final long retentionMillis;
+
+	/**
+	 * Time from a change being made on another node to its invalidation here.
+	 */
+	private final Timer lagTimer;
+
+	/**
+	 * Number of gaps skipped without their change being seen.
+	 */
+	private final Counter skippedCounter;
+
+	/**
+	 * Registry for the applied change counters.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Whether the cursors have been placed at the end of the log.
+	 */
+	private volatile boolean started;
+
+	/**
+	 * Time of the last poll that read every shard.
+	 */
+	private volatile long lastPollMillis = System.currentTimeMillis();
+
+	/**
+	 * Constructor for CacheInvalidator.
+	 *
+	 * @param changeLog             the change log to be injected.
+	 * @param cacheChangeRepository the change log repository to be injected.
+	 * @param productRepository     the product repository to be injected.
+	 * @param shardRouter           the shard router to be injected.
+	 * @param productService        the product service to be injected.
+	 * @param brandService          the brand service to be injected.
+	 * @param categoryService       the category service to be injected.
+	 * @param referenceDataCache    the reference data cache to be injected.
+	 * @param outOfStockIndex       the out-of-stock index to be injected.
+	 * @param notFoundCache         the not-found cache to be injected.
+	 * @param uniquenessIndex       the uniqueness index to be injected.
+	 * @param meterRegistry         the registry for invalidation metrics.
+	 * @param batchSize             the maximum number of changes read per query.
+	 * @param gapGraceMillis        how long a gap in the change IDs is waited for.
+	 * @param retentionMinutes      how long changes are kept in the log.
+	 */
+	public CacheInvalidator(final ChangeLog changeLog, final CacheChangeRepository cacheChangeRepository,
+			final ProductRepository productRepository, final ShardRouter shardRouter,
+			final ProductService productService, final BrandService brandService,
+			final CategoryService categoryService, final ReferenceDataCache referenceDataCache,
+			final OutOfStockIndex outOfStockIndex, final NotFoundCache notFoundCache,
+			final UniquenessIndex uniquenessIndex, final MeterRegistry meterRegistry,
+			@Value("${inventory.change-log.batch-size:1000}") final int batchSize,
+			@Value("${inventory.change-log.gap-grace-ms:10000}") final long gapGraceMillis,
+			@Value("${inventory.change-log.retention-minutes:60}") final long retentionMinutes) {
+		this.changeLog = changeLog;
+		this.cacheChangeRepository = cacheChangeRepository;
+		this.productRepository = productRepository;
+		this.shardRouter = shardRouter;
+		this.productService = productService;
+		this.brandService = brandService;
+		this.categoryService = categoryService;
+		this.referenceDataCache = referenceDataCache;
+		this.outOfStockIndex = outOfStockIndex;
+		this.notFoundCache = notFoundCache;
+		this.uniquenessIndex = uniquenessIndex;
+		this.meterRegistry = meterRegistry;
+		this.batchSize = batchSize;
+		this.gapGraceMillis = gapGraceMillis;
+		this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+		this.cursors = new Cursor[shardRouter.getShardCount()];
+		for (int shard = 0; shard < cursors.length; shard++) {
+			cursors[shard] = new Cursor();
+		}
+		this.lagTimer = Timer.builder("inventory.change-log.lag")
+				.description("Time from a change on another node to its invalidation here").register(meterRegistry);
+		this.skippedCounter = Counter.builder("inventory.change-log.gaps-skipped")
+				.description("Change IDs given up on after the grace period").register(meterRegistry);
+		Gauge.builder("inventory.change-log.poll-age", this, CacheInvalidator::pollAgeSeconds).baseUnit("seconds")
+				.description("Time since the change log was last read from every shard").register(meterRegistry);
+	}
+
+	/**
+	 * Places the cursors at the end of each shard's log. Caches are empty at
+	 * startup, so older changes do not matter; this runs before the cache
+	 * warm-up so no change made while warming is missed.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void start() {
+		if (!changeLog.isEnabled()) {
+			return;
+		}
+		shardRouter.forEachShard(shard -> cursors[shard].floor = cacheChangeRepository.findLatestId());
+		lastPollMillis = System.currentTimeMillis();
+		started = true;
+	}
+
+	/**
+	 * Reads the changes made since the last poll on every shard and invalidates
+	 * the affected cache entries.
+	 */
+	@Scheduled(fixedDelayString = "${inventory.change-log.poll-ms:500}")
+	public synchronized void poll() {
+		if (!started) {
+			return;
+		}
+		final Set<CacheChange.Kind> reference = EnumSet.noneOf(CacheChange.Kind.class);
+		try {
+			shardRouter.forEachShard(shard -> poll(cursors[shard], reference));
+		} catch (RuntimeException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Reading the change log failed: {}", e.getMessage());
+			}
+			return;
+		} finally {
+			// Reference data is replicated, so it is reloaded once however many shards logged it
+			if (reference.contains(CacheChange.Kind.BRAND)) {
+				referenceDataCache.evict(Brand.class);
+				brandService.refreshBrands();
+			}
+			if (reference.contains(CacheChange.Kind.CATEGORY)) {
+				referenceDataCache.evict(Category.class);
+				categoryService.refreshCategories();
+			}
+		}
+		lastPollMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Deletes changes older than the retention period from every shard. Any
+	 * node may do this; deleting the same rows twice is harmless.
+	 */
+	@Scheduled(fixedDelayString = "${inventory.change-log.purge-interval-ms:600000}")
+	public void purge() {
+		if (!started) {
+			return;
+		}
+		final Date cutoff = new Date(System.currentTimeMillis() - retentionMillis);
+		shardRouter.forEachShard(shard -> {
+			final int deleted = cacheChangeRepository.deleteChangedBefore(cutoff);
+			if (deleted > 0 && LOG.isInfoEnabled()) {
+				LOG.info("Purged {} old cache changes from shard {}", deleted, shard);
+			}
+		});
+	}
+
+	/**
+	 * Reads and applies the changes above a cursor's floor on the current shard,
+	 * then moves the floor as far as it safely can.
+	 */
+	private void poll(final Cursor cursor, final Set<CacheChange.Kind> reference) {
+		final long now = System.currentTimeMillis();
+		long after = cursor.floor;
+		List<CacheChange> page;
+		do {
+			page = cacheChangeRepository.findAfter(after, PageRequest.of(0, batchSize));
+			final List<Integer> products = new ArrayList<>();
+			for (final CacheChange change : page) {
+				after = change.getChangeId();
+				if (cursor.seen.add(after) && !changeLog.origin().equals(change.getOrigin())) {
+					apply(change, products, reference, now);
+				}
+			}
+			if (!products.isEmpty()) {
+				for (final Product product : productRepository.findAllById(products)) {
+					uniquenessIndex.added(UniquenessIndex.Field.PRODUCT_NAME, product.getProductName());
+					uniquenessIndex.added(UniquenessIndex.Field.BARCODE, product.getBarCode());
+				}
+			}
+		} while (page.size() == batchSize);
+
+		while (!cursor.seen.isEmpty()) {
+			if (cursor.seen.first() == cursor.floor + 1) {
+				cursor.floor = cursor.seen.pollFirst();
+				cursor.gapSince = 0;
+			} else if (cursor.gapSince == 0) {
+				cursor.gapSince = now;
+				break;
+			} else if (now - cursor.gapSince >= gapGraceMillis) {
+				skippedCounter.increment(cursor.seen.first() - cursor.floor - 1);
+				cursor.floor = cursor.seen.first() - 1;
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached copies of one changed row. Products whose details
+	 * changed are collected so their names can be read in one query; brands and
+	 * categories are collected so they are reloaded once per poll.
+	 */
+	private void apply(final CacheChange change, final List<Integer> products, final Set<CacheChange.Kind> reference,
+			final long now) {
+		final int id = change.getEntityId();
+		switch (change.getKind()) {
+		case PRODUCT:
+			notFoundCache.created(NotFoundCache.Kind.PRODUCT, id);
+			products.add(id);
+			// Fall through: a saved product may also have new stock
+		case STOCK:
+			productService.evictProduct(id);
+			outOfStockIndex.forget(id);
+			break;
+		default:
+			reference.add(change.getKind());
+			break;
+		}
+		lagTimer.record(Math.max(0, now - change.getChangedDate().getTime()), TimeUnit.MILLISECONDS);
+		Counter.builder("inventory.change-log.applied").tag("kind", change.getKind().name())
+				.description("Changes from other nodes applied to local caches").register(meterRegistry).increment();
+	}
+
+	/**
+	 * Seconds since the change log was last read from every shard.
+	 */
+	private double pollAgeSeconds() {
+		return (System.currentTimeMillis() - lastPollMillis) / 1000.0;
+	}
+
+}
@@ -0,0 +1,313 @@
+package com.inventorymanagement.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.bo.UniquenessIndex;
+import com.inventorymanagement.dao.CityRepository;
+import com.inventorymanagement.dao.CountryRepository;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.dao.StateRepository;
+import com.inventorymanagement.dto.ProductDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Warms the in-process caches once the application has started: the product
+ * cache, the brand and category snapshots, the second-level and query cache of
+ * the geo reference data, and the uniqueness index. Each cache is loaded by its
+ * own task on a small bounded pool, with paged projection queries.
+ *
+ * Until every task has finished, or the warm-up timed out, this bean reports
+ * OUT_OF_SERVICE as a health indicator; it is part of the readiness group so a
+ * load balancer keeps traffic away from a cold node.
+ */
+@Component
+public class CacheWarmer implements HealthIndicator {
+
+	/**
+	 * Logger instance that helps in recording log messages for the CacheWarmer
+	 * class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(CacheWarmer.class);
+
+	/**
+	 * Service owning the product cache and the product queries.
+	 */
+	private final ProductService productService;
+
+	/**
+	 * Service owning the brand snapshot.
+	 */
+	private final BrandService brandService;
+
+	/**
+	 * Service owning the category snapshot.
+	 */
+	private final CategoryService categoryService;
+
+	/**
+	 * Repository used to warm the city lookups.
+	 */
+	private final CityRepository cityRepository;
+
+	/**
+	 * Repository used to warm the state lookups.
+	 */
+	private final StateRepository stateRepository;
+
+	/**
+	 * Repository used to warm the country lookups.
+	 */
+	private final CountryRepository countryRepository;
+
+	/**
+	 * Index behind the check endpoints.
+	 */
+	private final UniquenessIndex uniquenessIndex;
+
+	/**
+	 * Router used to read products from every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Registry for warm-up metrics.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Whether the warm-up runs at all.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Number of warm-up tasks run at the same time.
+	 */
+	private final int threads;
+
+	/**
+	 * Rows read per query.
+	 */
+	private final int pageSize;
+
+	/**
+	 * Longest time the node stays not-ready while warming.
+	 */
+	private final long timeoutSeconds;
+
+	/**
+	 * Number of warm-up tasks.
+	 */
+	private final AtomicInteger total = new AtomicInteger();
+
+	/**
+	 * Number of finished warm-up tasks, successful or not.
+	 */
+	private final AtomicInteger completed = new AtomicInteger();
+
+	/**
+	 * Duration of the whole warm-up in milliseconds, or -1 while it runs.
+	 */
+	private final AtomicLong durationMillis = new AtomicLong(-1);
+
+	/**
+	 * Whether the warm-up gave up waiting before every task finished.
+	 */
+	private volatile boolean timedOut;
+
+	/**
+	 * Whether the node may receive traffic.
+	 */
+	private volatile boolean ready;
+
+	/**
+	 * Constructor for CacheWarmer.
+	 *
+	 * @param productService    the product service to be injected.
+	 * @param brandService      the brand service to be injected.
+	 * @param categoryService   the category service to be injected.
+	 * @param cityRepository    the city repository to be injected.
+	 * @param stateRepository   the state repository to be injected.
+	 * @param countryRepository the country repository to be injected.
+	 * @param uniquenessIndex   the uniqueness index to be injected.
+	 * @param shardRouter       the shard router to be injected.
+	 * @param meterRegistry     the registry for warm-up metrics.
+	 * @param enabled           whether the warm-up runs.
+	 * @param threads           the number of tasks run at the same time.
+	 * @param pageSize          the number of rows read per query.
+	 * @param timeoutSeconds    the longest time the node stays not-ready.
+	 */
+	public CacheWarmer(final ProductService productService, final BrandService brandService,
+			final CategoryService categoryService, final CityRepository cityRepository,
+			final StateRepository stateRepository, final CountryRepository countryRepository,
+			final UniquenessIndex uniquenessIndex, final ShardRouter shardRouter, final MeterRegistry meterRegistry,
+			@Value("${inventory.warmup.enabled:true}") final boolean enabled,
+			@Value("${inventory.warmup.threads:4}") final int threads,
+			@Value("${inventory.warmup.page-size:1000}") final int pageSize,
+			@Value("${inventory.warmup.timeout-seconds:60}") final long timeoutSeconds) {
+		this.productService = productService;
+		this.brandService = brandService;
+		this.categoryService = categoryService;
+		this.cityRepository = cityRepository;
+		this.stateRepository = stateRepository;
+		this.countryRepository = countryRepository;
+		this.uniquenessIndex = uniquenessIndex;
+		this.shardRouter = shardRouter;
+		this.meterRegistry = meterRegistry;
+		this.enabled = enabled;
+		this.threads = threads;
+		this.pageSize = pageSize;
+		this.timeoutSeconds = timeoutSeconds;
+		this.ready = !enabled;
+		Gauge.builder("inventory.warmup.progress", this, CacheWarmer::progress)
+				.description("Fraction of cache warm-up tasks finished").register(meterRegistry);
+	}
+
+	/**
+	 * Starts the warm-up in the background once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		final Map<String, IntSupplier> tasks = new LinkedHashMap<>();
+		tasks.put("products", this::warmProducts);
+		tasks.put("brands", () -> brandService.brandSnapshot().getSize());
+		tasks.put("categories", () -> categoryService.categorySnapshot().getSize());
+		tasks.put("cities", () -> warmLookups(cityRepository::findCityNames, cityRepository::findByCityName));
+		tasks.put("states", () -> warmLookups(stateRepository::findStateNames, stateRepository::findByStateName));
+		tasks.put("countries",
+				() -> warmLookups(countryRepository::findCountryNames, countryRepository::findByCountryName));
+		tasks.put("uniqueness", uniquenessIndex::load);
+		total.set(tasks.size());
+
+		final long started = System.nanoTime();
+		final AtomicInteger threadIds = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "cache-warmup-" + threadIds.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletableFuture<?>[] futures = tasks.entrySet().stream()
+				.map(task -> CompletableFuture.runAsync(() -> run(task.getKey(), task.getValue()), executor))
+				.toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(futures).orTimeout(timeoutSeconds, TimeUnit.SECONDS).whenComplete((ignored, error) -> {
+			final long elapsed = System.nanoTime() - started;
+			timedOut = error instanceof TimeoutException;
+			durationMillis.set(TimeUnit.NANOSECONDS.toMillis(elapsed));
+			Timer.builder("inventory.warmup.duration").tag("task", "all").description("Cache warm-up duration")
+					.register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+			ready = true;
+			executor.shutdown();
+			if (timedOut && LOG.isWarnEnabled()) {
+				LOG.warn("Cache warm-up timed out after {} s with {} of {} tasks done, accepting traffic",
+						timeoutSeconds, completed.get(), total.get());
+			} else if (LOG.isInfoEnabled()) {
+				LOG.info("Cache warm-up finished in {} ms", durationMillis.get());
+			}
+		});
+	}
+
+	/**
+	 * Reports OUT_OF_SERVICE until the warm-up has finished or timed out.
+	 */
+	@Override
+	public Health health() {
+		final Health.Builder builder = ready ? Health.up() : Health.outOfService();
+		return builder.withDetail("completed", completed.get()).withDetail("total", total.get())
+				.withDetail("durationMs", durationMillis.get()).withDetail("timedOut", timedOut).build();
+	}
+
+	/**
+	 * Runs one warm-up task, timing it and counting the entries it loaded. A
+	 * failed task is logged and counted as finished; the cache it was warming
+	 * simply fills on demand.
+	 */
+	private void run(final String name, final IntSupplier task) {
+		final long started = System.nanoTime();
+		try {
+			final int entries = task.getAsInt();
+			Counter.builder("inventory.warmup.entries").tag("task", name).description("Entries loaded by cache warm-up")
+					.register(meterRegistry).increment(entries);
+		} catch (RuntimeException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Cache warm-up task {} failed", name, e);
+			}
+		} finally {
+			Timer.builder("inventory.warmup.duration").tag("task", name).description("Cache warm-up duration")
+					.register(meterRegistry).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+			completed.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Pages through the products of every shard into the product cache, up to
+	 * the cache's capacity.
+	 */
+	private int warmProducts() {
+		final long capacity = productService.productCacheCapacity();
+		final AtomicInteger loaded = new AtomicInteger();
+		shardRouter.forEachShard(shard -> {
+			int afterId = 0;
+			List<ProductDTO> page;
+			do {
+				page = productService.warmProductPage(afterId, pageSize);
+				if (!page.isEmpty()) {
+					afterId = page.get(page.size() - 1).getProductId();
+				}
+			} while (loaded.addAndGet(page.size()) < capacity && page.size() == pageSize);
+		});
+		return loaded.get();
+	}
+
+	/**
+	 * Pages through the names of a reference table and runs the cached lookup
+	 * for each, filling both the query cache and the entity cache.
+	 */
+	private int warmLookups(final Function<Pageable, List<String>> names, final Function<String, ?> lookup) {
+		int loaded = 0;
+		List<String> page;
+		int pageNumber = 0;
+		do {
+			page = names.apply(PageRequest.of(pageNumber++, pageSize));
+			page.forEach(lookup::apply);
+			loaded += page.size();
+		} while (page.size() == pageSize);
+		return loaded;
+	}
+
+	/**
+	 * Fraction of warm-up tasks finished, 1 when there is nothing to do.
+	 */
+	private double progress() {
+		final int count = total.get();
+		return count == 0 ? (ready ? 1 : 0) : (double) completed.get() / count;
+	}
+
+}
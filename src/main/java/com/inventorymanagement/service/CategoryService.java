@@ -1,11 +1,15 @@
 package com.inventorymanagement.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventorymanagement.bo.CategoryBO;
+import com.inventorymanagement.dto.CategoryDTO;
 import com.inventorymanagement.entity.Category;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
@@ -24,13 +28,30 @@ public class CategoryService {
 	@Autowired
 	/* default */CategoryBO categoryBO = null;
 
+	/**
+	 * Mapper used to serialize the categories snapshot.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Source of snapshot versions.
+	 */
+	private final AtomicLong versions = new AtomicLong();
+
+	/**
+	 * Current snapshot of all categories, built on first use and replaced on insert.
+	 */
+	private volatile JsonSnapshot snapshot;
+
 	/**
 	 * Constructor for CategoryService.
 	 * 
 	 * @param categoryBO The CategoryBO instance to be used by this service.
+	 * @param objectMapper The mapper used to serialize the categories snapshot.
 	 */
-	public CategoryService(final CategoryBO categoryBO) {
+	public CategoryService(final CategoryBO categoryBO, final ObjectMapper objectMapper) {
 		this.categoryBO = categoryBO;
+		this.objectMapper = objectMapper;
 	}
 
 	/**
@@ -40,7 +61,9 @@ public class CategoryService {
 	 * @return The inserted category.
 	 */
 	public Category insert(final Category category) {
-		return categoryBO.insert(category);
+		final Category saved = categoryBO.insert(category);
+		refreshCategories();
+		return saved;
 	}
 
 	/**
@@ -65,4 +88,32 @@ public class CategoryService {
 
 	}
 
+	/**
+	 * Returns the current snapshot of all categories, building it on first use.
+	 * 
+	 * @return The categories snapshot.
+	 */
+	public JsonSnapshot categorySnapshot() {
+		final JsonSnapshot current = snapshot;
+		return current == null ? refreshCategories() : current;
+	}
+
+	/**
+	 * Reloads all categories and swaps in a new snapshot with a higher version.
+	 * Rebuilds are serialized so an older list can never replace a newer one.
+	 * 
+	 * @return The new snapshot.
+	 */
+	public synchronized JsonSnapshot refreshCategories() {
+		final List<CategoryDTO> listDTO = new ArrayList<>();
+		for (final Category p : categoryBO.findCategories()) {
+			final CategoryDTO dto = new CategoryDTO();
+			dto.setCategoryId(p.getCategoryId());
+			dto.setCategoryName(p.getCategoryName());
+			listDTO.add(dto);
+		}
+		snapshot = JsonSnapshot.of(versions.incrementAndGet(), listDTO, objectMapper);
+		return snapshot;
+	}
+
 }
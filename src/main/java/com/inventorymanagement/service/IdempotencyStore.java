@@ -0,0 +1,168 @@
+package com.inventorymanagement.service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventorymanagement.dao.IdempotencyRecordRepository;
+import com.inventorymanagement.entity.IdempotencyRecord;
+
+/**
+ * Remembers the response of each request sent with an 'Idempotency-Key' header
+ * so a retry gets the original response instead of creating a second order or
+ * product. The status, body and a hash of the request are kept, so a retry gets
+ * the same status and a reused key with another body can be refused. Recent
+ * responses are kept in a cache with a time-to-live, bounded by the memory its
+ * entries take rather than their number, so that many small responses fit in
+ * the budget and a few large ones cannot exceed it; every response is also
+ * written to the 'idempotency_record' table so replays survive a restart or
+ * eviction from the cache.
+ * <p>
+ * Both guarantees are best-effort. The in-flight marker is held in this node's
+ * memory, so it only stops concurrent retries that reach the same node, and a
+ * response that fails to persist is logged and kept in memory only.
+ */
+@Component
+public class IdempotencyStore {
+
+	/**
+	 * Logger instance that helps in recording log messages for the
+	 * IdempotencyStore class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(IdempotencyStore.class);
+
+	/**
+	 * Approximate bytes taken by a cached entry besides its key and response:
+	 * the record, its date, its hash and the cache's own node.
+	 */
+	private static final int ENTRY_OVERHEAD = 256;
+
+	/**
+	 * Recent responses keyed by request path and key.
+	 */
+	private final Cache<String, IdempotencyRecord> responses;
+
+	/**
+	 * Keys whose original request is still being processed.
+	 */
+	private final Map<String, Boolean> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Repository used to persist responses.
+	 */
+	private final IdempotencyRecordRepository repository;
+
+	/**
+	 * How long a key is honoured.
+	 */
+	private final Duration ttl;
+
+	/**
+	 * Constructor for IdempotencyStore.
+	 *
+	 * @param repository the idempotency record repository to be injected.
+	 * @param maxMemoryMb the memory the cached responses may take, in megabytes.
+	 * @param ttlHours    how long a key is honoured, in hours.
+	 */
+	public IdempotencyStore(final IdempotencyRecordRepository repository,
+			@Value("${inventory.idempotency.max-memory-mb:256}") final long maxMemoryMb,
+			@Value("${inventory.idempotency.ttl-hours:24}") final long ttlHours) {
+		this.repository = repository;
+		this.ttl = Duration.ofHours(ttlHours);
+		this.responses = Caffeine.newBuilder().maximumWeight(maxMemoryMb * 1024 * 1024)
+				.weigher(IdempotencyStore::weigh).expireAfterWrite(ttl).build();
+	}
+
+	/**
+	 * Returns the approximate number of bytes a cached response takes.
+	 */
+	private static int weigh(final String requestKey, final IdempotencyRecord record) {
+		final byte[] response = record.getResponse();
+		return ENTRY_OVERHEAD + 2 * requestKey.length() + (response == null ? 0 : response.length);
+	}
+
+	/**
+	 * Looks up the stored response for a key, first in memory and then in the
+	 * database.
+	 *
+	 * @param requestKey the request path and key.
+	 * @return the stored response, or null if the key has not been seen.
+	 */
+	public IdempotencyRecord find(final String requestKey) {
+		final IdempotencyRecord cached = responses.getIfPresent(requestKey);
+		if (cached != null) {
+			return cached;
+		}
+		final IdempotencyRecord record = repository.findById(requestKey).orElse(null);
+		if (record == null || record.getCreatedDate().getTime() < System.currentTimeMillis() - ttl.toMillis()) {
+			return null;
+		}
+		responses.put(requestKey, record);
+		return record;
+	}
+
+	/**
+	 * Marks a key as being processed.
+	 *
+	 * @param requestKey the request path and key.
+	 * @return false if another request with the same key is already in progress.
+	 */
+	public boolean begin(final String requestKey) {
+		return inFlight.putIfAbsent(requestKey, Boolean.TRUE) == null;
+	}
+
+	/**
+	 * Stores the response of a completed request and releases its key.
+	 *
+	 * @param requestKey  the request path and key.
+	 * @param requestHash the hex SHA-256 of the request body.
+	 * @param status      the HTTP status of the response.
+	 * @param response    the response body.
+	 */
+	public void complete(final String requestKey, final String requestHash, final int status,
+			final byte[] response) {
+		try {
+			final IdempotencyRecord record = new IdempotencyRecord(requestKey, requestHash, status, response,
+					new Date());
+			responses.put(requestKey, record);
+			repository.save(record);
+		} catch (DataAccessException e) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Failed to persist idempotency key {}: {}", requestKey, e.getMessage());
+			}
+		} finally {
+			inFlight.remove(requestKey);
+		}
+	}
+
+	/**
+	 * Releases a key without storing a response, so the request may be retried.
+	 *
+	 * @param requestKey the request path and key.
+	 */
+	public void abandon(final String requestKey) {
+		inFlight.remove(requestKey);
+	}
+
+	/**
+	 * Deletes persisted responses older than the time-to-live.
+	 */
+	@Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:3600000}")
+	public void purge() {
+		final int deleted = repository.deleteCreatedBefore(new Date(System.currentTimeMillis() - ttl.toMillis()));
+		if (deleted > 0 && LOG.isInfoEnabled()) {
+			LOG.info("Purged {} expired idempotency keys", deleted);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.inventorymanagement.service;
+
+import java.util.List;
+
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Immutable, pre-serialized JSON snapshot of a list served by a read endpoint.
+ * The list is written to bytes once when the snapshot is built, so serving it
+ * costs neither a query nor a Jackson pass, and its strong ETag lets clients
+ * revalidate with If-None-Match.
+ */
+public final class JsonSnapshot {
+
+	/**
+	 * Version of the snapshot; a newer snapshot of the same list always has a
+	 * higher version.
+	 */
+	private final long version;
+
+	/**
+	 * Strong entity tag, quoted, made of the version and a digest of the body.
+	 */
+	private final String etag;
+
+	/**
+	 * The serialized list. Never modified after construction.
+	 */
+	private final byte[] body;
+
+	/**
+	 * Number of elements in the serialized list.
+	 */
+	private final int size;
+
+	/**
+	 * Constructor for JsonSnapshot.
+	 */
+	private JsonSnapshot(final long version, final byte[] body, final int size) {
+		this.version = version;
+		this.etag = "\"" + version + "-" + DigestUtils.md5DigestAsHex(body) + "\"";
+		this.body = body;
+		this.size = size;
+	}
+
+	/**
+	 * Serializes a list into a new snapshot.
+	 *
+	 * @param version      the version of the new snapshot.
+	 * @param items        the elements to be served.
+	 * @param objectMapper the mapper used to write the JSON.
+	 * @return the snapshot.
+	 * @throws IllegalStateException if the list cannot be serialized.
+	 */
+	public static JsonSnapshot of(final long version, final List<?> items, final ObjectMapper objectMapper) {
+		try {
+			return new JsonSnapshot(version, objectMapper.writeValueAsBytes(items), items.size());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unable to serialize snapshot", e);
+		}
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Returns the serialized list. The array is shared and must not be modified.
+	 *
+	 * @return the JSON bytes.
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+}
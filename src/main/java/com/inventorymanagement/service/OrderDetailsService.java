@@ -1,17 +1,40 @@
 package com.inventorymanagement.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.inventorymanagement.bo.ChangeLog;
 import com.inventorymanagement.bo.OrderDetailsBO;
+import com.inventorymanagement.bo.ProductBO;
+import com.inventorymanagement.bo.Reservation;
+import com.inventorymanagement.bo.ReservationBO;
+import com.inventorymanagement.bo.SingleFlight;
 import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ProductStockCustomized;
 import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.OrderResultDTO;
+import com.inventorymanagement.dto.OrderResultDTO.Status;
+import com.inventorymanagement.dto.ReservationDTO;
+import com.inventorymanagement.entity.CacheChange;
 import com.inventorymanagement.entity.OrderDetails;
 import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Service class responsible for handling order details-related operations. It
  * interacts with the OrderDetailsBO to perform business logic related to order
@@ -26,6 +49,27 @@ public class OrderDetailsService {
 	@Autowired
 	/* default */OrderDetailsBO orderBO = null;
 
+	/**
+	 * Business object (BO) used for stock operations. Injected by Spring through
+	 * the @Autowired annotation.
+	 */
+	@Autowired
+	/* default */ProductBO productBO;
+
+	/**
+	 * Business object (BO) used for stock reservations. Injected by Spring through
+	 * the @Autowired annotation.
+	 */
+	@Autowired
+	/* default */ReservationBO reservationBO;
+
+	/**
+	 * Service whose product cache is cleared when an order changes stock.
+	 * Injected by Spring through the @Autowired annotation.
+	 */
+	@Autowired
+	/* default */ProductService productService;
+
 	/**
 	 * Repository used for accessing product data. Injected by Spring through
 	 * the @Autowired annotation.
@@ -33,17 +77,37 @@ public class OrderDetailsService {
 	@Autowired
 	/* default */ProductRepository productRepository;
 
+	/**
+	 * Log through which other nodes learn of stock changes. Injected by Spring
+	 * through the @Autowired annotation.
+	 */
+	@Autowired
+	/* default */ChangeLog changeLog;
+
+	/**
+	 * Coalesces concurrent lookups of the same page of the orders of a product
+	 * into one query, keyed by product ID, cursor and limit.
+	 */
+	private final SingleFlight<List<Integer>, List<OrderDetailsDTO>> productOrderLoads;
+
 	/**
 	 * Constructor for OrderDetailsService.
 	 * 
-	 * @param orderBO           The OrderDetailsBO instance to be used by this
-	 *                          service.
-	 * @param productRepository The ProductRepository instance for accessing product
-	 *                          data.
+	 * @param orderBO                   The OrderDetailsBO instance to be used by
+	 *                                  this service.
+	 * @param productRepository         The ProductRepository instance for
+	 *                                  accessing product data.
+	 * @param meterRegistry             The registry for coalescing metrics.
+	 * @param singleFlightTimeoutMillis How long a lookup waits for an identical
+	 *                                  one already in flight.
 	 */
-	public OrderDetailsService(final OrderDetailsBO orderBO, final ProductRepository productRepository) {
+	public OrderDetailsService(final OrderDetailsBO orderBO, final ProductRepository productRepository,
+			final MeterRegistry meterRegistry,
+			@Value("${inventory.single-flight.timeout-ms:2000}") final long singleFlightTimeoutMillis) {
 		this.orderBO = orderBO;
 		this.productRepository = productRepository;
+		this.productOrderLoads = new SingleFlight<>("findProductOrderDetails", singleFlightTimeoutMillis,
+				meterRegistry);
 	}
 
 	/**
@@ -56,6 +120,194 @@ public class OrderDetailsService {
 		return orderBO.insert(order);
 	}
 
+	/**
+	 * Saves a changed order detail together with the stock of its product, which
+	 * the caller has already adjusted, and logs the stock change in the same
+	 * transaction.
+	 * 
+	 * @param order The order detail to be saved.
+	 * @return The saved order detail.
+	 */
+	@Transactional
+	public OrderDetails update(final OrderDetails order) {
+		final OrderDetails saved = orderBO.insert(order);
+		final int productId = saved.getProduct().getProductId();
+		productService.evictProduct(productId);
+		changeLog.record(CacheChange.Kind.STOCK, productId);
+		return saved;
+	}
+
+	/**
+	 * Places an order: deducts the stock with a guarded update and inserts the
+	 * order detail in the same transaction, so either both happen or neither does.
+	 * 
+	 * @param dto The order to be placed.
+	 * @return The inserted order detail.
+	 * @throws ResourceNotFoundException If the product is not found.
+	 */
+	@Transactional(rollbackFor = ResourceNotFoundException.class)
+	public OrderDetails placeOrder(final OrderDetailsDTO dto) throws ResourceNotFoundException {
+		productBO.decrementStock(dto.getProductId(), dto.getOrderedQuantity());
+		productService.evictProduct(dto.getProductId());
+		return insertOrder(dto.getProductId(), dto.getOrderedQuantity());
+	}
+
+	/**
+	 * Tells whether stock can be held before it is ordered.
+	 * 
+	 * @return true if reservations are enabled.
+	 */
+	public boolean isReservationEnabled() {
+		return reservationBO.isEnabled();
+	}
+
+	/**
+	 * Holds stock for a product without creating an order.
+	 * 
+	 * @param productId  The ID of the product.
+	 * @param quantity   The quantity to hold.
+	 * @param ttlSeconds How long the hold lasts.
+	 * @return The new reservation.
+	 * @throws ResourceNotFoundException If the product is not found.
+	 */
+	public ReservationDTO reserve(final int productId, final int quantity, final long ttlSeconds)
+			throws ResourceNotFoundException {
+		return mapToDTO(reservationBO.reserve(productId, quantity, ttlSeconds * 1000));
+	}
+
+	/**
+	 * Turns a reservation into an order. The held stock is deducted in the same
+	 * transaction as the order insert; the hold is released once that commits and
+	 * kept if it does not.
+	 * 
+	 * @param reservationId The ID of the reservation.
+	 * @return The inserted order detail.
+	 * @throws ResourceNotFoundException If the reservation is unknown or expired.
+	 */
+	@Transactional(rollbackFor = ResourceNotFoundException.class)
+	public OrderDetails confirmReservation(final String reservationId) throws ResourceNotFoundException {
+		final Reservation reservation = reservationBO.claim(reservationId);
+		productBO.decrementStock(reservation.getProductId(), reservation.getQuantity(), reservation.getQuantity());
+		productService.evictProduct(reservation.getProductId());
+		return insertOrder(reservation.getProductId(), reservation.getQuantity());
+	}
+
+	/**
+	 * Returns the product held by a reservation.
+	 * 
+	 * @param reservationId The ID of the reservation.
+	 * @return The ID of the held product.
+	 * @throws ResourceNotFoundException If the reservation is unknown or expired.
+	 */
+	public int reservedProductId(final String reservationId) throws ResourceNotFoundException {
+		return reservationBO.productOf(reservationId);
+	}
+
+	/**
+	 * Releases a reservation, returning its stock to other orders.
+	 * 
+	 * @param reservationId The ID of the reservation.
+	 * @return The released reservation.
+	 * @throws ResourceNotFoundException If the reservation is unknown or expired.
+	 */
+	public ReservationDTO releaseReservation(final String reservationId) throws ResourceNotFoundException {
+		return mapToDTO(reservationBO.release(reservationId));
+	}
+
+	/**
+	 * Inserts an order detail for stock that was already deducted.
+	 */
+	private OrderDetails insertOrder(final int productId, final int quantity) {
+		final OrderDetails orderDetails = new OrderDetails();
+		orderDetails.setOrderedQuantity(quantity);
+		orderDetails.setProduct(productRepository.getReferenceById(productId));
+		return orderBO.insert(orderDetails);
+	}
+
+	/**
+	 * Places several orders in one transaction. All referenced products are read
+	 * with a single query, stock is deducted once per product with a guarded
+	 * update and the accepted order details are inserted as one JDBC batch.
+	 * Rejected lines do not affect the others.
+	 * 
+	 * @param dtos The orders to be placed.
+	 * @return One result per order, in request order.
+	 */
+	@Transactional
+	public List<OrderResultDTO> placeOrders(final List<OrderDetailsDTO> dtos) {
+		final Set<Integer> productIds = dtos.stream().map(OrderDetailsDTO::getProductId).collect(Collectors.toSet());
+		final Map<Integer, ProductStockCustomized> levels = new HashMap<>();
+		for (final ProductStockCustomized level : productRepository.findStockLevels(productIds)) {
+			levels.put(level.getProductId(), level);
+		}
+
+		// Validate every line against the stock left after the lines before it
+		final OrderResultDTO[] results = new OrderResultDTO[dtos.size()];
+		final Map<Integer, Integer> remaining = new HashMap<>();
+		final Map<Integer, List<Integer>> accepted = new LinkedHashMap<>();
+		for (int i = 0; i < dtos.size(); i++) {
+			final OrderDetailsDTO dto = dtos.get(i);
+			final ProductStockCustomized level = levels.get(dto.getProductId());
+			if (level == null) {
+				results[i] = new OrderResultDTO(Status.NOT_FOUND, "Product not found with ID: " + dto.getProductId(),
+						null);
+				continue;
+			}
+			final int left = remaining.computeIfAbsent(level.getProductId(), id -> productBO.availableStock(level));
+			if (left <= 0) {
+				results[i] = new OrderResultDTO(Status.OUT_OF_STOCK,
+						"Product " + level.getProductName() + " is out of stock.", null);
+			} else if (left < dto.getOrderedQuantity()) {
+				results[i] = new OrderResultDTO(Status.INSUFFICIENT_STOCK,
+						"Insufficient stock for product: " + level.getProductName(), null);
+			} else {
+				remaining.put(level.getProductId(), left - dto.getOrderedQuantity());
+				accepted.computeIfAbsent(level.getProductId(), id -> new ArrayList<>()).add(i);
+			}
+		}
+
+		// Deduct the total per product; a concurrent order may still win the race
+		final List<OrderDetails> orders = new ArrayList<>();
+		final List<Integer> orderLines = new ArrayList<>();
+		for (final Map.Entry<Integer, List<Integer>> entry : accepted.entrySet()) {
+			final int productId = entry.getKey();
+			final int total = entry.getValue().stream().mapToInt(i -> dtos.get(i).getOrderedQuantity()).sum();
+			try {
+				productBO.decrementStock(productId, total);
+			} catch (OutOfStockException | InsufficientStockException | ResourceNotFoundException e) {
+				final Status status = e instanceof OutOfStockException ? Status.OUT_OF_STOCK
+						: e instanceof InsufficientStockException ? Status.INSUFFICIENT_STOCK : Status.NOT_FOUND;
+				for (final int line : entry.getValue()) {
+					results[line] = new OrderResultDTO(status, e.getMessage(), null);
+				}
+				continue;
+			}
+			productService.evictProduct(productId);
+			final Product product = productRepository.getReferenceById(productId);
+			for (final int line : entry.getValue()) {
+				final OrderDetails orderDetails = new OrderDetails();
+				orderDetails.setOrderedQuantity(dtos.get(line).getOrderedQuantity());
+				orderDetails.setProduct(product);
+				orders.add(orderDetails);
+				orderLines.add(line);
+			}
+		}
+
+		final List<OrderDetails> saved = orderBO.insertAll(orders);
+		for (int i = 0; i < saved.size(); i++) {
+			final OrderDetails orderDetails = saved.get(i);
+			final OrderDetailsDTO dto = new OrderDetailsDTO();
+			dto.setOrderId(orderDetails.getOrderId());
+			dto.setOrderedQuantity(orderDetails.getOrderedQuantity());
+			dto.setOrderedDate(orderDetails.getOrderedDate());
+			dto.setDeliveryDate(orderDetails.getDeliveryDate());
+			dto.setProductId(orderDetails.getProduct().getProductId());
+			dto.setProductName(levels.get(dto.getProductId()).getProductName());
+			results[orderLines.get(i)] = new OrderResultDTO(Status.SUCCESS, null, dto);
+		}
+		return Arrays.asList(results);
+	}
+
 	/**
 	 * Finds an order detail by its ID.
 	 * 
@@ -69,30 +321,52 @@ public class OrderDetailsService {
 	}
 
 	/**
-	 * Finds all order details in the system.
+	 * Finds the next page of order details in the system.
 	 * 
-	 * @return A list of all order details.
+	 * @param afterId The last order ID of the previous page, or 0.
+	 * @param limit   The number of orders to be read.
+	 * @return The order details after the given ID, in ID order.
 	 */
-	public List<OrderDetails> findOrderDetails() {
-		return orderBO.findOrderDetails();
+	public List<OrderDetailsDTO> findOrderDetails(final int afterId, final int limit) {
+		return orderBO.findOrderDetails(afterId, limit);
 
 	}
 
 	/**
-	 * Finds all order details for a specific product.
+	 * Finds the next page of order details for a specific product.
 	 * 
 	 * @param productId The ID of the product whose order details are to be found.
+	 * @param afterId   The last order ID of the previous page, or 0.
+	 * @param limit     The number of orders to be read.
 	 * @return A list of order details associated with the specified product.
 	 * @throws ResourceNotFoundException If the product is not found.
 	 */
-	public List<OrderDetails> findProductOrderDetails(final int productId) throws ResourceNotFoundException {
-		final Product product = productRepository.findById(productId)
-				.orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-		final List<OrderDetails> orderDetailsList = product.getOrder();
+	public List<OrderDetailsDTO> findProductOrderDetails(final int productId, final int afterId, final int limit)
+			throws ResourceNotFoundException {
+		if (!productRepository.existsById(productId)) {
+			throw new ResourceNotFoundException("Product not found with id: " + productId);
+		}
+		final List<OrderDetailsDTO> orderDetailsList = orderBO.findProductOrderDetails(productId, afterId, limit);
 		return orderDetailsList;
 
 	}
 
+	/**
+	 * Finds the next page of order details of a product as DTOs. Concurrent
+	 * lookups for the same page share one query and one unmodifiable result.
+	 * 
+	 * @param productId The ID of the product.
+	 * @param afterId   The last order ID of the previous page, or 0.
+	 * @param limit     The number of orders to be read.
+	 * @return The order details of the product.
+	 * @throws ResourceNotFoundException If the product is not found.
+	 */
+	public List<OrderDetailsDTO> findProductOrderDetailDTOs(final int productId, final int afterId, final int limit)
+			throws ResourceNotFoundException {
+		return productOrderLoads.execute(List.of(productId, afterId, limit),
+				() -> List.copyOf(findProductOrderDetails(productId, afterId, limit)));
+	}
+
 	/**
 	 * Maps an OrderDetails entity to its corresponding DTO.
 	 * 
@@ -138,4 +412,19 @@ public class OrderDetailsService {
 		}
 		return orderDetails;
 	}
+
+	/**
+	 * Maps a Reservation to its corresponding DTO.
+	 * 
+	 * @param reservation The Reservation to be mapped.
+	 * @return The corresponding ReservationDTO.
+	 */
+	public ReservationDTO mapToDTO(final Reservation reservation) {
+		final ReservationDTO dto = new ReservationDTO();
+		dto.setReservationId(reservation.getReservationId());
+		dto.setProductId(reservation.getProductId());
+		dto.setQuantity(reservation.getQuantity());
+		dto.setExpiresAt(reservation.getExpiresAt());
+		return dto;
+	}
 }
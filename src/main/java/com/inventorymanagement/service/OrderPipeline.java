@@ -0,0 +1,400 @@
+package com.inventorymanagement.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.OrderResultDTO;
+import com.inventorymanagement.dto.OrderStatusDTO;
+import com.inventorymanagement.exception.CustomException;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional single-writer order intake. Orders are routed by product ID to a
+ * fixed number of partitions, each with a bounded queue and one consumer thread.
+ * Since a product is only ever written by its own partition, request threads no
+ * longer contend on the Product row; the consumer group-commits whatever has
+ * queued up through {@link OrderDetailsService#placeOrders}.
+ *
+ * Enabled with {@code inventory.order-pipeline.enabled=true}, in which case a
+ * request waits for its order to be committed. With
+ * {@code inventory.order-pipeline.async=true} a request only queues its order
+ * and gets a token back; the outcome is polled with {@link #status}.
+ *
+ * The async mode is single-node and not durable. Queued orders and their
+ * statuses live only in this node's memory: an order answered 202 is lost if
+ * the node stops or crashes before its batch commits, and its token is unknown
+ * to every other node behind the load balancer. Use it only on a single node,
+ * where a client that never sees ACCEPTED may place the order again.
+ */
+@Component
+public class OrderPipeline {
+
+	/**
+	 * Logger instance that helps in recording log messages for the OrderPipeline
+	 * class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(OrderPipeline.class);
+
+	/**
+	 * An order waiting in a partition queue together with its completion.
+	 */
+	private static final class PendingOrder {
+
+		/**
+		 * The order to be placed.
+		 */
+		private final OrderDetailsDTO order;
+
+		/**
+		 * Completed with the created order or the reason it was rejected.
+		 */
+		private final CompletableFuture<OrderDetailsDTO> result = new CompletableFuture<>();
+
+		/**
+		 * Constructs a new PendingOrder.
+		 */
+		private PendingOrder(final OrderDetailsDTO order) {
+			this.order = order;
+		}
+	}
+
+	/**
+	 * Service used to commit each batch.
+	 */
+	private final OrderDetailsService orderService;
+
+	/**
+	 * Router that commits each batch on the shards of its products.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Whether the pipeline is enabled.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Whether requests return as soon as their order is queued.
+	 */
+	private final boolean async;
+
+	/**
+	 * Progress of asynchronously accepted orders keyed by token. Entries expire
+	 * so that tokens nobody polls do not accumulate.
+	 */
+	private final Cache<String, OrderStatusDTO> statuses;
+
+	/**
+	 * One bounded queue per partition.
+	 */
+	private final List<BlockingQueue<PendingOrder>> queues = new ArrayList<>();
+
+	/**
+	 * One consumer thread per partition.
+	 */
+	private final List<Thread> consumers = new ArrayList<>();
+
+	/**
+	 * Maximum number of orders committed in one transaction.
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * Longest time the first order of a batch waits for more orders.
+	 */
+	private final long maxLatencyNanos;
+
+	/**
+	 * Longest time a request waits for its order to be committed.
+	 */
+	private final long awaitTimeoutMillis;
+
+	/**
+	 * Cleared on shutdown to stop the consumers.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * Constructor for OrderPipeline.
+	 *
+	 * @param orderService       the order details service to be injected.
+	 * @param shardRouter        the shard router to be injected.
+	 * @param enabled            whether the pipeline is enabled.
+	 * @param async              whether requests return once their order is
+	 *                           queued.
+	 * @param partitions         the number of partitions.
+	 * @param queueCapacity      the capacity of each partition queue.
+	 * @param maxBatchSize       the maximum number of orders per transaction.
+	 * @param maxLatencyMillis   the longest time an order waits for a batch.
+	 * @param awaitTimeoutMillis the longest time a request waits for its order.
+	 * @param statusTtlMinutes   how long the outcome of an async order is kept.
+	 */
+	public OrderPipeline(final OrderDetailsService orderService, final ShardRouter shardRouter,
+			@Value("${inventory.order-pipeline.enabled:false}") final boolean enabled,
+			@Value("${inventory.order-pipeline.async:false}") final boolean async,
+			@Value("${inventory.order-pipeline.partitions:4}") final int partitions,
+			@Value("${inventory.order-pipeline.queue-capacity:1024}") final int queueCapacity,
+			@Value("${inventory.order-pipeline.max-batch-size:100}") final int maxBatchSize,
+			@Value("${inventory.order-pipeline.max-latency-ms:5}") final long maxLatencyMillis,
+			@Value("${inventory.order-pipeline.await-timeout-ms:5000}") final long awaitTimeoutMillis,
+			@Value("${inventory.order-pipeline.status-ttl-minutes:60}") final long statusTtlMinutes) {
+		this.orderService = orderService;
+		this.shardRouter = shardRouter;
+		this.enabled = enabled || async;
+		this.async = async;
+		this.statuses = Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(statusTtlMinutes)).build();
+		this.maxBatchSize = maxBatchSize;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+		this.awaitTimeoutMillis = awaitTimeoutMillis;
+		if (this.enabled) {
+			for (int i = 0; i < partitions; i++) {
+				final BlockingQueue<PendingOrder> queue = new ArrayBlockingQueue<>(queueCapacity);
+				queues.add(queue);
+				final Thread consumer = new Thread(() -> consume(queue), "order-pipeline-" + i);
+				consumer.setDaemon(true);
+				consumers.add(consumer);
+			}
+		}
+	}
+
+	/**
+	 * Tells whether orders are placed through the pipeline.
+	 *
+	 * @return true if the pipeline is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Tells whether requests return as soon as their order is queued.
+	 *
+	 * @return true if orders are accepted asynchronously.
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * Starts the consumer threads.
+	 */
+	@PostConstruct
+	public void start() {
+		consumers.forEach(Thread::start);
+		if (enabled && LOG.isInfoEnabled()) {
+			LOG.info("Order pipeline started with {} partitions", consumers.size());
+		}
+		if (async && LOG.isWarnEnabled()) {
+			LOG.warn("Async order intake is enabled: accepted orders are held in memory until committed and are "
+					+ "lost if this node stops, and order tokens are only known to this node. Run a single node.");
+		}
+	}
+
+	/**
+	 * Stops the consumer threads. Orders still queued are failed.
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		consumers.forEach(Thread::interrupt);
+	}
+
+	/**
+	 * Queues an order on the partition that owns its product.
+	 *
+	 * @param order the order to be placed.
+	 * @return completed with the created order, or exceptionally with the reason
+	 *         it was rejected.
+	 */
+	public CompletableFuture<OrderDetailsDTO> submit(final OrderDetailsDTO order) {
+		final PendingOrder pending = new PendingOrder(order);
+		final BlockingQueue<PendingOrder> queue = queues.get(Math.floorMod(order.getProductId(), queues.size()));
+		if (!queue.offer(pending)) {
+			pending.result.completeExceptionally(new CustomException("Order queue is full, please retry."));
+		}
+		return pending.result;
+	}
+
+	/**
+	 * Queues an order and waits until it is committed or rejected.
+	 *
+	 * @param order the order to be placed.
+	 * @return the created order.
+	 * @throws ResourceNotFoundException  if the product is not found.
+	 * @throws OutOfStockException        if the product is out of stock.
+	 * @throws InsufficientStockException if there is not enough stock available.
+	 */
+	public OrderDetailsDTO placeOrder(final OrderDetailsDTO order) throws ResourceNotFoundException {
+		try {
+			return submit(order).get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof ResourceNotFoundException) {
+				throw (ResourceNotFoundException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new CustomException("Order could not be placed: " + e.getCause().getMessage());
+		} catch (TimeoutException e) {
+			throw new CustomException("Timed out waiting for the order to be placed.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CustomException("Interrupted while waiting for the order to be placed.");
+		}
+	}
+
+	/**
+	 * Queues an order without waiting for it. The returned token is used to poll
+	 * for the outcome with {@link #status}.
+	 *
+	 * @param order the order to be placed.
+	 * @return the pending status of the order, carrying its token.
+	 * @throws CustomException if the partition queue is full.
+	 */
+	public OrderStatusDTO accept(final OrderDetailsDTO order) {
+		final String token = UUID.randomUUID().toString();
+		final OrderStatusDTO pending = new OrderStatusDTO(token, OrderStatusDTO.Status.PENDING, null, null);
+		statuses.put(token, pending);
+		final CompletableFuture<OrderDetailsDTO> future = submit(order);
+		if (future.isCompletedExceptionally()) {
+			statuses.invalidate(token);
+			throw new CustomException("Order queue is full, please retry.");
+		}
+		future.whenComplete((created, failure) -> {
+			if (failure == null) {
+				statuses.put(token, new OrderStatusDTO(token, OrderStatusDTO.Status.ACCEPTED, null, created));
+			} else {
+				statuses.put(token,
+						new OrderStatusDTO(token, OrderStatusDTO.Status.REJECTED, failure.getMessage(), null));
+			}
+		});
+		return pending;
+	}
+
+	/**
+	 * Returns the progress of an asynchronously accepted order.
+	 *
+	 * @param token the token returned when the order was queued.
+	 * @return the status of the order.
+	 * @throws ResourceNotFoundException if the token is unknown or expired.
+	 */
+	public OrderStatusDTO status(final String token) throws ResourceNotFoundException {
+		final OrderStatusDTO status = statuses.getIfPresent(token);
+		if (status == null) {
+			throw new ResourceNotFoundException("Order token not found or expired: " + token);
+		}
+		return status;
+	}
+
+	/**
+	 * Consumer loop of one partition: waits for an order, gathers more until the
+	 * batch is full or the latency budget is spent, then commits the batch.
+	 */
+	private void consume(final BlockingQueue<PendingOrder> queue) {
+		final List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+		while (running) {
+			try {
+				final PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				final long deadline = System.nanoTime() + maxLatencyNanos;
+				while (batch.size() < maxBatchSize) {
+					queue.drainTo(batch, maxBatchSize - batch.size());
+					final long wait = deadline - System.nanoTime();
+					if (batch.size() >= maxBatchSize || wait <= 0) {
+						break;
+					}
+					final PendingOrder next = queue.poll(wait, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				commit(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} finally {
+				batch.clear();
+			}
+		}
+		for (PendingOrder pending = queue.poll(); pending != null; pending = queue.poll()) {
+			pending.result.completeExceptionally(new CustomException("Order pipeline is shutting down."));
+		}
+	}
+
+	/**
+	 * Commits one batch, one transaction per shard, and completes every order
+	 * with its own result. A shard whose transaction fails only fails its own
+	 * orders.
+	 */
+	private void commit(final List<PendingOrder> batch) {
+		final Map<Integer, List<PendingOrder>> byShard = new TreeMap<>();
+		for (final PendingOrder pending : batch) {
+			byShard.computeIfAbsent(shardRouter.shardOf(pending.order.getProductId()), shard -> new ArrayList<>())
+					.add(pending);
+		}
+		byShard.forEach(this::commitOnShard);
+	}
+
+	/**
+	 * Commits the orders of one shard in one transaction.
+	 */
+	private void commitOnShard(final int shard, final List<PendingOrder> batch) {
+		final List<OrderDetailsDTO> orders = new ArrayList<>(batch.size());
+		batch.forEach(pending -> orders.add(pending.order));
+		try {
+			final List<OrderResultDTO> results = shardRouter.onShard(shard, () -> orderService.placeOrders(orders));
+			for (int i = 0; i < batch.size(); i++) {
+				final OrderResultDTO result = results.get(i);
+				final CompletableFuture<OrderDetailsDTO> future = batch.get(i).result;
+				switch (result.getStatus()) {
+				case SUCCESS:
+					future.complete(result.getOrder());
+					break;
+				case OUT_OF_STOCK:
+					future.completeExceptionally(new OutOfStockException(result.getMessage()));
+					break;
+				case INSUFFICIENT_STOCK:
+					future.completeExceptionally(new InsufficientStockException(result.getMessage()));
+					break;
+				default:
+					future.completeExceptionally(new ResourceNotFoundException(result.getMessage()));
+					break;
+				}
+			}
+		} catch (RuntimeException e) {
+			if (LOG.isErrorEnabled()) {
+				LOG.error("Order batch of {} on shard {} failed: {}", batch.size(), shard, e.getMessage());
+			}
+			batch.forEach(pending -> pending.result.completeExceptionally(e));
+		}
+	}
+
+}
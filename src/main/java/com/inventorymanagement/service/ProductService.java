@@ -1,28 +1,35 @@
 package com.inventorymanagement.service;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventorymanagement.bo.CatalogVersion;
 import com.inventorymanagement.bo.OrderDetailsBO;
 import com.inventorymanagement.bo.ProductBO;
+import com.inventorymanagement.bo.SingleFlight;
 import com.inventorymanagement.dao.BrandRepository;
-import com.inventorymanagement.dao.CategoryPriceCustomized;
 import com.inventorymanagement.dao.CategoryRepository;
-import com.inventorymanagement.dao.CustomerOrderReportCustomized;
 import com.inventorymanagement.dao.ProductBrandCustomized;
-import com.inventorymanagement.dao.ProductCategoryCustomized;
 import com.inventorymanagement.dao.ProductCustomized;
-import com.inventorymanagement.dao.ProductOrderCBCustomized;
 import com.inventorymanagement.dao.ProductOrderCustomized;
 import com.inventorymanagement.dao.ProductRepository;
 import com.inventorymanagement.dao.ProductUpper;
-import com.inventorymanagement.dao.SalesReportCustomized;
 import com.inventorymanagement.dto.ProductDTO;
 import com.inventorymanagement.entity.Product;
 import com.inventorymanagement.exception.ResourceNotFoundException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 /**
  * Service class responsible for handling product-related operations. It
  * interacts with the ProductBO and various repositories to perform business
@@ -45,6 +52,13 @@ public class ProductService {
 	@Autowired
 	/* default */OrderDetailsBO bo2;
 
+	/**
+	 * Catalog version moved whenever a product changes. Injected by Spring
+	 * through the @Autowired annotation.
+	 */
+	@Autowired
+	/* default */CatalogVersion catalogVersion;
+
 	/**
 	 * Repository used for accessing product data. Initialized via constructor
 	 * injection.
@@ -63,16 +77,41 @@ public class ProductService {
 	 */
 	private final CategoryRepository categoryRepo;
 
+	/**
+	 * Read-through cache of single products keyed by product ID. Bounded in size
+	 * and age; entries are dropped whenever the product or its stock changes.
+	 * Hit, miss and eviction counts are published as the 'products' cache
+	 * metrics.
+	 */
+	private final Cache<Integer, ProductDTO> productCache;
+
+	/**
+	 * Maximum number of entries in {@link #productCache}.
+	 */
+	private final long productCacheCapacity;
+
+	/**
+	 * Coalesces concurrent cache misses for the same product into one query.
+	 */
+	private final SingleFlight<Integer, ProductDTO> productLoads;
+
 	/**
 	 * Constructor for ProductService.
 	 */
 	@Autowired
 	public ProductService(final ProductRepository productRepository, final BrandRepository brandRepository,
-			final CategoryRepository categoryRepo) {
+			final CategoryRepository categoryRepo, final MeterRegistry meterRegistry,
+			@Value("${inventory.product-cache.max-size:100000}") final long cacheMaxSize,
+			@Value("${inventory.product-cache.ttl-seconds:30}") final long cacheTtlSeconds,
+			@Value("${inventory.single-flight.timeout-ms:2000}") final long singleFlightTimeoutMillis) {
 		this.productRepository = productRepository;
 		this.brandRepository = brandRepository;
 		this.categoryRepo = categoryRepo;
-
+		this.productCacheCapacity = cacheMaxSize;
+		this.productCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds)).recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, productCache, "products");
+		this.productLoads = new SingleFlight<>("findProductDTO", singleFlightTimeoutMillis, meterRegistry);
 	}
 
 	/**
@@ -85,6 +124,18 @@ public class ProductService {
 		return productBO.insert(product);
 	}
 
+	/**
+	 * Saves changes to an existing product.
+	 * 
+	 * @param product The product to be updated.
+	 * @return The updated product.
+	 */
+	public Product update(final Product product) {
+		final Product updated = productBO.update(product);
+		evictProduct(updated.getProductId());
+		return updated;
+	}
+
 	/**
 	 * Finds a product by its ID.
 	 * 
@@ -98,44 +149,135 @@ public class ProductService {
 	}
 
 	/**
-	 * Finds all products in the system.
+	 * Finds a product by its ID, served from the product cache when possible.
+	 * Concurrent misses for the same product share one query.
 	 * 
-	 * @return A list of all products.
+	 * @param productId The ID of the product to be found.
+	 * @return The product with the specified ID.
+	 * @throws ResourceNotFoundException If the product is not found.
 	 */
-	public List<Product> findProducts() {
-		return productBO.findProducts();
+	public ProductDTO findProductDTO(final int productId) throws ResourceNotFoundException {
+		final ProductDTO cached = productCache.getIfPresent(productId);
+		if (cached != null) {
+			return cached;
+		}
+		return productLoads.execute(productId, () -> loadProductDTO(productId));
+	}
 
+	/**
+	 * Reads a product and caches it, unless it changed while it was being read.
+	 * 
+	 * @param productId The ID of the product to be read.
+	 * @return The product DTO.
+	 * @throws ResourceNotFoundException If the product is not found.
+	 */
+	private ProductDTO loadProductDTO(final int productId) throws ResourceNotFoundException {
+		final long version = catalogVersion.current();
+		final ProductDTO dto = mapToDTO(productBO.findProduct(productId));
+		if (!catalogVersion.isChangedSince(productId, version)) {
+			productCache.put(productId, dto);
+		}
+		return dto;
 	}
 
-	// Queries
 	/**
-	 * Finds products by their ID.
+	 * Loads one page of products, in product ID order, into the product cache.
+	 * Entries already cached and products changed while the page was read are
+	 * left alone, so warming never overwrites fresher data.
 	 * 
-	 * @param productId The ID of the product to be found.
-	 * @return A list of products with the specified ID.
+	 * @param afterId  The last product ID of the previous page, or 0.
+	 * @param pageSize The number of products per page.
+	 * @return The products read; fewer than the page size on the last page.
+	 */
+	public List<ProductDTO> warmProductPage(final int afterId, final int pageSize) {
+		final long version = catalogVersion.current();
+		final List<ProductDTO> page = productRepository.findProductDTOsAfter(afterId, PageRequest.of(0, pageSize));
+		for (final ProductDTO dto : page) {
+			if (!catalogVersion.isChangedSince(dto.getProductId(), version)) {
+				productCache.asMap().putIfAbsent(dto.getProductId(), dto);
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Returns the number of products the product cache can hold.
+	 * 
+	 * @return The maximum size of the product cache.
+	 */
+	public long productCacheCapacity() {
+		return productCacheCapacity;
+	}
+
+	/**
+	 * Drops a product from the product cache after its details or stock changed
+	 * and moves the catalog version. Inside a transaction the entry is dropped
+	 * again after commit, so a read racing with the transaction cannot leave the
+	 * old stock cached.
+	 * 
+	 * @param productId The ID of the product that changed.
+	 */
+	public void evictProduct(final int productId) {
+		productCache.invalidate(productId);
+		productLoads.forget(productId);
+		catalogVersion.changed(productId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					productCache.invalidate(productId);
+					productLoads.forget(productId);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Finds the next page of products in the system.
+	 * 
+	 * @param afterId The last product ID of the previous page, or 0.
+	 * @param limit   The number of products to be read.
+	 * @return The products after the given ID, in ID order.
+	 */
+	public List<ProductDTO> findProducts(final int afterId, final int limit) {
+		return productBO.findProducts(afterId, limit);
+
+	}
+
+	/**
+	 * Finds the products with the given IDs.
+	 * 
+	 * @param productIds The IDs of the products to be found.
+	 * @return The products found; unknown IDs are skipped.
 	 */
-	public List<Product> findProductsById(final int productId) {
-		return productBO.findProductsById(productId);
+	public List<ProductDTO> findProducts(final List<Integer> productIds) {
+		return productBO.findProducts(productIds);
 	}
 
+	// Queries
 	/**
 	 * Finds products by their name.
 	 * 
 	 * @param productName The name of the product to be searched.
+	 * @param afterId     The last product ID of the previous page, or 0.
+	 * @param limit       The number of products to be read.
 	 * @return A list of products with the specified name.
 	 */
-	public List<Product> findProductNames(final String productName) {
-		return productBO.findProductNames(productName);
+	public List<ProductDTO> findProductNames(final String productName, final int afterId, final int limit) {
+		return productBO.findProductNames(productName, afterId, limit);
 	}
 
 	/**
 	 * Finds products with a customized price filter.
 	 * 
-	 * @param price The price to filter products.
+	 * @param price   The price to filter products.
+	 * @param afterId The last product ID of the previous page, or 0.
+	 * @param limit   The number of products to be read.
 	 * @return A list of products matching the specified price filter.
 	 */
-	public List<ProductCustomized> findProductByPriceCustomized(final float price) {
-		return productBO.findProductByPriceCustomized(price);
+	public List<ProductCustomized> findProductByPriceCustomized(final float price, final int afterId,
+			final int limit) {
+		return productBO.findProductByPriceCustomized(price, afterId, limit);
 
 	}
 
@@ -169,39 +311,17 @@ public class ProductService {
 	/**
 	 * Finds products with customized order details based on price.
 	 * 
-	 * @param price The price to filter products.
+	 * @param price          The price to filter products.
+	 * @param afterProductId The product ID of the last row of the previous page,
+	 *                       or 0.
+	 * @param afterOrderId   The order ID of the last row of the previous page, or
+	 *                       0.
+	 * @param limit          The number of rows to be read.
 	 * @return A list of products with customized order details.
 	 */
-	public List<ProductOrderCustomized> findByProductOrderCustomized(final float price) {
-		return productBO.findByProductOrderCustomized(price);
-	}
-
-	/**
-	 * Finds products and their category count.
-	 * 
-	 * @return A list of products and their associated category count.
-	 */
-	public List<ProductCategoryCustomized> findProductsCategoryCount() {
-		return productBO.findProductsCategoryCount();
-	}
-
-	/**
-	 * Finds product order details.
-	 * 
-	 * @return A list of product order details.
-	 */
-	public List<ProductOrderCBCustomized> findProductOrderDetails() {
-		return productBO.findProductOrderDetails();
-
-	}
-
-	/**
-	 * Finds the average price of products grouped by category.
-	 * 
-	 * @return A list of average prices by category.
-	 */
-	public List<CategoryPriceCustomized> findAvergePriceByCategory() {
-		return productBO.findAvergePriceByCategory();
+	public List<ProductOrderCustomized> findByProductOrderCustomized(final float price, final int afterProductId,
+			final int afterOrderId, final int limit) {
+		return productBO.findByProductOrderCustomized(price, afterProductId, afterOrderId, limit);
 	}
 
 	/**
@@ -226,20 +346,12 @@ public class ProductService {
 
 	}
 
-	public List<SalesReportCustomized> generateSalesReport() {
-		return productRepository.generateSalesReport();
-	}
-
-	public List<CustomerOrderReportCustomized> generateCustomerOrderReport(int customerId) {
-		return productRepository.generateCustomerOrderReport(customerId);
-	}
-
-	public List<Product> findProductsByBrandName(String brandName) {
-		return productRepository.findProductsByBrandName(brandName);
+	public List<ProductDTO> findProductsByBrandName(String brandName, int afterId, int limit) {
+		return productBO.findProductsByBrandName(brandName, afterId, limit);
 	}
 
-	public List<Product> findProductsByCategoryName(String categoryName) {
-		return productRepository.findProductsByCategoryName(categoryName);
+	public List<ProductDTO> findProductsByCategoryName(String categoryName, int afterId, int limit) {
+		return productBO.findProductsByCategoryName(categoryName, afterId, limit);
 	}
 
 	public boolean existsByProductName(String productName) {
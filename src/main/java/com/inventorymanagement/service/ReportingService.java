@@ -0,0 +1,163 @@
+package com.inventorymanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.inventorymanagement.dao.ReportingRepository;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.dto.CategoryPriceCustomizedDTO;
+import com.inventorymanagement.dto.CustomerOrderReportCustomizedDTO;
+import com.inventorymanagement.dto.ProductCategoryCustomizedDTO;
+import com.inventorymanagement.dto.ProductOrderCBCustomizedDTO;
+import com.inventorymanagement.dto.SalesReportDTO;
+
+/**
+ * Service for the reports. Reports are read on the reporting pool, outside the
+ * request's persistence context, from every shard in parallel: a report holds
+ * at most one reporting connection of each shard. Shards own ascending ID
+ * ranges, so rows ordered by product ID come out in order; aggregates are
+ * summed per shard and the partial sums combined before they are filtered.
+ * Only the streamed sales report reads the shards in turn, since its rows are
+ * written out in order as they are read.
+ */
+@Component
+public class ReportingService {
+
+	/**
+	 * Smallest product count of a category reported by
+	 * {@link #findProductsCategoryCount()}.
+	 */
+	private static final long MIN_CATEGORY_PRODUCTS = 2;
+
+	/**
+	 * Repository running the reporting queries.
+	 */
+	private final ReportingRepository reportingRepository;
+
+	/**
+	 * Router used to read every shard.
+	 */
+	private final ShardRouter shardRouter;
+
+	/**
+	 * Constructor for ReportingService.
+	 *
+	 * @param reportingRepository the repository running the reporting queries.
+	 * @param shardRouter         the router used to read every shard.
+	 */
+	public ReportingService(final ReportingRepository reportingRepository, final ShardRouter shardRouter) {
+		this.reportingRepository = reportingRepository;
+		this.shardRouter = shardRouter;
+	}
+
+	/**
+	 * Finds the categories holding more than one product, with their product
+	 * count, by category name.
+	 *
+	 * @return the product count of each category.
+	 */
+	public List<ProductCategoryCustomizedDTO> findProductsCategoryCount() {
+		final Map<String, Long> counts = combine(reportingRepository::addCategoryProductCounts, Long::sum);
+		final List<ProductCategoryCustomizedDTO> list = new ArrayList<>();
+		counts.forEach((name, count) -> {
+			if (count >= MIN_CATEGORY_PRODUCTS) {
+				final ProductCategoryCustomizedDTO dto = new ProductCategoryCustomizedDTO();
+				dto.setCategoryName(name);
+				dto.setProductCount(count.intValue());
+				list.add(dto);
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * Finds the average product price of each category, by category name.
+	 *
+	 * @return the average price of each category.
+	 */
+	public List<CategoryPriceCustomizedDTO> findAvergePriceByCategory() {
+		final Map<String, double[]> totals = combine(reportingRepository::addCategoryPriceTotals, (total, part) -> {
+			total[0] += part[0];
+			total[1] += part[1];
+			return total;
+		});
+		final List<CategoryPriceCustomizedDTO> list = new ArrayList<>();
+		totals.forEach((name, total) -> {
+			final CategoryPriceCustomizedDTO dto = new CategoryPriceCustomizedDTO();
+			dto.setCategoryName(name);
+			dto.setAveragePrice((float) (total[0] / total[1]));
+			list.add(dto);
+		});
+		return list;
+	}
+
+	/**
+	 * Finds every order with its product, brand and category.
+	 *
+	 * @return the product order details, in product and order ID order.
+	 */
+	public List<ProductOrderCBCustomizedDTO> findProductOrderDetails() {
+		return shardRouter.scatterOutsideTransaction(reportingRepository::findProductOrderDetails);
+	}
+
+	/**
+	 * Finds one page of the sales report from each shard. The caller merges them
+	 * into a single page.
+	 *
+	 * @param afterProductId the product ID of the last row already sent.
+	 * @param afterOrderId   the order ID of the last row already sent.
+	 * @param limit          the maximum number of rows per shard.
+	 * @return the rows of all shards.
+	 */
+	public List<SalesReportDTO> generateSalesReport(final int afterProductId, final int afterOrderId,
+			final int limit) {
+		return shardRouter.scatterOutsideTransaction(
+				() -> reportingRepository.generateSalesReport(afterProductId, afterOrderId, limit));
+	}
+
+	/**
+	 * Streams the whole sales report to an action, in product and order ID order,
+	 * one shard after the other.
+	 *
+	 * @param action the action each row is passed to.
+	 * @return the number of rows.
+	 */
+	public long streamSalesReport(final Consumer<SalesReportDTO> action) {
+		final long[] rows = new long[1];
+		shardRouter.forEachShard(shard -> rows[0] += reportingRepository.streamSalesReport(action));
+		return rows[0];
+	}
+
+	/**
+	 * Finds the orders of a customer with the product and amount paid.
+	 *
+	 * @param customerId the ID of the customer.
+	 * @return the orders of the customer.
+	 */
+	public List<CustomerOrderReportCustomizedDTO> generateCustomerOrderReport(final int customerId) {
+		return shardRouter.scatterOutsideTransaction(() -> reportingRepository.generateCustomerOrderReport(customerId));
+	}
+
+	/**
+	 * Sums an aggregate on every shard in parallel, each into its own map, and
+	 * combines the partial sums by category name.
+	 */
+	private <V> Map<String, V> combine(final Consumer<Map<String, V>> aggregate, final BinaryOperator<V> merge) {
+		final Map<String, V> combined = new TreeMap<>();
+		for (final Map<String, V> part : shardRouter.scatterOutsideTransaction(() -> {
+			final Map<String, V> partial = new TreeMap<>();
+			aggregate.accept(partial);
+			return List.of(partial);
+		})) {
+			part.forEach((name, value) -> combined.merge(name, value, merge));
+		}
+		return combined;
+	}
+
+}
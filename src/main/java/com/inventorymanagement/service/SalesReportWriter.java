@@ -0,0 +1,69 @@
+package com.inventorymanagement.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the whole sales report as a JSON array, row by row, as the rows are
+ * read from the database. The rows come from {@link ReportingService}, which
+ * streams each shard in turn in product and order ID order, so the array is
+ * never gathered first. Memory use is one fetch batch, whatever the number of
+ * orders.
+ */
+@Component
+public class SalesReportWriter {
+
+	/**
+	 * Service streaming the report rows.
+	 */
+	private final ReportingService reportingService;
+
+	/**
+	 * Mapper used to write the JSON.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Constructor for SalesReportWriter.
+	 *
+	 * @param reportingService the service streaming the report rows.
+	 * @param objectMapper     the mapper used to write the JSON.
+	 */
+	public SalesReportWriter(final ReportingService reportingService, final ObjectMapper objectMapper) {
+		this.reportingService = reportingService;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Writes the sales report to a stream. The stream is flushed but not closed.
+	 *
+	 * @param out the stream the JSON array is written to.
+	 * @return the number of rows written.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	public long write(final OutputStream out) throws IOException {
+		final long rows;
+		try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.writeStartArray();
+			rows = reportingService.streamSalesReport(row -> {
+				try {
+					generator.writeObject(row);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generator.writeEndArray();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return rows;
+	}
+
+}
@@ -0,0 +1,7 @@
+-- Reference data loaded into every shard by the 'sharded' profile. Rows keep
+-- the same IDs on every shard so products can reference them wherever they live.
+INSERT INTO brand (brand_id, brand_name) VALUES (1, 'Acme'), (2, 'Globex');
+INSERT INTO category (category_id, category_name) VALUES (1, 'Hardware'), (2, 'Garden');
+INSERT INTO country (country_id, country_name) VALUES (1, 'India');
+INSERT INTO state (state_id, state_name) VALUES (1, 'Karnataka');
+INSERT INTO city (city_id, city_name) VALUES (1, 'Bengaluru');
@@ -1,4 +1,5 @@
 import axios from "axios";
+import { getAllPages } from "./Pagination";
 
 const REST_API_BASE_URL1="http://localhost:8080/fetchOrderDetails";
 
@@ -8,7 +9,7 @@ const REST_API_BASE_URL3="http://localhost:8080/createOrderDetails";
 
 const REST_API_BASE_URL4="http://localhost:8080/updateOrderDetails";
 
-export const listOrders=()=>axios.get(REST_API_BASE_URL1);
+export const listOrders=()=>getAllPages(REST_API_BASE_URL1);
 
 export const fetchOrderById=(orderId)=>axios.get(`${REST_API_BASE_URL2}`, { params: { orderId } });
 
@@ -0,0 +1,16 @@
+import axios from "axios";
+
+// Reads every page of a paged list endpoint by following the Next-Cursor
+// response header until the last page, and resolves like a single axios
+// response whose data holds the rows of all pages.
+export const getAllPages = async (url, params = {}) => {
+    const first = await axios.get(url, { params });
+    const rows = [...first.data];
+    let cursor = first.headers["next-cursor"];
+    while (cursor) {
+        const page = await axios.get(url, { params: { ...params, after: cursor } });
+        rows.push(...page.data);
+        cursor = page.headers["next-cursor"];
+    }
+    return { ...first, data: rows };
+};
@@ -1,4 +1,5 @@
 import axios from "axios";
+import { getAllPages } from "./Pagination";
 
 const REST_API_BASE_URL="http://localhost:8080/fetchProducts";
 
@@ -46,7 +47,7 @@ export const addProduct = (product) =>axios.post(REST_API_BASE_URL3, product);
 
 export const fetchProductById=(productId)=>axios.get(`${REST_API_BASE_URL6}`, { params: { productId } });
 
-export const listProducts=()=>axios.get(REST_API_BASE_URL);
+export const listProducts=()=>getAllPages(REST_API_BASE_URL);
 
 export const updateProduct= (product) =>axios.post(REST_API_BASE_URL7, product);
 
@@ -57,14 +58,14 @@ export const checkProductName = (productName) =>
 export const checkBarCode = (barcode) => 
     axios.get(`${REST_API_BASE_URL5}`, { params: { barcode } });
 
-export const fetchProductsByBrand=(brandName)=>axios.get(`${REST_API_BASE_URL8}`, { params: { brandName } });
+export const fetchProductsByBrand=(brandName)=>getAllPages(`${REST_API_BASE_URL8}`, { brandName });
 
-export const fetchProductsByCategory=(categoryName)=>axios.get(`${REST_API_BASE_URL9}`, { params: { categoryName } });
+export const fetchProductsByCategory=(categoryName)=>getAllPages(`${REST_API_BASE_URL9}`, { categoryName });
 
 
 export const generateCustomerReport=(customerId)=>axios.get(`${REST_API_BASE_URL10}`, { params: { customerId } });
 
-export const salesReport=()=>axios.get(REST_API_BASE_URL11);
+export const salesReport=()=>getAllPages(REST_API_BASE_URL11);
 
 export const login=(username, userpassword)=>axios.get(`${REST_API_BASE_URL12}`, { params: { username, userpassword } });
 
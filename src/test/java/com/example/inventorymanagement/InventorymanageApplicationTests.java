@@ -2,13 +2,21 @@ package com.example.inventorymanagement;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.inventorymanagement.InventorymanageApplication;
+import com.inventorymanagement.TestCatalog;
 
 /**
  * Unit test for the Spring Boot application context.
  * 
  * This class is used to test if the Spring application context loads correctly.
+ * It shares the context, and so the in-memory database, of the other tests.
  */
-@SpringBootTest
+@SpringBootTest(classes = InventorymanageApplication.class)
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
 class InventorymanageApplicationTests {
 
 	/**
@@ -0,0 +1,95 @@
+package com.inventorymanagement;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import com.inventorymanagement.dao.BrandRepository;
+import com.inventorymanagement.dao.CategoryRepository;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.entity.Brand;
+import com.inventorymanagement.entity.Category;
+import com.inventorymanagement.entity.Product;
+
+/**
+ * Creates catalog rows for tests. Names are unique so that tests sharing an
+ * application context and database do not collide.
+ */
+@TestComponent
+public class TestCatalog {
+
+	/**
+	 * Source of unique bar codes.
+	 */
+	private static final AtomicInteger BARCODES = new AtomicInteger();
+
+	/**
+	 * Repository used to create brands.
+	 */
+	@Autowired
+	/* default */BrandRepository brandRepository;
+
+	/**
+	 * Repository used to create categories.
+	 */
+	@Autowired
+	/* default */CategoryRepository categoryRepository;
+
+	/**
+	 * Repository used to create products.
+	 */
+	@Autowired
+	/* default */ProductRepository productRepository;
+
+	/**
+	 * Creates a product with its own brand and category.
+	 *
+	 * @param stock the stock of the product.
+	 * @return the saved product.
+	 */
+	public Product product(final int stock) {
+		final Brand brand = brandRepository.save(new Brand(0, "Brand" + unique()));
+		final Category category = categoryRepository.save(new Category(0, "Category" + unique()));
+		return product(stock, brand, category);
+	}
+
+	/**
+	 * Creates a product of a given brand and category.
+	 *
+	 * @param stock    the stock of the product.
+	 * @param brand    the brand of the product.
+	 * @param category the category of the product.
+	 * @return the saved product.
+	 */
+	public Product product(final int stock, final Brand brand, final Category category) {
+		final String name = "Product" + unique();
+		final Product product = new Product(0, name, stock, 10f, barcode());
+		product.setBrand(brand);
+		product.setCategory(category);
+		return productRepository.save(product);
+	}
+
+	/**
+	 * Returns an unused bar code: four letters followed by four digits.
+	 */
+	private static String barcode() {
+		final int next = BARCODES.getAndIncrement();
+		final StringBuilder letters = new StringBuilder();
+		int high = next / 10_000;
+		for (int i = 0; i < 4; i++) {
+			letters.insert(0, (char) ('A' + high % 26));
+			high /= 26;
+		}
+		return letters + String.format("%04d", next % 10_000);
+	}
+
+	/**
+	 * Returns a suffix that makes a name unique.
+	 */
+	private static String unique() {
+		return UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Catalog versions and the product deltas answered from them.
+ */
+class CatalogVersionTests {
+
+	/**
+	 * An ETag handed out earlier yields the products changed after it, once each.
+	 */
+	@Test
+	void deltaHoldsTheProductsChangedSinceTheTag() {
+		final CatalogVersion catalogVersion = new CatalogVersion(100);
+		catalogVersion.changed(1);
+		final String etag = catalogVersion.etag();
+		catalogVersion.changed(2);
+		catalogVersion.changed(3);
+		catalogVersion.changed(2);
+
+		assertEquals(List.of(3, 2), catalogVersion.changedSince(etag));
+		assertEquals(List.of(), catalogVersion.changedSince(catalogVersion.etag()));
+		assertNull(catalogVersion.changedSince("\"other-1\""));
+		assertTrue(catalogVersion.isChangedSince(2, 1));
+		assertFalse(catalogVersion.isChangedSince(1, 1));
+	}
+
+	/**
+	 * Only the most recently changed products are kept. A tag older than the
+	 * dropped entries gets no delta, so the client reads the full list, and a
+	 * copy read before them counts as stale.
+	 */
+	@Test
+	void oldChangesAreDroppedAndOlderTagsGetNoDelta() {
+		final CatalogVersion catalogVersion = new CatalogVersion(3);
+		final String start = catalogVersion.etag();
+		catalogVersion.changed(1);
+		catalogVersion.changed(2);
+		final String afterTwo = catalogVersion.etag();
+		for (int productId = 3; productId <= 5; productId++) {
+			catalogVersion.changed(productId);
+		}
+
+		assertNull(catalogVersion.changedSince(start));
+		assertEquals(List.of(3, 4, 5), catalogVersion.changedSince(afterTwo));
+		assertTrue(catalogVersion.isChangedSince(1, 0));
+		assertFalse(catalogVersion.isChangedSince(1, 2));
+		assertFalse(catalogVersion.isChangedSince(6, 2));
+	}
+
+	/**
+	 * A change made in a transaction moves the version only once it commits.
+	 */
+	@Test
+	void transactionalChangesCountAfterCommit() {
+		final CatalogVersion catalogVersion = new CatalogVersion(100);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			catalogVersion.changed(7);
+			assertEquals(0, catalogVersion.current());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			assertEquals(1, catalogVersion.current());
+			assertTrue(catalogVersion.isChangedSince(7, 0));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lookups in the Bloom filter and exact set behind the uniqueness checks.
+ */
+class MembershipIndexTests {
+
+	/**
+	 * Values differing only in what the database collation ignores are the same
+	 * value.
+	 */
+	@Test
+	void matchesValuesTheCollationTreatsAsEqual() {
+		final MembershipIndex index = new MembershipIndex(100, 0.01);
+		index.add("Crème Brûlée");
+		index.add(null);
+
+		assertTrue(index.mightContain("Crème Brûlée"));
+		assertTrue(index.mightContain("creme brulee"));
+		assertTrue(index.mightContain("CREME BRULEE  "));
+		assertFalse(index.mightContain("creme"));
+		assertFalse(index.mightContain(" creme brulee"));
+		assertEquals(1, index.size());
+	}
+
+	/**
+	 * Every value added is found, and no value left out is reported, even past
+	 * the size the filter was built for: the exact set removes the filter's false
+	 * positives.
+	 */
+	@Test
+	void hasNeitherFalseNegativesNorFalsePositives() {
+		final MembershipIndex index = new MembershipIndex(1000, 0.01);
+		for (int i = 0; i < 5000; i++) {
+			index.add("user" + i + "@example.com");
+		}
+
+		for (int i = 0; i < 5000; i++) {
+			assertTrue(index.mightContain("user" + i + "@example.com"));
+			assertFalse(index.mightContain("user" + i + "@example.org"));
+		}
+		assertEquals(5000, index.size());
+	}
+
+	/**
+	 * Values added from several threads at once all set their bits.
+	 */
+	@Test
+	void concurrentAddsAreAllVisible() throws Exception {
+		final MembershipIndex index = new MembershipIndex(10_000, 0.01);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<?>> adds = new ArrayList<>();
+		try {
+			for (int thread = 0; thread < 8; thread++) {
+				final int first = thread * 1000;
+				adds.add(executor.submit(() -> {
+					for (int i = first; i < first + 1000; i++) {
+						index.add("BAR" + i);
+					}
+				}));
+			}
+			for (final Future<?> add : adds) {
+				add.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (int i = 0; i < 8000; i++) {
+			assertTrue(index.mightContain("bar" + i));
+		}
+		assertEquals(8000, index.size());
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ShardRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The out-of-stock index over three shards of 1000 IDs each.
+ */
+class OutOfStockIndexTests {
+
+	/**
+	 * Number of IDs owned by each shard.
+	 */
+	private static final int STRIDE = 1000;
+
+	/**
+	 * Repository the index is rebuilt from.
+	 */
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+
+	/**
+	 * Router with three shards, the one being read tracked in {@link #shard}.
+	 */
+	private final ShardRouter shardRouter = mock(ShardRouter.class);
+
+	/**
+	 * Registry of the index metrics.
+	 */
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	/**
+	 * Shard the router is currently on.
+	 */
+	private int shard;
+
+	/**
+	 * Index under test.
+	 */
+	private OutOfStockIndex index;
+
+	/**
+	 * Sets up the router with shard ranges like the real ones.
+	 */
+	@BeforeEach
+	void setUp() {
+		when(shardRouter.getShardCount()).thenReturn(3);
+		when(shardRouter.shardOf(anyInt())).thenAnswer(call -> Math.min(((int) call.getArgument(0) - 1) / STRIDE, 2));
+		when(shardRouter.firstId(anyInt())).thenAnswer(call -> (int) call.getArgument(0) * STRIDE + 1);
+		doAnswer(call -> {
+			for (shard = 0; shard < 3; shard++) {
+				call.<IntConsumer>getArgument(0).accept(shard);
+			}
+			return null;
+		}).when(shardRouter).forEachShard(any());
+		index = new OutOfStockIndex(productRepository, shardRouter, registry);
+	}
+
+	/**
+	 * Products of every shard are tracked independently, including the first and
+	 * last IDs of a range.
+	 */
+	@Test
+	void tracksProductsOfEveryShard() {
+		index.observed(1, 0);
+		index.observed(1000, 0);
+		index.observed(1001, 0);
+		index.observed(2500, 0);
+		index.observed(2501, 3);
+
+		assertTrue(index.isOutOfStock(1));
+		assertTrue(index.isOutOfStock(1000));
+		assertTrue(index.isOutOfStock(1001));
+		assertTrue(index.isOutOfStock(2500));
+		assertFalse(index.isOutOfStock(2));
+		assertFalse(index.isOutOfStock(2501));
+		assertFalse(index.isOutOfStock(0));
+		assertEquals(4, registry.get("inventory.stock.out-of-stock").gauge().value());
+
+		index.changed(2500, 7);
+		assertFalse(index.isOutOfStock(2500));
+	}
+
+	/**
+	 * A zero stock written by a transaction is only trusted once it commits, while
+	 * a restock clears the product at once.
+	 */
+	@Test
+	void zeroStockIsRecordedOnCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.changed(1500, 0);
+			assertFalse(index.isOutOfStock(1500));
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			assertTrue(index.isOutOfStock(1500));
+
+			index.changed(1500, 2);
+			assertFalse(index.isOutOfStock(1500));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * A rebuild reads every shard, and a product restocked while the rebuild runs
+	 * is not marked out of stock by the rows read before the restock.
+	 */
+	@Test
+	void rebuildReadsEveryShardAndKeepsRestocks() {
+		index.observed(5, 0);
+		when(productRepository.findOutOfStockIds()).thenAnswer(call -> switch (shard) {
+		case 0 -> List.of(7);
+		case 1 -> {
+			// Restocked by an order on another thread after the query read it
+			index.changed(1002, 4);
+			yield List.of(1002, 1003);
+		}
+		default -> List.of(2999);
+		});
+
+		index.rebuild();
+
+		assertFalse(index.isOutOfStock(5));
+		assertTrue(index.isOutOfStock(7));
+		assertFalse(index.isOutOfStock(1002));
+		assertTrue(index.isOutOfStock(1003));
+		assertTrue(index.isOutOfStock(2999));
+		assertEquals(3, registry.get("inventory.stock.out-of-stock").gauge().value());
+		assertEquals(3, registry.get("inventory.stock.fast-rejects").counter().count());
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.ReservationDTO;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
+import com.inventorymanagement.service.OrderDetailsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Stock holds against an in-memory database. Reservations run on a single node,
+ * so the context enables them without the change log, on its own database.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reservation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"inventory.reservation.enabled=true", "inventory.change-log.enabled=false" })
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ReservationBOTests {
+
+	/**
+	 * Hold lifetime long enough not to expire during a test.
+	 */
+	private static final long TTL_SECONDS = 600;
+
+	/**
+	 * Service placing orders and holds.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Business object under test.
+	 */
+	@Autowired
+	private ReservationBO reservationBO;
+
+	/**
+	 * Repository used to read and change the stored stock.
+	 */
+	@Autowired
+	private ProductRepository productRepository;
+
+	/**
+	 * Creates the products held.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * Holds and orders racing for one product never promise more than its stock.
+	 */
+	@Test
+	void concurrentHoldsAndOrdersNeverOversell() throws Exception {
+		final int stock = 20;
+		final Product product = catalog.product(stock);
+		final ExecutorService clients = Executors.newFixedThreadPool(8);
+		final List<Future<Integer>> results = new ArrayList<>();
+		try {
+			for (int client = 0; client < 8; client++) {
+				results.add(clients.submit(client % 2 == 0 ? orders(product) : holds(product)));
+			}
+			int taken = 0;
+			for (final Future<Integer> result : results) {
+				taken += result.get();
+			}
+
+			final int left = storedStock(product);
+			final int held = reservationBO.heldQuantity(product.getProductId());
+			assertEquals(stock, taken, "every unit is either ordered or held");
+			assertEquals(stock, stock - left + held);
+			assertTrue(left >= held, "held stock is backed by stored stock");
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	/**
+	 * A confirmation whose deduction fails keeps the hold, which can be confirmed
+	 * once the stock is back.
+	 */
+	@Test
+	void failedConfirmationKeepsTheHold() throws Exception {
+		final Product product = catalog.product(5);
+		final ReservationDTO reservation = orderDetailsService.reserve(product.getProductId(), 3, TTL_SECONDS);
+		productRepository.adjustStockBy(product.getProductId(), -3);
+
+		assertThrows(InsufficientStockException.class,
+				() -> orderDetailsService.confirmReservation(reservation.getReservationId()));
+		assertEquals(3, reservationBO.heldQuantity(product.getProductId()));
+		assertEquals(product.getProductId(), orderDetailsService.reservedProductId(reservation.getReservationId()));
+
+		productRepository.adjustStockBy(product.getProductId(), 3);
+		orderDetailsService.confirmReservation(reservation.getReservationId());
+		assertEquals(0, reservationBO.heldQuantity(product.getProductId()));
+		assertEquals(2, storedStock(product));
+	}
+
+	/**
+	 * Places orders of one unit until the product runs out, returning how many
+	 * were accepted.
+	 */
+	private Callable<Integer> orders(final Product product) {
+		return () -> {
+			int placed = 0;
+			for (int i = 0; i < 10; i++) {
+				final OrderDetailsDTO dto = new OrderDetailsDTO();
+				dto.setProductId(product.getProductId());
+				dto.setOrderedQuantity(1);
+				try {
+					orderDetailsService.placeOrder(dto);
+					placed++;
+				} catch (InsufficientStockException | OutOfStockException e) {
+					// Sold out or held; expected once the stock is gone.
+				}
+			}
+			return placed;
+		};
+	}
+
+	/**
+	 * Holds one unit at a time until the product runs out, returning how many
+	 * were held.
+	 */
+	private Callable<Integer> holds(final Product product) {
+		return () -> {
+			int held = 0;
+			for (int i = 0; i < 10; i++) {
+				try {
+					orderDetailsService.reserve(product.getProductId(), 1, TTL_SECONDS);
+					held++;
+				} catch (InsufficientStockException | OutOfStockException e) {
+					// Sold out or held; expected once the stock is gone.
+				}
+			}
+			return held;
+		};
+	}
+
+	/**
+	 * Holds are per node, so reservations do not start where other nodes sell
+	 * the same stock.
+	 */
+	@Test
+	void refusesToStartWithTheChangeLog() {
+		final ChangeLog changeLog = mock(ChangeLog.class);
+		when(changeLog.isEnabled()).thenReturn(true);
+		assertThrows(IllegalStateException.class,
+				() -> new ReservationBO(null, null, changeLog, new SimpleMeterRegistry(), true, 16, 100, 60));
+		assertFalse(new ReservationBO(null, null, changeLog, new SimpleMeterRegistry(), false, 16, 100, 60)
+				.isEnabled());
+
+		when(changeLog.isEnabled()).thenReturn(false);
+		assertTrue(new ReservationBO(null, null, changeLog, new SimpleMeterRegistry(), true, 16, 100, 60).isEnabled());
+	}
+
+	/**
+	 * Reads the stock stored in the Product table.
+	 */
+	private int storedStock(final Product product) {
+		return productRepository.findStockLevel(product.getProductId()).orElseThrow().getStockAvailable();
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Coalescing of concurrent identical lookups.
+ */
+class SingleFlightTests {
+
+	/**
+	 * Number of callers asking for the same key at once.
+	 */
+	private static final int CALLERS = 8;
+
+	/**
+	 * Registry of the coalescing metrics.
+	 */
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	/**
+	 * Threads of the callers.
+	 */
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS + 1);
+
+	/**
+	 * Number of lookups actually run.
+	 */
+	private final AtomicInteger runs = new AtomicInteger();
+
+	/**
+	 * Released to let the blocked lookups return.
+	 */
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	/**
+	 * Stops the caller threads.
+	 */
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Callers arriving while a lookup is in flight get its result, the same
+	 * object, and the lookup runs once.
+	 */
+	@Test
+	void concurrentCallersShareOneLookup() throws Exception {
+		final SingleFlight<Integer, List<String>> flight = new SingleFlight<>("test", 10_000, registry);
+		final List<Future<List<String>>> results = startCallers(flight, 1, () -> List.of("row"));
+
+		release.countDown();
+		final List<String> first = results.get(0).get();
+		for (final Future<List<String>> result : results) {
+			assertSame(first, result.get());
+		}
+		assertEquals(1, runs.get());
+		assertEquals(CALLERS - 1, registry.get("inventory.single-flight.calls").tag("role", "follower").counter()
+				.count());
+	}
+
+	/**
+	 * The failure of the lookup is thrown to every caller that waited for it.
+	 */
+	@Test
+	void failureReachesEveryCaller() throws Exception {
+		final SingleFlight<Integer, List<String>> flight = new SingleFlight<>("test", 10_000, registry);
+		final List<Future<List<String>>> results = startCallers(flight, 2, () -> {
+			throw new ResourceNotFoundException("Product not found with id: 2");
+		});
+
+		release.countDown();
+		for (final Future<List<String>> result : results) {
+			final ExecutionException e = assertThrows(ExecutionException.class, result::get);
+			assertTrue(e.getCause() instanceof ResourceNotFoundException);
+		}
+		assertEquals(1, runs.get());
+	}
+
+	/**
+	 * A caller that waits longer than the timeout runs the lookup itself, and
+	 * callers after it no longer wait for the stuck one.
+	 */
+	@Test
+	void timedOutCallerRunsTheLookupItself() throws Exception {
+		final SingleFlight<Integer, List<String>> flight = new SingleFlight<>("test", 50, registry);
+		final CountDownLatch started = new CountDownLatch(1);
+		executor.submit(() -> flight.execute(3, () -> {
+			started.countDown();
+			release.await();
+			return List.of("stuck");
+		}));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		assertEquals(List.of("own"), flight.execute(3, () -> List.of("own")));
+		assertEquals(List.of("next"), flight.execute(3, () -> List.of("next")));
+		assertEquals(1, registry.get("inventory.single-flight.timeouts").counter().count());
+	}
+
+	/**
+	 * After a key is forgotten, the next caller starts a new lookup instead of
+	 * joining one that may have read data since changed.
+	 */
+	@Test
+	void forgottenLookupIsNotJoined() throws Exception {
+		final SingleFlight<Integer, List<String>> flight = new SingleFlight<>("test", 10_000, registry);
+		final CountDownLatch started = new CountDownLatch(1);
+		executor.submit(() -> flight.execute(4, () -> {
+			started.countDown();
+			release.await();
+			return List.of("old");
+		}));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		flight.forget(4);
+
+		assertEquals(List.of("new"), flight.execute(4, () -> List.of("new")));
+	}
+
+	/**
+	 * Starts {@link #CALLERS} callers for one key, whose lookup blocks until
+	 * {@link #release} and then returns or throws through the given lookup. Returns
+	 * once every caller has had time to join.
+	 */
+	private List<Future<List<String>>> startCallers(final SingleFlight<Integer, List<String>> flight,
+			final int key, final SingleFlight.Lookup<List<String>, ResourceNotFoundException> lookup)
+			throws InterruptedException {
+		final CountDownLatch arrived = new CountDownLatch(CALLERS);
+		final List<Future<List<String>>> results = new ArrayList<>();
+		for (int caller = 0; caller < CALLERS; caller++) {
+			results.add(executor.submit(() -> {
+				arrived.countDown();
+				return flight.execute(key, () -> {
+					runs.incrementAndGet();
+					release.await();
+					return lookup.run();
+				});
+			}));
+		}
+		assertTrue(arrived.await(10, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		return results;
+	}
+
+}
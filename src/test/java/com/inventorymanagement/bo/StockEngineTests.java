@@ -0,0 +1,205 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.dao.StockDeltaRepository;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+import com.inventorymanagement.service.OrderDetailsService;
+import com.inventorymanagement.service.ProductService;
+
+/**
+ * The in-memory stock engine against an in-memory database. The scheduled
+ * flusher runs once at startup and then only when a test flushes. The context
+ * has its own database, so that creating its schema does not drop the tables
+ * and order ID blocks of the contexts shared by the other tests.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:stock-engine;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"inventory.stock-engine.enabled=true", "inventory.change-log.enabled=false",
+		"inventory.stock-engine.flush-interval-ms=3600000" })
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class StockEngineTests {
+
+	/**
+	 * Engine under test.
+	 */
+	@Autowired
+	private StockEngine stockEngine;
+
+	/**
+	 * Service placing the orders that change the stock.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Service used to edit products.
+	 */
+	@Autowired
+	private ProductService productService;
+
+	/**
+	 * Repository used to read the stock written back.
+	 */
+	@Autowired
+	private ProductRepository productRepository;
+
+	/**
+	 * Repository of the stock change journal.
+	 */
+	@Autowired
+	private StockDeltaRepository stockDeltaRepository;
+
+	/**
+	 * Runs work in a transaction the test rolls back.
+	 */
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Creates the products ordered.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * Accepted orders change the live counter at once and reach the Product table
+	 * when the journal is folded.
+	 */
+	@Test
+	void journaledChangesAreFoldedIntoTheProductTable() throws Exception {
+		final Product product = catalog.product(10);
+
+		orderDetailsService.placeOrder(order(product, 3));
+		orderDetailsService.placeOrder(order(product, 4));
+		assertEquals(3, stockEngine.currentStock(product.getProductId()));
+		assertEquals(2, pendingChanges(product));
+
+		stockEngine.flush();
+
+		assertEquals(3, storedStock(product));
+		assertEquals(0, pendingChanges(product));
+	}
+
+	/**
+	 * A change made in a transaction that rolls back is undone in memory and
+	 * never journaled.
+	 */
+	@Test
+	void rolledBackChangesAreUndone() {
+		final Product product = catalog.product(10);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				orderDetailsService.placeOrder(order(product, 4));
+			} catch (ResourceNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+			assertEquals(6, stockEngine.currentStock(product.getProductId()));
+			status.setRollbackOnly();
+		});
+		stockEngine.flush();
+
+		assertEquals(10, stockEngine.currentStock(product.getProductId()));
+		assertEquals(10, storedStock(product));
+		assertEquals(0, pendingChanges(product));
+	}
+
+	/**
+	 * Orders beyond the live stock are rejected before anything is journaled.
+	 */
+	@Test
+	void ordersBeyondTheLiveStockAreRejected() throws Exception {
+		final Product product = catalog.product(5);
+		orderDetailsService.placeOrder(order(product, 4));
+
+		assertThrows(InsufficientStockException.class, () -> orderDetailsService.placeOrder(order(product, 2)));
+		assertEquals(1, stockEngine.currentStock(product.getProductId()));
+		assertEquals(1, pendingChanges(product));
+	}
+
+	/**
+	 * Editing a product's stock replaces its pending changes instead of folding
+	 * them on top of the new value.
+	 */
+	@Test
+	void editedStockReplacesPendingChanges() throws Exception {
+		final Product product = catalog.product(10);
+		orderDetailsService.placeOrder(order(product, 3));
+
+		final Product edited = productRepository.findById(product.getProductId()).orElseThrow();
+		edited.setStockAvailable(20);
+		productService.update(edited);
+		stockEngine.flush();
+
+		assertEquals(20, stockEngine.currentStock(product.getProductId()));
+		assertEquals(20, storedStock(product));
+	}
+
+	/**
+	 * The counters are per node, so the engine does not start where other nodes
+	 * or shards share the stock.
+	 */
+	@Test
+	void refusesToStartWithTheChangeLogOrSharding() {
+		final ChangeLog changeLog = mock(ChangeLog.class);
+		final ShardRouter shardRouter = mock(ShardRouter.class);
+		when(changeLog.isEnabled()).thenReturn(true);
+		assertThrows(IllegalStateException.class, () -> new StockEngine(null, null, shardRouter, null, changeLog,
+				mock(PlatformTransactionManager.class), true, 10));
+
+		when(changeLog.isEnabled()).thenReturn(false);
+		when(shardRouter.isSharded()).thenReturn(true);
+		assertThrows(IllegalStateException.class, () -> new StockEngine(null, null, shardRouter, null, changeLog,
+				mock(PlatformTransactionManager.class), true, 10));
+
+		when(shardRouter.isSharded()).thenReturn(false);
+		assertTrue(new StockEngine(null, null, shardRouter, null, changeLog, mock(PlatformTransactionManager.class),
+				true, 10).isEnabled());
+	}
+
+	/**
+	 * Builds an order for a product.
+	 */
+	private static OrderDetailsDTO order(final Product product, final int quantity) {
+		final OrderDetailsDTO dto = new OrderDetailsDTO();
+		dto.setProductId(product.getProductId());
+		dto.setOrderedQuantity(quantity);
+		return dto;
+	}
+
+	/**
+	 * Reads the stock stored in the Product table.
+	 */
+	private int storedStock(final Product product) {
+		return productRepository.findStockLevel(product.getProductId()).orElseThrow().getStockAvailable();
+	}
+
+	/**
+	 * Counts the journal rows of a product not folded yet.
+	 */
+	private long pendingChanges(final Product product) {
+		return stockDeltaRepository.findAll().stream()
+				.filter(delta -> delta.getProductId() == product.getProductId()).count();
+	}
+
+}
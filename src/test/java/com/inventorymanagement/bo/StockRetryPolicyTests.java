@@ -0,0 +1,89 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.inventorymanagement.dao.ShardRouter;
+import com.inventorymanagement.entity.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Conflict metrics of the stock retry policy.
+ */
+class StockRetryPolicyTests {
+
+	/**
+	 * Conflicts are counted under the shard of the product, never under its ID,
+	 * so the metric has one series per shard whatever the number of products.
+	 */
+	@Test
+	void conflictsAreTaggedByShard() {
+		final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		final ShardRouter shardRouter = mock(ShardRouter.class);
+		when(shardRouter.shardOf(7)).thenReturn(1);
+		when(shardRouter.shardOf(8)).thenReturn(1);
+		final StockRetryPolicy policy = new StockRetryPolicy(registry, shardRouter, 1, 0, 0);
+
+		for (final int productId : new int[] { 7, 8, 8 }) {
+			assertThrows(ObjectOptimisticLockingFailureException.class, () -> policy.execute(productId, () -> {
+				throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+			}));
+		}
+		policy.reportHotProducts();
+
+		assertEquals(3, registry.get("inventory.stock.conflicts").tag("shard", "1").counter().count());
+		assertEquals(1, registry.find("inventory.stock.conflicts").counters().size());
+		assertNull(registry.find("inventory.stock.conflicts").tagKeys("productId").counter());
+		assertEquals(3, registry.get("inventory.stock.conflicts.exhausted").counter().count());
+	}
+
+	/**
+	 * Each report publishes the conflicts of the hottest products of its interval
+	 * tagged by product ID, at most ten of them, and drops the products that have
+	 * cooled down.
+	 */
+	@Test
+	void hotProductsArePublishedPerReport() {
+		final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		final StockRetryPolicy policy = new StockRetryPolicy(registry, mock(ShardRouter.class), 1, 0, 0);
+
+		for (int productId = 1; productId <= 12; productId++) {
+			for (int conflict = 0; conflict < productId; conflict++) {
+				conflict(policy, productId);
+			}
+		}
+		policy.reportHotProducts();
+
+		assertEquals(10, registry.find("inventory.stock.conflicts.hot").gauges().size());
+		assertEquals(12, registry.get("inventory.stock.conflicts.hot").tag("productId", "12").gauge().value());
+		assertNull(registry.find("inventory.stock.conflicts.hot").tag("productId", "2").gauge());
+
+		conflict(policy, 5);
+		policy.reportHotProducts();
+
+		assertEquals(1, registry.find("inventory.stock.conflicts.hot").gauges().size());
+		assertEquals(1, registry.get("inventory.stock.conflicts.hot").tag("productId", "5").gauge().value());
+
+		policy.reportHotProducts();
+
+		assertTrue(registry.find("inventory.stock.conflicts.hot").gauges().isEmpty());
+	}
+
+	/**
+	 * Runs a change on a product that conflicts on its only attempt.
+	 */
+	private static void conflict(final StockRetryPolicy policy, final int productId) {
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> policy.execute(productId, () -> {
+			throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+		}));
+	}
+
+}
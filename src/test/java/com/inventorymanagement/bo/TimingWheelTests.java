@@ -0,0 +1,97 @@
+package com.inventorymanagement.bo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimingWheel}, driven by an explicit clock.
+ */
+class TimingWheelTests {
+
+	/**
+	 * An item expires once the clock passes its deadline tick, not before.
+	 */
+	@Test
+	void expiresOnceTheDeadlineTickIsReached() {
+		final List<String> expired = new ArrayList<>();
+		final TimingWheel<String> wheel = new TimingWheel<>(8, 10, 0, expired::add);
+		wheel.schedule("hold", 25, 0);
+
+		assertEquals(0, wheel.advance(19));
+		assertEquals(1, wheel.advance(20));
+		assertEquals(List.of("hold"), expired);
+		assertEquals(0, wheel.advance(1000));
+	}
+
+	/**
+	 * A cancelled item never expires, and cannot be cancelled twice.
+	 */
+	@Test
+	void cancelledItemsNeverExpire() {
+		final List<String> expired = new ArrayList<>();
+		final TimingWheel<String> wheel = new TimingWheel<>(8, 10, 0, expired::add);
+		final TimingWheel.Timeout<String> timeout = wheel.schedule("hold", 10, 0);
+
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		assertEquals(0, wheel.advance(1000));
+		assertTrue(expired.isEmpty());
+	}
+
+	/**
+	 * An item further away than one rotation stays in its bucket while the
+	 * wheel passes it.
+	 */
+	@Test
+	void deadlinesBeyondOneRotationWaitForTheirTick() {
+		final TimingWheel<String> wheel = new TimingWheel<>(4, 10, 0, item -> {
+		});
+		wheel.schedule("hold", 100, 0);
+
+		assertEquals(0, wheel.advance(90));
+		assertEquals(1, wheel.advance(100));
+	}
+
+	/**
+	 * Items scheduled while the wheel advances on another thread all expire on
+	 * time, none a rotation late.
+	 */
+	@Test
+	void itemsScheduledWhileAdvancingAreNotDelayed() throws Exception {
+		final AtomicLong now = new AtomicLong();
+		final AtomicInteger expired = new AtomicInteger();
+		final TimingWheel<Integer> wheel = new TimingWheel<>(8, 1, 0, item -> expired.incrementAndGet());
+		final AtomicInteger scheduled = new AtomicInteger();
+		final Thread clock = new Thread(() -> {
+			for (int i = 0; i < 20_000; i++) {
+				wheel.advance(now.incrementAndGet());
+			}
+		});
+		final List<Thread> schedulers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			schedulers.add(new Thread(() -> {
+				while (clock.isAlive()) {
+					wheel.schedule(scheduled.incrementAndGet(), 1, now.get());
+				}
+			}));
+		}
+		clock.start();
+		schedulers.forEach(Thread::start);
+		clock.join();
+		for (final Thread scheduler : schedulers) {
+			scheduler.join();
+		}
+
+		wheel.advance(now.get() + 2);
+		assertEquals(scheduled.get(), expired.get());
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.inventorymanagement.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The statement budget used by the endpoint tests.
+ */
+class QueryStatsTests {
+
+	/**
+	 * Statement prepared once per row by an N+1 read.
+	 */
+	private static final String PER_ROW = "select b1_0.BrandId from brand b1_0 where b1_0.BrandId=?";
+
+	/**
+	 * Unbinds any stats left on the test thread.
+	 */
+	@AfterEach
+	void tearDown() {
+		QueryStats.end();
+	}
+
+	/**
+	 * Work within its budget returns its result.
+	 */
+	@Test
+	void workWithinTheBudgetPasses() {
+		assertEquals("page", QueryStats.assertMaxQueries("/page", 2, () -> {
+			QueryStats.current().statement("select p1_0.ProductId from product p1_0");
+			QueryStats.current().statement(PER_ROW);
+			return "page";
+		}));
+	}
+
+	/**
+	 * Work over its budget fails, naming the endpoint, the count and the statement
+	 * repeated most.
+	 */
+	@Test
+	void workOverTheBudgetNamesTheRepeatedStatement() {
+		final AssertionError error = assertThrows(AssertionError.class,
+				() -> QueryStats.assertMaxQueries("/products", 2, () -> {
+					QueryStats.current().statement("select p1_0.ProductId from product p1_0");
+					for (int row = 0; row < 5; row++) {
+						QueryStats.current().statement(PER_ROW);
+					}
+					return null;
+				}));
+
+		assertTrue(error.getMessage().startsWith("/products ran 6 statements, at most 2 allowed"));
+		assertTrue(error.getMessage().endsWith(PER_ROW));
+	}
+
+	/**
+	 * The budget counts only the measured work and leaves the stats of the
+	 * enclosing request, or their absence, as they were.
+	 */
+	@Test
+	void restoresTheEnclosingStats() {
+		QueryStats.assertMaxQueries("/none", 0, () -> null);
+		assertNull(QueryStats.current());
+
+		final QueryStats request = QueryStats.begin();
+		request.statement(PER_ROW);
+		QueryStats.assertMaxQueries("/inner", 1, () -> {
+			QueryStats.current().statement(PER_ROW);
+			return null;
+		});
+
+		assertSame(request, QueryStats.current());
+		assertEquals(1, request.getStatements());
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.inventorymanagement.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.inventorymanagement.dao.IdempotencyRecordRepository;
+import com.inventorymanagement.service.IdempotencyStore;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Replay of create requests sent with an 'Idempotency-Key' header.
+ */
+class IdempotencyFilterTests {
+
+	/**
+	 * Filter under test, over a store whose database is empty.
+	 */
+	private IdempotencyFilter filter = new IdempotencyFilter(
+			new IdempotencyStore(mock(IdempotencyRecordRepository.class), 1, 24));
+
+	/**
+	 * Number of requests that reached the endpoint.
+	 */
+	private final AtomicInteger executed = new AtomicInteger();
+
+	/**
+	 * Endpoint accepting an order asynchronously: answers 202 with the request
+	 * body echoed back.
+	 */
+	private final HttpServlet endpoint = new HttpServlet() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void service(final HttpServletRequest request, final HttpServletResponse response)
+				throws IOException {
+			executed.incrementAndGet();
+			response.setStatus(HttpServletResponse.SC_ACCEPTED);
+			response.getOutputStream().write(request.getInputStream().readAllBytes());
+		}
+	};
+
+	/**
+	 * A retry gets the original status and body without reaching the endpoint
+	 * again.
+	 */
+	@Test
+	void retryReplaysTheOriginalStatusAndBody() throws Exception {
+		final MockHttpServletResponse first = post("key-1", "{\"productId\":1}");
+		final MockHttpServletResponse retry = post("key-1", "{\"productId\":1}");
+
+		assertEquals(202, first.getStatus());
+		assertEquals(202, retry.getStatus());
+		assertEquals("{\"productId\":1}", retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(1, executed.get());
+	}
+
+	/**
+	 * A key reused with another body is refused instead of replaying a response
+	 * that belongs to a different request.
+	 */
+	@Test
+	void keyReusedWithAnotherBodyIsRefused() throws Exception {
+		post("key-2", "{\"productId\":1}");
+		final MockHttpServletResponse reused = post("key-2", "{\"productId\":2}");
+
+		assertEquals(422, reused.getStatus());
+		assertEquals(1, executed.get());
+	}
+
+	/**
+	 * A retry whose original request completes between the lookup of its key and
+	 * the marking of the key as in progress replays the original response instead
+	 * of running the request again.
+	 */
+	@Test
+	void retryRacingTheOriginalCompletionIsReplayed() throws Exception {
+		final byte[] original = "{\"productId\":3}".getBytes(StandardCharsets.UTF_8);
+		final String requestHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(original));
+		filter = new IdempotencyFilter(new IdempotencyStore(mock(IdempotencyRecordRepository.class), 1, 24) {
+
+			@Override
+			public boolean begin(final String requestKey) {
+				complete(requestKey, requestHash, HttpServletResponse.SC_ACCEPTED, original);
+				return super.begin(requestKey);
+			}
+		});
+
+		final MockHttpServletResponse retry = post("key-3", "{\"productId\":3}");
+
+		assertEquals(202, retry.getStatus());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(0, executed.get());
+	}
+
+	/**
+	 * Sends a create order request through the filter.
+	 */
+	private MockHttpServletResponse post(final String key, final String body) throws ServletException, IOException {
+		final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/createOrderDetails");
+		request.setServletPath("/createOrderDetails");
+		request.addHeader(IdempotencyFilter.HEADER, key);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain(endpoint));
+		return response;
+	}
+
+}
@@ -0,0 +1,340 @@
+package com.inventorymanagement.rest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.dao.BrandRepository;
+import com.inventorymanagement.dao.CategoryRepository;
+import com.inventorymanagement.dao.ProductOrderCustomized;
+import com.inventorymanagement.dao.QueryStats;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.OrderResultDTO;
+import com.inventorymanagement.entity.Brand;
+import com.inventorymanagement.entity.Category;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.service.OrderDetailsService;
+
+/**
+ * Statements run by the read endpoints, against an in-memory database. Each
+ * endpoint reads a small catalog and then one with four times the products and
+ * ten times the orders per product, within its budget both times and with the
+ * same number of statements: an association loaded once per row shows up as a
+ * count that grows with the data, even while it stays under the budget.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class InventoryManagementServiceTests {
+
+	/**
+	 * Number of products in the small catalog.
+	 */
+	private static final int SMALL_PRODUCTS = 3;
+
+	/**
+	 * Number of orders placed for each product of the small catalog.
+	 */
+	private static final int SMALL_ORDERS_PER_PRODUCT = 4;
+
+	/**
+	 * Number of products in the large catalog.
+	 */
+	private static final int LARGE_PRODUCTS = 12;
+
+	/**
+	 * Number of orders placed for each product of the large catalog.
+	 */
+	private static final int LARGE_ORDERS_PER_PRODUCT = 40;
+
+	/**
+	 * Controller under test.
+	 */
+	@Autowired
+	private InventoryManagementService controller;
+
+	/**
+	 * Service placing the orders read back.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Repository used to create the brands.
+	 */
+	@Autowired
+	private BrandRepository brandRepository;
+
+	/**
+	 * Repository used to create the categories.
+	 */
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	/**
+	 * Creates the products read.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * /fetchProductById reads the product with its brand and category in one
+	 * statement.
+	 */
+	@Test
+	void fetchProductById() {
+		assertConstantStatements("/fetchProductById", 1, seeded -> {
+			final int productId = seeded.products[0].getProductId();
+			assertEquals(productId, controller.fetchProduct(productId).getProductId());
+		});
+	}
+
+	/**
+	 * /fetchProducts reads a page of the catalog's products without a statement
+	 * per product.
+	 */
+	@Test
+	void fetchProducts() {
+		assertConstantStatements("/fetchProducts", 3, seeded -> {
+			final int limit = seeded.products.length;
+			final String after = KeysetPage.encode(new int[] { seeded.products[0].getProductId() - 1 });
+			assertEquals(limit, controller.fetchAllProducts(null, after, limit, webRequest()).getBody().size());
+		});
+	}
+
+	/**
+	 * /fetchOrderById reads the order with its product in one statement.
+	 */
+	@Test
+	void fetchOrderById() {
+		assertConstantStatements("/fetchOrderById", 1, seeded -> {
+			final int orderId = seeded.orderIds.get(0);
+			assertEquals(orderId, controller.fetchOrder(orderId).getOrderId());
+		});
+	}
+
+	/**
+	 * /fetchOrderDetails reads a page of the catalog's orders in one statement.
+	 */
+	@Test
+	void fetchOrderDetails() {
+		assertConstantStatements("/fetchOrderDetails", 1, seeded -> {
+			final int limit = seeded.orderIds.size();
+			final String after = KeysetPage.encode(new int[] { seeded.firstOrderId() - 1 });
+			assertEquals(limit, controller.fetchAllOrders(after, limit).getBody().size());
+		});
+	}
+
+	/**
+	 * /findOrdersForProduct checks the product and reads its orders, two
+	 * statements whatever the number of orders.
+	 */
+	@Test
+	void findOrdersForProduct() {
+		assertConstantStatements("/findOrdersForProduct", 2, seeded -> {
+			final int productId = seeded.products[1].getProductId();
+			assertEquals(seeded.ordersPerProduct,
+					controller.fetchOrdersForProduct(productId, null, null).getBody().size());
+		});
+	}
+
+	/**
+	 * /findProductByPrice reads a page of products in one statement.
+	 */
+	@Test
+	void findProductByPrice() {
+		assertConstantStatements("/findProductByPrice", 1, seeded -> {
+			final int limit = seeded.products.length;
+			final String after = KeysetPage.encode(new int[] { seeded.products[0].getProductId() - 1 });
+			assertEquals(limit, controller.findProductByPrice(9f, after, limit).getBody().size());
+		});
+	}
+
+	/**
+	 * /findByProductOrderCustomized reads a page of products joined with their
+	 * orders in one statement. The page stops one order short of the seeded ones,
+	 * so the cursor of the next page is set, after the last order sent.
+	 */
+	@Test
+	void findByProductOrderCustomized() {
+		assertConstantStatements("/findByProductOrderCustomized", 1, seeded -> {
+			final int limit = seeded.orderIds.size() - 1;
+			final String after = KeysetPage.encode(new int[] { seeded.products[0].getProductId() - 1, 0 });
+			final ResponseEntity<List<ProductOrderCustomized>> page = controller.findByProductOrderCustomized(9f,
+					after, limit);
+			assertEquals(limit, page.getBody().size());
+			final ProductOrderCustomized last = page.getBody().get(limit - 1);
+			assertEquals(KeysetPage.encode(new int[] { last.getProductId(), last.getOrderId() }),
+					page.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+		});
+	}
+
+	/**
+	 * /findProductsByBrandName reads the brand's products without a statement per
+	 * product.
+	 */
+	@Test
+	void findProductsByBrandName() {
+		assertConstantStatements("/findProductsByBrandName", 3, seeded -> assertEquals(seeded.products.length,
+				controller.findProductsByBrandName(seeded.brand.getBrandName(), null, null, webRequest()).getBody()
+						.size()));
+	}
+
+	/**
+	 * /findProductsByCategoryName reads the category's products without a
+	 * statement per product.
+	 */
+	@Test
+	void findProductsByCategoryName() {
+		assertConstantStatements("/findProductsByCategoryName", 3, seeded -> assertEquals(seeded.products.length,
+				controller.findProductsByCategoryName(seeded.category.getCategoryName(), null, null, webRequest())
+						.getBody().size()));
+	}
+
+	/**
+	 * Products of one brand and category, each with the same number of orders.
+	 */
+	private static final class Seeded {
+
+		/**
+		 * Brand of the products, with an alphabetic name as the endpoint requires.
+		 */
+		private final Brand brand;
+
+		/**
+		 * Category of the products, with an alphabetic name as the endpoint requires.
+		 */
+		private final Category category;
+
+		/**
+		 * Products, in creation order.
+		 */
+		private final Product[] products;
+
+		/**
+		 * Number of orders of each product.
+		 */
+		private final int ordersPerProduct;
+
+		/**
+		 * IDs of the orders of all products.
+		 */
+		private final List<Integer> orderIds;
+
+		/**
+		 * Constructor for Seeded.
+		 */
+		private Seeded(final Brand brand, final Category category, final Product[] products,
+				final int ordersPerProduct, final List<Integer> orderIds) {
+			this.brand = brand;
+			this.category = category;
+			this.products = products;
+			this.ordersPerProduct = ordersPerProduct;
+			this.orderIds = orderIds;
+		}
+
+		/**
+		 * Returns the lowest order ID.
+		 */
+		private int firstOrderId() {
+			return orderIds.stream().mapToInt(Integer::intValue).min().getAsInt();
+		}
+	}
+
+	/**
+	 * A read of a seeded catalog through an endpoint, which checks what it got
+	 * back and may throw the controller's checked exceptions.
+	 */
+	@FunctionalInterface
+	private interface Read {
+
+		/**
+		 * Calls the endpoint.
+		 */
+		void run(Seeded seeded) throws Exception;
+	}
+
+	/**
+	 * Runs a read on the small and then the large catalog, failing if either
+	 * exceeds the budget or if the larger data takes more statements.
+	 */
+	private void assertConstantStatements(final String endpoint, final int maxStatements, final Read read) {
+		final int small = statements(endpoint, maxStatements, seed(SMALL_PRODUCTS, SMALL_ORDERS_PER_PRODUCT), read);
+		final int large = statements(endpoint, maxStatements, seed(LARGE_PRODUCTS, LARGE_ORDERS_PER_PRODUCT), read);
+		assertEquals(small, large, endpoint + " ran " + small + " statements on the small catalog and " + large
+				+ " on the large one");
+	}
+
+	/**
+	 * Runs a read through {@link QueryStats#assertMaxQueries}, failing the test
+	 * if it runs more statements than its budget, and returns the number it ran.
+	 */
+	private static int statements(final String endpoint, final int maxStatements, final Seeded seeded,
+			final Read read) {
+		return QueryStats.assertMaxQueries(endpoint, maxStatements, () -> {
+			try {
+				read.run(seeded);
+			} catch (Exception e) {
+				throw new IllegalStateException(endpoint + " failed", e);
+			}
+			return QueryStats.current().getStatements();
+		});
+	}
+
+	/**
+	 * Creates products of a new brand and category and orders each of them the
+	 * given number of times, in one batch.
+	 */
+	private Seeded seed(final int productCount, final int ordersPerProduct) {
+		final Brand brand = brandRepository.save(new Brand(0, "Brand" + letters()));
+		final Category category = categoryRepository.save(new Category(0, "Category" + letters()));
+		final Product[] products = new Product[productCount];
+		final List<OrderDetailsDTO> orders = new ArrayList<>();
+		for (int i = 0; i < productCount; i++) {
+			products[i] = catalog.product(ordersPerProduct, brand, category);
+			for (int j = 0; j < ordersPerProduct; j++) {
+				final OrderDetailsDTO order = new OrderDetailsDTO();
+				order.setProductId(products[i].getProductId());
+				order.setOrderedQuantity(1);
+				orders.add(order);
+			}
+		}
+		final List<Integer> orderIds = new ArrayList<>();
+		for (final OrderResultDTO result : orderDetailsService.placeOrders(orders)) {
+			assertEquals(OrderResultDTO.Status.SUCCESS, result.getStatus(), result.getMessage());
+			orderIds.add(result.getOrder().getOrderId());
+		}
+		return new Seeded(brand, category, products, ordersPerProduct, orderIds);
+	}
+
+	/**
+	 * Returns a request without conditional headers.
+	 */
+	private static ServletWebRequest webRequest() {
+		return new ServletWebRequest(new MockHttpServletRequest());
+	}
+
+	/**
+	 * Returns a unique suffix made of letters only.
+	 */
+	private static String letters() {
+		final StringBuilder letters = new StringBuilder();
+		for (final char c : UUID.randomUUID().toString().replace("-", "").substring(0, 12).toCharArray()) {
+			letters.append((char) ('a' + Character.digit(c, 16)));
+		}
+		return letters.toString();
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.inventorymanagement.rest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.inventorymanagement.exception.BadRequestException;
+
+/**
+ * Page sizes, cursors and the merge of rows read from several shards.
+ */
+class KeysetPageTests {
+
+	/**
+	 * Helper under test, with a default page of 3 and a maximum of 5.
+	 */
+	private final KeysetPage keysetPage = new KeysetPage(3, 5);
+
+	/**
+	 * A missing limit takes the default, a large one is capped and a non-positive
+	 * one is refused.
+	 */
+	@Test
+	void resolvesTheLimit() throws Exception {
+		assertEquals(3, keysetPage.limit(null));
+		assertEquals(4, keysetPage.limit(4));
+		assertEquals(5, keysetPage.limit(500));
+		assertThrows(BadRequestException.class, () -> keysetPage.limit(0));
+	}
+
+	/**
+	 * Rows from several shards are merged in key order, cut to the limit, and the
+	 * cursor of the next page decodes to the key of the last row sent.
+	 */
+	@Test
+	void mergesShardsAndEncodesTheNextCursor() throws Exception {
+		final List<int[]> rows = List.of(new int[] { 1431655766, 2 }, new int[] { 2, 9 }, new int[] { 715827884, 1 },
+				new int[] { 2, 3 }, new int[] { 1, 5 });
+
+		final ResponseEntity<List<int[]>> page = keysetPage.page(ResponseEntity.ok(), rows, 3, row -> row);
+
+		assertArrayEquals(new int[][] { { 1, 5 }, { 2, 3 }, { 2, 9 } }, page.getBody().toArray(new int[0][]));
+		final String cursor = page.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER);
+		assertArrayEquals(new int[] { 2, 9 }, keysetPage.after(cursor, 2));
+	}
+
+	/**
+	 * The last page carries no cursor, and the first page starts from a zero key.
+	 */
+	@Test
+	void lastPageHasNoCursor() throws Exception {
+		final ResponseEntity<List<int[]>> page = keysetPage.page(ResponseEntity.ok(),
+				List.of(new int[] { 7 }, new int[] { 4 }), 3, row -> row);
+
+		assertEquals(2, page.getBody().size());
+		assertNull(page.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+		assertArrayEquals(new int[] { 0, 0 }, keysetPage.after(null, 2));
+	}
+
+	/**
+	 * Cursors that are not base64, not numbers or of the wrong length are refused.
+	 */
+	@Test
+	void refusesMalformedCursors() {
+		assertThrows(BadRequestException.class, () -> keysetPage.after("%%%", 1));
+		assertThrows(BadRequestException.class, () -> keysetPage.after("YWJj", 1));
+		assertThrows(BadRequestException.class, () -> keysetPage.after("Mjo5", 1));
+	}
+
+}
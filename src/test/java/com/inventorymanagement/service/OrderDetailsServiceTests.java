@@ -0,0 +1,136 @@
+package com.inventorymanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.bo.OutOfStockIndex;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.exception.InsufficientStockException;
+import com.inventorymanagement.exception.OutOfStockException;
+
+/**
+ * Order placement against an in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class OrderDetailsServiceTests {
+
+	/**
+	 * Number of clients ordering at the same time.
+	 */
+	private static final int CLIENTS = 16;
+
+	/**
+	 * Number of orders each client places.
+	 */
+	private static final int ORDERS_PER_CLIENT = 10;
+
+	/**
+	 * Service under test.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Repository used to read the stock left.
+	 */
+	@Autowired
+	private ProductRepository productRepository;
+
+	/**
+	 * Index of products known to be out of stock.
+	 */
+	@Autowired
+	private OutOfStockIndex outOfStockIndex;
+
+	/**
+	 * Creates the products ordered.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * Many clients ordering one product sell exactly its stock and leave none,
+	 * never less.
+	 */
+	@Test
+	void concurrentOrdersNeverTakeStockBelowZero() throws Exception {
+		final int stock = 50;
+		final Product product = catalog.product(stock);
+		final ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		final List<Future<Integer>> results = new ArrayList<>();
+		try {
+			for (int client = 0; client < CLIENTS; client++) {
+				results.add(clients.submit(orders(product.getProductId())));
+			}
+			int placed = 0;
+			for (final Future<Integer> result : results) {
+				placed += result.get();
+			}
+
+			final int left = productRepository.findStockLevel(product.getProductId()).orElseThrow()
+					.getStockAvailable();
+			assertEquals(stock, placed, "every unit is sold exactly once");
+			assertEquals(0, left);
+			assertTrue(outOfStockIndex.isOutOfStock(product.getProductId()),
+					"the order taking the last unit marks the product out of stock");
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	/**
+	 * An order taking the last units marks the product out of stock, so the next
+	 * order is rejected without a database round trip.
+	 */
+	@Test
+	void orderTakingTheLastUnitMarksTheProductOutOfStock() throws Exception {
+		final Product product = catalog.product(3);
+		final OrderDetailsDTO dto = new OrderDetailsDTO();
+		dto.setProductId(product.getProductId());
+		dto.setOrderedQuantity(3);
+
+		orderDetailsService.placeOrder(dto);
+
+		assertTrue(outOfStockIndex.isOutOfStock(product.getProductId()));
+	}
+
+	/**
+	 * Places orders of one unit, returning how many were accepted.
+	 */
+	private Callable<Integer> orders(final int productId) {
+		return () -> {
+			int placed = 0;
+			for (int i = 0; i < ORDERS_PER_CLIENT; i++) {
+				final OrderDetailsDTO dto = new OrderDetailsDTO();
+				dto.setProductId(productId);
+				dto.setOrderedQuantity(1);
+				try {
+					orderDetailsService.placeOrder(dto);
+					placed++;
+				} catch (InsufficientStockException | OutOfStockException e) {
+					// Sold out; the remaining orders are expected to fail too.
+				}
+			}
+			return placed;
+		};
+	}
+
+}
@@ -0,0 +1,297 @@
+package com.inventorymanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
+import org.springframework.test.context.NestedTestConfiguration.EnclosingConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.bo.StockEngine;
+import com.inventorymanagement.dao.ProductRepository;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.entity.OrderDetails;
+import com.inventorymanagement.entity.Product;
+
+/**
+ * Order intake throughput and latency with 1, 8 and 64 clients, placing each
+ * order with the read-modify-write it replaced, directly with a guarded
+ * update, through the single-writer pipeline and against the in-memory stock
+ * engine. Every client orders from the same few
+ * products, the contended case the pipeline and the engine are for. Excluded
+ * from the default build; run with {@code mvn test -Pbenchmark}. Results are
+ * logged, one line per run. Each configuration has its own database.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:order-intake;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"inventory.order-pipeline.enabled=true" })
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class OrderIntakeBenchmarkTests {
+
+	/**
+	 * Logger the results are written to.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(OrderIntakeBenchmarkTests.class);
+
+	/**
+	 * Orders placed per run, shared out among the clients.
+	 */
+	private static final int ORDERS = 1600;
+
+	/**
+	 * Number of products the orders go to.
+	 */
+	private static final int PRODUCTS = 4;
+
+	/**
+	 * Stock of each product, more than a run can sell.
+	 */
+	private static final int STOCK = 1_000_000;
+
+	/**
+	 * Service placing orders directly.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Pipeline placing orders in group commits.
+	 */
+	@Autowired
+	private OrderPipeline orderPipeline;
+
+	/**
+	 * Repository used to check the stock sold.
+	 */
+	@Autowired
+	private ProductRepository productRepository;
+
+	/**
+	 * Creates the products ordered.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * Runs the read-modify-write orders.
+	 */
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Places orders as they were placed before the guarded decrement: the
+	 * product is read, its stock checked and lowered in Java and saved, with the
+	 * order, in one transaction. The version check on Product turns a lost update
+	 * into a conflict, which is retried until the order goes through.
+	 */
+	@ParameterizedTest(name = "read-modify-write, {0} clients")
+	@ValueSource(ints = { 1, 8, 64 })
+	void readModifyWrite(final int clients) throws Exception {
+		final AtomicInteger conflicts = new AtomicInteger();
+		run("rmw", clients, dto -> readModifyWrite(dto, conflicts), catalog, productRepository, () -> {
+		});
+		if (LOG.isInfoEnabled()) {
+			LOG.info(String.format("rmw      %2d clients: %d conflicts retried", clients, conflicts.get()));
+		}
+	}
+
+	/**
+	 * Places orders directly, one transaction and guarded update per order.
+	 */
+	@ParameterizedTest(name = "direct, {0} clients")
+	@ValueSource(ints = { 1, 8, 64 })
+	void direct(final int clients) throws Exception {
+		run("direct", clients, orderDetailsService::placeOrder, catalog, productRepository, () -> {
+		});
+	}
+
+	/**
+	 * Places orders through the pipeline, which commits them in batches.
+	 */
+	@ParameterizedTest(name = "pipeline, {0} clients")
+	@ValueSource(ints = { 1, 8, 64 })
+	void pipeline(final int clients) throws Exception {
+		run("pipeline", clients, orderPipeline::placeOrder, catalog, productRepository, () -> {
+		});
+	}
+
+	/**
+	 * The same orders placed directly with the stock engine on, in a context of
+	 * its own: stock is deducted from the live counters and journaled, and the
+	 * journal is folded into the Product table before the stock sold is checked.
+	 */
+	@Nested
+	@NestedTestConfiguration(EnclosingConfiguration.OVERRIDE)
+	@SpringBootTest(properties = {
+			"spring.datasource.url=jdbc:h2:mem:order-intake-engine;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+			"inventory.stock-engine.enabled=true", "inventory.change-log.enabled=false" })
+	@ActiveProfiles("test")
+	@Import(TestCatalog.class)
+	class WithStockEngine {
+
+		/**
+		 * Service placing orders against the engine.
+		 */
+		@Autowired
+		private OrderDetailsService engineOrderService;
+
+		/**
+		 * Engine folding the journal before the check.
+		 */
+		@Autowired
+		private StockEngine stockEngine;
+
+		/**
+		 * Repository used to check the stock sold.
+		 */
+		@Autowired
+		private ProductRepository engineProductRepository;
+
+		/**
+		 * Creates the products ordered.
+		 */
+		@Autowired
+		private TestCatalog engineCatalog;
+
+		/**
+		 * Places orders directly with the engine on.
+		 */
+		@ParameterizedTest(name = "engine, {0} clients")
+		@ValueSource(ints = { 1, 8, 64 })
+		void engine(final int clients) throws Exception {
+			run("engine", clients, engineOrderService::placeOrder, engineCatalog, engineProductRepository,
+					stockEngine::flush);
+		}
+	}
+
+	/**
+	 * Places one order with a read-modify-write of the product's stock, retrying
+	 * on a version conflict.
+	 */
+	private OrderDetails readModifyWrite(final OrderDetailsDTO dto, final AtomicInteger conflicts) {
+		while (true) {
+			try {
+				return transactionTemplate.execute(status -> {
+					final Product product = productRepository.findById(dto.getProductId()).orElseThrow();
+					if (product.getStockAvailable() < dto.getOrderedQuantity()) {
+						throw new IllegalStateException("Insufficient stock for product " + product.getProductId());
+					}
+					product.setStockAvailable(product.getStockAvailable() - dto.getOrderedQuantity());
+					final OrderDetails order = new OrderDetails();
+					order.setOrderedQuantity(dto.getOrderedQuantity());
+					order.setProduct(product);
+					return orderDetailsService.insert(order);
+				});
+			} catch (OptimisticLockingFailureException e) {
+				conflicts.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Places {@link #ORDERS} orders from a number of clients, logs throughput and
+	 * latency, and checks that every order took its stock once the given step has
+	 * settled it in the Product table.
+	 */
+	private static void run(final String mode, final int clients, final Intake intake, final TestCatalog catalog,
+			final ProductRepository productRepository, final Runnable settle) throws Exception {
+		final List<Product> products = new ArrayList<>();
+		for (int i = 0; i < PRODUCTS; i++) {
+			products.add(catalog.product(STOCK));
+		}
+		final int perClient = ORDERS / clients;
+		final ExecutorService executor = Executors.newFixedThreadPool(clients);
+		final List<Future<long[]>> results = new ArrayList<>();
+		final long start = System.nanoTime();
+		try {
+			for (int client = 0; client < clients; client++) {
+				results.add(executor.submit(client(intake, products, client, perClient)));
+			}
+			final long[] latencies = new long[perClient * clients];
+			int next = 0;
+			for (final Future<long[]> result : results) {
+				for (final long latency : result.get()) {
+					latencies[next++] = latency;
+				}
+			}
+			final double seconds = (System.nanoTime() - start) / 1e9;
+			Arrays.sort(latencies);
+			if (LOG.isInfoEnabled()) {
+				LOG.info(String.format("%-8s %2d clients: %7.0f orders/s, p50 %6.2f ms, p99 %6.2f ms", mode, clients,
+						latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99)));
+			}
+
+			settle.run();
+			int sold = 0;
+			for (final Product product : products) {
+				sold += STOCK
+						- productRepository.findStockLevel(product.getProductId()).orElseThrow().getStockAvailable();
+			}
+			assertEquals(latencies.length, sold);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * A client placing orders of one unit round robin over the products,
+	 * returning the latency of each in nanoseconds.
+	 */
+	private static Callable<long[]> client(final Intake intake, final List<Product> products, final int client,
+			final int orders) {
+		return () -> {
+			final long[] latencies = new long[orders];
+			for (int i = 0; i < orders; i++) {
+				final OrderDetailsDTO dto = new OrderDetailsDTO();
+				dto.setProductId(products.get((client + i) % products.size()).getProductId());
+				dto.setOrderedQuantity(1);
+				final long started = System.nanoTime();
+				intake.place(dto);
+				latencies[i] = System.nanoTime() - started;
+			}
+			return latencies;
+		};
+	}
+
+	/**
+	 * Returns a percentile of sorted latencies, in milliseconds.
+	 */
+	private static double percentile(final long[] sorted, final double fraction) {
+		return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+	}
+
+	/**
+	 * A way of placing an order.
+	 */
+	@FunctionalInterface
+	private interface Intake {
+
+		/**
+		 * Places an order.
+		 */
+		Object place(OrderDetailsDTO dto) throws Exception;
+	}
+
+}
@@ -0,0 +1,222 @@
+package com.inventorymanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.inventorymanagement.dao.BrandRepository;
+import com.inventorymanagement.dao.CategoryRepository;
+import com.inventorymanagement.dto.ProductDTO;
+import com.inventorymanagement.entity.Brand;
+import com.inventorymanagement.entity.Category;
+
+/**
+ * Latency of single product reads on a 100k-product catalog, read from the
+ * database on every call as before the product cache, and through the cache
+ * once it has been warmed as at startup. Clients read products picked at
+ * random. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}. Results are logged, one line per run. The
+ * time-to-live is raised so that entries do not expire during the run.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:product-cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"inventory.product-cache.ttl-seconds=3600" })
+@ActiveProfiles("test")
+class ProductCacheBenchmarkTests {
+
+	/**
+	 * Logger the results are written to.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ProductCacheBenchmarkTests.class);
+
+	/**
+	 * Number of products in the catalog.
+	 */
+	private static final int PRODUCTS = 100_000;
+
+	/**
+	 * Reads per run, shared out among the clients.
+	 */
+	private static final int READS = 50_000;
+
+	/**
+	 * Number of clients reading at once.
+	 */
+	private static final int CLIENTS = 8;
+
+	/**
+	 * Rows inserted per JDBC batch while seeding.
+	 */
+	private static final int SEED_BATCH = 1000;
+
+	/**
+	 * Service under test.
+	 */
+	@Autowired
+	private ProductService productService;
+
+	/**
+	 * Repository used to create the brand.
+	 */
+	@Autowired
+	private BrandRepository brandRepository;
+
+	/**
+	 * Repository used to create the category.
+	 */
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	/**
+	 * Inserts the catalog in batches.
+	 */
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Reads random products without and then with the cache and logs the latency
+	 * of both.
+	 */
+	@Test
+	void fetchProductById() throws Exception {
+		final int[] productIds = seed();
+
+		report("uncached", measure(productIds,
+				productId -> productService.mapToDTO(productService.findProduct(productId))));
+
+		// Load the whole catalog into the cache page by page, as the startup warm-up does
+		List<ProductDTO> page = productService.warmProductPage(0, SEED_BATCH);
+		while (!page.isEmpty()) {
+			page = productService.warmProductPage(page.get(page.size() - 1).getProductId(), SEED_BATCH);
+		}
+		report("cached", measure(productIds, productService::findProductDTO));
+	}
+
+	/**
+	 * Inserts {@link #PRODUCTS} products of one brand and category and returns
+	 * their IDs.
+	 */
+	private int[] seed() {
+		final Brand brand = brandRepository.save(new Brand(0, "Benchmark"));
+		final Category category = categoryRepository.save(new Category(0, "Benchmark"));
+		final List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < PRODUCTS; i++) {
+			rows.add(new Object[] { "Product" + i, 100, 10f, barcode(i), brand.getBrandId(),
+					category.getCategoryId() });
+			if (rows.size() == SEED_BATCH || i == PRODUCTS - 1) {
+				jdbcTemplate.batchUpdate("INSERT INTO product (product_name, stock_available, price, barcode, version, "
+						+ "brand_id, category_id) VALUES (?, ?, ?, ?, 0, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+		final int[] productIds = jdbcTemplate.queryForList("SELECT product_id FROM product", Integer.class).stream()
+				.mapToInt(Integer::intValue).toArray();
+		assertEquals(PRODUCTS, productIds.length);
+		return productIds;
+	}
+
+	/**
+	 * Reads {@link #READS} random products from {@link #CLIENTS} clients and
+	 * returns the sorted latencies in nanoseconds.
+	 */
+	private static long[] measure(final int[] productIds, final Read read) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+		final List<Future<long[]>> results = new ArrayList<>();
+		try {
+			for (int client = 0; client < CLIENTS; client++) {
+				results.add(executor.submit(client(productIds, read, READS / CLIENTS)));
+			}
+			final long[] latencies = new long[READS / CLIENTS * CLIENTS];
+			int next = 0;
+			for (final Future<long[]> result : results) {
+				for (final long latency : result.get()) {
+					latencies[next++] = latency;
+				}
+			}
+			Arrays.sort(latencies);
+			return latencies;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * A client reading random products, returning the latency of each read in
+	 * nanoseconds.
+	 */
+	private static Callable<long[]> client(final int[] productIds, final Read read, final int reads) {
+		return () -> {
+			final long[] latencies = new long[reads];
+			for (int i = 0; i < reads; i++) {
+				final int productId = productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+				final long started = System.nanoTime();
+				final ProductDTO dto = read.read(productId);
+				latencies[i] = System.nanoTime() - started;
+				assertEquals(productId, dto.getProductId());
+			}
+			return latencies;
+		};
+	}
+
+	/**
+	 * Logs the percentiles of a run.
+	 */
+	private static void report(final String mode, final long[] sorted) {
+		if (LOG.isInfoEnabled()) {
+			LOG.info(String.format("%-8s %d products, %d clients: p50 %6.3f ms, p99 %6.3f ms, p99.9 %6.3f ms", mode,
+					PRODUCTS, CLIENTS, percentile(sorted, 0.50), percentile(sorted, 0.99),
+					percentile(sorted, 0.999)));
+		}
+	}
+
+	/**
+	 * Returns a percentile of sorted latencies, in milliseconds.
+	 */
+	private static double percentile(final long[] sorted, final double fraction) {
+		return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+	}
+
+	/**
+	 * Returns a unique bar code for a product number: four letters followed by
+	 * four digits.
+	 */
+	private static String barcode(final int number) {
+		final StringBuilder letters = new StringBuilder();
+		int high = number / 10_000;
+		for (int i = 0; i < 4; i++) {
+			letters.insert(0, (char) ('A' + high % 26));
+			high /= 26;
+		}
+		return letters.append(String.format("%04d", number % 10_000)).toString();
+	}
+
+	/**
+	 * A way of reading a product.
+	 */
+	@FunctionalInterface
+	private interface Read {
+
+		/**
+		 * Reads a product.
+		 */
+		ProductDTO read(int productId) throws Exception;
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.inventorymanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.inventorymanagement.TestCatalog;
+import com.inventorymanagement.dao.QueryStats;
+import com.inventorymanagement.dto.OrderDetailsDTO;
+import com.inventorymanagement.dto.ProductDTO;
+import com.inventorymanagement.entity.Product;
+import com.inventorymanagement.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The product read-through cache against an in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ProductServiceTests {
+
+	/**
+	 * Service under test.
+	 */
+	@Autowired
+	private ProductService productService;
+
+	/**
+	 * Service placing the orders that change the stock.
+	 */
+	@Autowired
+	private OrderDetailsService orderDetailsService;
+
+	/**
+	 * Registry holding the cache metrics.
+	 */
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Creates the products read.
+	 */
+	@Autowired
+	private TestCatalog catalog;
+
+	/**
+	 * The first read of a product misses and queries the database; the next ones
+	 * hit the cache without a statement.
+	 */
+	@Test
+	void repeatedReadsAreServedFromTheCache() throws Exception {
+		final Product product = catalog.product(10);
+		final double hits = cacheGets("hit");
+		final double misses = cacheGets("miss");
+
+		assertTrue(statementsToRead(product) > 0);
+		assertEquals(misses + 1, cacheGets("miss"));
+
+		assertEquals(0, statementsToRead(product));
+		assertEquals(0, statementsToRead(product));
+		assertEquals(hits + 2, cacheGets("hit"));
+	}
+
+	/**
+	 * An order drops the product from the cache, so the next read sees the new
+	 * stock.
+	 */
+	@Test
+	void ordersEvictTheProduct() throws Exception {
+		final Product product = catalog.product(10);
+		assertEquals(10, productService.findProductDTO(product.getProductId()).getStockAvailable());
+
+		final OrderDetailsDTO order = new OrderDetailsDTO();
+		order.setProductId(product.getProductId());
+		order.setOrderedQuantity(4);
+		orderDetailsService.placeOrder(order);
+
+		final double misses = cacheGets("miss");
+		assertEquals(6, productService.findProductDTO(product.getProductId()).getStockAvailable());
+		assertEquals(misses + 1, cacheGets("miss"));
+	}
+
+	/**
+	 * Reads a product and returns the number of statements the read prepared.
+	 */
+	private int statementsToRead(final Product product) throws ResourceNotFoundException {
+		final QueryStats stats = QueryStats.begin();
+		try {
+			final ProductDTO dto = productService.findProductDTO(product.getProductId());
+			assertEquals(product.getProductName(), dto.getProductName());
+			return stats.getStatements();
+		} finally {
+			QueryStats.end();
+		}
+	}
+
+	/**
+	 * Returns the number of product cache lookups with a given result.
+	 */
+	private double cacheGets(final String result) {
+		return meterRegistry.get("cache.gets").tag("cache", "products").tag("result", result).functionCounter()
+				.count();
+	}
+
+}